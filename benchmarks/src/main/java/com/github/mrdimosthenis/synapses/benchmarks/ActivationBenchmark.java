@@ -0,0 +1,67 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.CompiledNet;
+import com.github.mrdimosthenis.synapses.Fun;
+import com.github.mrdimosthenis.synapses.Net;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Predictions with the exact activation functions and with their fast approximations.
+ * The narrower the layers, the larger the share of the activation functions in a prediction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActivationBenchmark {
+
+    @Param({"16,16,16,16,16,4", "64,64,64,10", "784,128,10"})
+    public String layers;
+
+    @Param({"sigmoid", "tanh"})
+    public String activation;
+
+    CompiledNet exactNet;
+
+    CompiledNet fastNet;
+
+    double[] inputValues;
+
+    @Setup
+    public void setUp() {
+        int[] layerSizes = Datasets.layerSizes(layers);
+        Random random = new Random(Datasets.SEED);
+        Fun fun = activation.equals("tanh") ? Fun.TANH : Fun.SIGMOID;
+        Net net = new Net(layerSizes, _layerIndex -> fun, _layerIndex -> 1.0 - 2.0 * random.nextDouble());
+        exactNet = net.compile();
+        fastNet = exactNet.withFastActivations();
+        inputValues = Datasets.randomValues(random, layerSizes[0]);
+    }
+
+    @Benchmark
+    public double[] exactPredict() {
+        return exactNet.predict(inputValues);
+    }
+
+    @Benchmark
+    public double[] fastPredict() {
+        return fastNet.predict(inputValues);
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.Attribute;
+import com.github.mrdimosthenis.synapses.Codec;
+import com.github.mrdimosthenis.synapses.RowEncoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The encoding and the decoding of data points with the MNIST preprocessor of the test resources.
+ * Rows of values are encoded either by a row encoder or by putting them in a map first, as a reader of a file would.
+ * The data points of a codec with a label of 10,000 values show how the encoding scales with the number of values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    static final int DATAPOINTS = 256;
+
+    static final int LABELS = 10_000;
+
+    Codec codec;
+
+    Map<String, String>[] datapoints;
+
+    double[][] encodedValues;
+
+    String[] columns;
+
+    String[][] rows;
+
+    RowEncoder rowEncoder;
+
+    double[] buffer;
+
+    String[] decodedValues;
+
+    Codec wideCodec;
+
+    Map<String, String>[] wideDatapoints;
+
+    double[][] wideEncodedValues;
+
+    int index = 0;
+
+    @Setup
+    public void setUp() {
+        codec = new Codec(Datasets.testResource("preprocessor.json"));
+        datapoints = Datasets.mnistDatapoints(new Random(Datasets.SEED), DATAPOINTS);
+        encodedValues = new double[DATAPOINTS][];
+        for (int d = 0; d < DATAPOINTS; d++) {
+            encodedValues[d] = codec.encode(datapoints[d]);
+        }
+        columns = new String[785];
+        columns[0] = "label";
+        for (int p = 0; p < 784; p++) {
+            columns[p + 1] = "pixel" + p;
+        }
+        rows = new String[DATAPOINTS][columns.length];
+        for (int d = 0; d < DATAPOINTS; d++) {
+            for (int c = 0; c < columns.length; c++) {
+                rows[d][c] = datapoints[d].get(columns[c]);
+            }
+        }
+        rowEncoder = codec.rowEncoder(columns);
+        buffer = new double[rowEncoder.size()];
+        decodedValues = new String[columns.length];
+        Random random = new Random(Datasets.SEED);
+        @SuppressWarnings("unchecked")
+        Map<String, String>[] labels = new Map[LABELS];
+        for (int l = 0; l < LABELS; l++) {
+            labels[l] = Map.of("label", "label" + l, "score", Double.toString(random.nextDouble()));
+        }
+        wideCodec = new Codec(
+                new Attribute[]{new Attribute("label", true), new Attribute("score", false)},
+                Arrays.stream(labels)
+        );
+        @SuppressWarnings("unchecked")
+        Map<String, String>[] sample = new Map[DATAPOINTS];
+        wideDatapoints = sample;
+        wideEncodedValues = new double[DATAPOINTS][];
+        for (int d = 0; d < DATAPOINTS; d++) {
+            wideDatapoints[d] = labels[random.nextInt(LABELS)];
+            wideEncodedValues[d] = wideCodec.encode(wideDatapoints[d]);
+        }
+    }
+
+    @Benchmark
+    public double[] encode() {
+        index = (index + 1) % DATAPOINTS;
+        return codec.encode(datapoints[index]);
+    }
+
+    @Benchmark
+    public double[] encodeRowAsMap() {
+        index = (index + 1) % DATAPOINTS;
+        String[] row = rows[index];
+        Map<String, String> datapoint = new HashMap<>();
+        for (int c = 0; c < columns.length; c++) {
+            datapoint.put(columns[c], row[c]);
+        }
+        return codec.encode(datapoint);
+    }
+
+    @Benchmark
+    public double[] encodeRow() {
+        index = (index + 1) % DATAPOINTS;
+        rowEncoder.encode(rows[index], buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public Map<String, String> decode() {
+        index = (index + 1) % DATAPOINTS;
+        return codec.decode(encodedValues[index]);
+    }
+
+    @Benchmark
+    public String[] decodeIntoArray() {
+        index = (index + 1) % DATAPOINTS;
+        codec.decode(encodedValues[index], 0, decodedValues);
+        return decodedValues;
+    }
+
+    @Benchmark
+    public List<Map<String, String>> decodeBatch() {
+        return codec.decodeBatch(encodedValues);
+    }
+
+    @Benchmark
+    public double[] encodeWideLabel() {
+        index = (index + 1) % DATAPOINTS;
+        return wideCodec.encode(wideDatapoints[index]);
+    }
+
+    @Benchmark
+    public Map<String, String> decodeWideLabel() {
+        index = (index + 1) % DATAPOINTS;
+        return wideCodec.decode(wideEncodedValues[index]);
+    }
+
+    @Benchmark
+    public String json() {
+        return codec.json();
+    }
+
+}
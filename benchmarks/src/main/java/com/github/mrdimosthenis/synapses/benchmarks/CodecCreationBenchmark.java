@@ -0,0 +1,64 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.Attribute;
+import com.github.mrdimosthenis.synapses.Codec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The creation of a codec from MNIST-shaped data points, in a single pass and in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecCreationBenchmark {
+
+    static final int DATAPOINTS = 2_000;
+
+    Attribute[] attributes;
+
+    Map<String, String>[] datapoints;
+
+    @Setup
+    public void setUp() {
+        attributes = new Attribute[785];
+        attributes[0] = new Attribute("label", true);
+        for (int p = 0; p < 784; p++) {
+            attributes[p + 1] = new Attribute("pixel" + p, false);
+        }
+        datapoints = Datasets.mnistDatapoints(new Random(Datasets.SEED), DATAPOINTS);
+    }
+
+    @Benchmark
+    public Codec sequential() {
+        return new Codec(attributes, Arrays.stream(datapoints));
+    }
+
+    @Benchmark
+    public Codec parallel() {
+        return new Codec(attributes, Arrays.stream(datapoints).parallel());
+    }
+
+    @Benchmark
+    public Codec sequentialCollector() {
+        return Arrays.stream(datapoints).collect(Codec.collector(attributes));
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.Codec;
+import com.github.mrdimosthenis.synapses.EncodedCsv;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The encoding of an MNIST-shaped CSV file of about 20 MB with the MNIST preprocessor of the test resources.
+ * The file is encoded either straight from its bytes, sequentially and in parallel,
+ * or by reading its lines and putting the values of each line in a map first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvBenchmark {
+
+    static final int DATAPOINTS = 10_000;
+
+    Codec codec;
+
+    String[] columns;
+
+    Path csvFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        codec = new Codec(Datasets.testResource("preprocessor.json"));
+        columns = new String[785];
+        columns[0] = "label";
+        for (int p = 0; p < 784; p++) {
+            columns[p + 1] = "pixel" + p;
+        }
+        Map<String, String>[] datapoints = Datasets.mnistDatapoints(new Random(Datasets.SEED), DATAPOINTS);
+        csvFile = Files.createTempFile("benchmark", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", columns));
+            writer.newLine();
+            for (Map<String, String> datapoint : datapoints) {
+                for (int c = 0; c < columns.length; c++) {
+                    if (c > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(datapoint.get(columns[c]));
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public EncodedCsv read() throws IOException {
+        return EncodedCsv.read(csvFile, codec);
+    }
+
+    @Benchmark
+    public EncodedCsv parRead() throws IOException {
+        return EncodedCsv.parRead(csvFile, codec);
+    }
+
+    @Benchmark
+    public double[][] readAsMaps() throws IOException {
+        double[][] encodedValues = new double[DATAPOINTS][];
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            String[] header = reader.readLine().split(",");
+            for (int d = 0; d < DATAPOINTS; d++) {
+                String[] values = reader.readLine().split(",");
+                Map<String, String> datapoint = new HashMap<>();
+                for (int c = 0; c < header.length; c++) {
+                    datapoint.put(header[c], values[c]);
+                }
+                encodedValues[d] = codec.encode(datapoint);
+            }
+        }
+        return encodedValues;
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.Codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The inputs of the benchmarks. They are generated from a fixed seed, so that every run measures the same work.
+ */
+final class Datasets {
+
+    static final long SEED = 1000L;
+
+    private Datasets() {
+    }
+
+    /**
+     * Parses a comma-separated list of layer sizes, as given to a benchmark parameter.
+     */
+    static int[] layerSizes(String layers) {
+        return Arrays.stream(layers.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    static double[] randomValues(Random random, int size) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble();
+        }
+        return values;
+    }
+
+    static double[][] randomValues(Random random, int rows, int size) {
+        double[][] values = new double[rows][];
+        for (int r = 0; r < rows; r++) {
+            values[r] = randomValues(random, size);
+        }
+        return values;
+    }
+
+    /**
+     * Reads a file of the test resources, whether the benchmarks run from the root of the build or from their project.
+     */
+    static String testResource(String name) {
+        Path path = Paths.get("test-resources", name);
+        if (!Files.exists(path)) {
+            path = Paths.get("..", "test-resources", name);
+        }
+        try {
+            return new String(Files.readAllBytes(path), StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Generates data points in the shape of the MNIST dataset: a label and 784 pixels.
+     */
+    static Map<String, String>[] mnistDatapoints(Random random, int size) {
+        @SuppressWarnings("unchecked")
+        Map<String, String>[] datapoints = new Map[size];
+        for (int d = 0; d < size; d++) {
+            Map<String, String> datapoint = new HashMap<>();
+            datapoint.put("label", Integer.toString(random.nextInt(10)));
+            for (int p = 0; p < 784; p++) {
+                datapoint.put("pixel" + p, Integer.toString(random.nextInt(4) == 0 ? random.nextInt(256) : 0));
+            }
+            datapoints[d] = datapoint;
+        }
+        return datapoints;
+    }
+
+    /**
+     * Generates learnable data points in the shape of the MNIST dataset.
+     * Each label has a prototype of bright pixels, and each data point is its prototype with some of the pixels flipped,
+     * so that a network can learn to classify them as it would learn real digits.
+     * Only the pixels that the codec scales over their full range are drawn, as the ones near the borders
+     * are dark in every real digit.
+     */
+    static Map<String, String>[] learnableMnistDatapoints(Codec codec, Random random, int size) {
+        Map<String, String> probe = new HashMap<>();
+        probe.put("label", "0");
+        for (int p = 0; p < 784; p++) {
+            probe.put("pixel" + p, "255");
+        }
+        double[] probed = codec.encode(probe);
+        Random prototypes = new Random(SEED);
+        boolean[][] bright = new boolean[10][784];
+        for (int label = 0; label < 10; label++) {
+            for (int p = 0; p < 784; p++) {
+                bright[label][p] = prototypes.nextInt(5) == 0;
+            }
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String>[] datapoints = new Map[size];
+        for (int d = 0; d < size; d++) {
+            int label = random.nextInt(10);
+            Map<String, String> datapoint = new HashMap<>();
+            datapoint.put("label", Integer.toString(label));
+            for (int p = 0; p < 784; p++) {
+                boolean drawn = probed[probed.length - 784 + p] == 1.0;
+                boolean on = drawn && bright[label][p] ^ random.nextInt(3) == 0;
+                datapoint.put("pixel" + p, Integer.toString(on ? 128 + random.nextInt(128) : 0));
+            }
+            datapoints[d] = datapoint;
+        }
+        return datapoints;
+    }
+
+}
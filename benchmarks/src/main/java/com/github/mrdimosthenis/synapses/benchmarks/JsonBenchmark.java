@@ -0,0 +1,87 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.Net;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The persistence of neural networks, as JSON and as binary.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"784,128,10", "1024,1024,10"})
+    public String layers;
+
+    Net net;
+
+    String json;
+
+    byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        net = new Net(Datasets.layerSizes(layers), Datasets.SEED);
+        json = net.json();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        net.writeTo(out);
+        binary = out.toByteArray();
+    }
+
+    @Benchmark
+    public Net parseJson() {
+        return new Net(json);
+    }
+
+    @Benchmark
+    public String json() {
+        return new Net(json).json();
+    }
+
+    @Benchmark
+    public Net readJson() throws IOException {
+        return new Net(new StringReader(json));
+    }
+
+    @Benchmark
+    public StringWriter writeJson() throws IOException {
+        StringWriter writer = new StringWriter(json.length());
+        net.writeJson(writer);
+        return writer;
+    }
+
+    @Benchmark
+    public Net readBinary() throws IOException {
+        return Net.readFrom(new ByteArrayInputStream(binary));
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream writeBinary() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(binary.length);
+        net.writeTo(out);
+        return out;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.CompiledNet;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Trainer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scalar and the vector kernels of prediction and training.
+ * <p>
+ * The kernels are chosen when the JVM starts, so each one runs in its own fork.
+ * The vector kernels need JDK 17 or later.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class KernelBenchmark {
+
+    @Param({"100,100,10", "1024,1024,10"})
+    public String layers;
+
+    CompiledNet compiledNet;
+
+    Trainer trainer;
+
+    double[] inputValues;
+
+    double[] expectedOutput;
+
+    @Setup
+    public void setUp() {
+        int[] layerSizes = Datasets.layerSizes(layers);
+        Random random = new Random(Datasets.SEED);
+        Net net = new Net(layerSizes, Datasets.SEED);
+        compiledNet = net.compile();
+        trainer = net.trainer();
+        inputValues = Datasets.randomValues(random, layerSizes[0]);
+        expectedOutput = Datasets.randomValues(random, layerSizes[layerSizes.length - 1]);
+    }
+
+    double[] predict() {
+        return compiledNet.predict(inputValues);
+    }
+
+    Trainer fit() {
+        trainer.fit(0.01, inputValues, expectedOutput);
+        return trainer;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dsynapses.vector=false")
+    public double[] scalarPredict() {
+        return predict();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public double[] vectorPredict() {
+        return predict();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dsynapses.vector=false")
+    public Trainer scalarFit() {
+        return fit();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public Trainer vectorFit() {
+        return fit();
+    }
+
+}
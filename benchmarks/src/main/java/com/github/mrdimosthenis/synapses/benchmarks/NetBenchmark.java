@@ -0,0 +1,122 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.CompiledNet;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Workspace;
+
+import synapses.jvm.NetJ;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-observation predictions and fits over a grid of layer sizes.
+ * The predictions and the fits of the network of synapses, which are made over lists,
+ * are the baseline of the compiled ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetBenchmark {
+
+    @Param({"10,10,10", "100,100,10", "784,128,10", "1024,4096,1024,10"})
+    public String layers;
+
+    Net net;
+
+    CompiledNet compiledNet;
+
+    NetJ netJ;
+
+    Workspace workspace;
+
+    double[] inputValues;
+
+    double[] expectedOutput;
+
+    double[] outputValues;
+
+    @Setup
+    public void setUp() {
+        int[] layerSizes = Datasets.layerSizes(layers);
+        Random random = new Random(Datasets.SEED);
+        net = new Net(layerSizes, Datasets.SEED);
+        compiledNet = net.compile();
+        netJ = NetJ.apply(net.json());
+        workspace = compiledNet.workspace();
+        inputValues = Datasets.randomValues(random, layerSizes[0]);
+        expectedOutput = Datasets.randomValues(random, layerSizes[layerSizes.length - 1]);
+        outputValues = new double[expectedOutput.length];
+    }
+
+    @Benchmark
+    public double[] predict() {
+        return net.predict(inputValues);
+    }
+
+    @Benchmark
+    public double[] netJPredict() {
+        return netJ.predict(inputValues);
+    }
+
+    @Benchmark
+    public double[] parPredict() {
+        return net.parPredict(inputValues);
+    }
+
+    @Benchmark
+    public double[] autoPredict() {
+        return net.autoPredict(inputValues);
+    }
+
+    @Benchmark
+    public double[] compiledPredict() {
+        return compiledNet.predict(inputValues);
+    }
+
+    @Benchmark
+    public double[] workspacePredict() {
+        compiledNet.predict(inputValues, outputValues, workspace);
+        return outputValues;
+    }
+
+    @Benchmark
+    public Net fit() {
+        net.fit(0.01, inputValues, expectedOutput);
+        return net;
+    }
+
+    @Benchmark
+    public NetJ netJFit() {
+        netJ = netJ.fit(0.01, inputValues, expectedOutput);
+        return netJ;
+    }
+
+    @Benchmark
+    public Net fitPar() {
+        net.fitPar(0.01, inputValues, expectedOutput);
+        return net;
+    }
+
+    @Benchmark
+    public Net autoFit() {
+        net.autoFit(0.01, inputValues, expectedOutput);
+        return net;
+    }
+
+}
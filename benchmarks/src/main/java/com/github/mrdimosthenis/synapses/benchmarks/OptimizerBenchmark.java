@@ -0,0 +1,162 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.Codec;
+import com.github.mrdimosthenis.synapses.Fun;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Optimizer;
+import com.github.mrdimosthenis.synapses.Stats;
+import com.github.mrdimosthenis.synapses.Trainer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * The wall-clock time to train a network on MNIST-shaped data until it reaches a target score on held-out data.
+ * There is no MNIST dataset in the test resources, so the data points are generated in its shape
+ * and encoded by the MNIST codec of the test resources.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OptimizerBenchmark {
+
+    static final int[] LAYER_SIZES = {784, 10};
+
+    static final int TRAINING_SIZE = 2048;
+
+    static final int TEST_SIZE = 500;
+
+    static final int BATCH = 32;
+
+    static final int SCORE_INTERVAL = 4;
+
+    static final int MAX_EPOCHS = 20;
+
+    static final double TARGET_SCORE = 0.95;
+
+    @Param({"sgd", "momentum", "nesterov", "adam"})
+    public String optimizer;
+
+    double learningRate;
+
+    Optimizer rule;
+
+    double[][] trainingInputs;
+
+    double[][] trainingOutputs;
+
+    double[][] testInputs;
+
+    double[][] testOutputs;
+
+    Net net;
+
+    @Setup(Level.Trial)
+    public void setUpData() {
+        Codec codec = new Codec(Datasets.testResource("preprocessor.json"));
+        Random random = new Random(Datasets.SEED);
+        double[][] training = encoded(codec, Datasets.learnableMnistDatapoints(codec, random, TRAINING_SIZE));
+        double[][] test = encoded(codec, Datasets.learnableMnistDatapoints(codec, random, TEST_SIZE));
+        trainingInputs = inputs(training);
+        trainingOutputs = outputs(training);
+        testInputs = inputs(test);
+        testOutputs = outputs(test);
+        switch (optimizer) {
+            case "momentum":
+                rule = Optimizer.momentum(0.9);
+                learningRate = 0.01;
+                break;
+            case "nesterov":
+                rule = Optimizer.nesterov(0.9);
+                learningRate = 0.01;
+                break;
+            case "adam":
+                rule = Optimizer.adam();
+                learningRate = 0.001;
+                break;
+            default:
+                rule = Optimizer.SGD;
+                learningRate = 0.1;
+        }
+    }
+
+    /**
+     * A fresh network for every measurement, with initial weights scaled to the size of their layer's input,
+     * so that the sigmoids of the 784 pixels are not saturated from the start.
+     */
+    @Setup(Level.Iteration)
+    public void setUpNet() {
+        Random random = new Random(Datasets.SEED);
+        net = new Net(
+                LAYER_SIZES,
+                _layerIndex -> Fun.SIGMOID,
+                layerIndex -> (1.0 - 2.0 * random.nextDouble()) / Math.sqrt(LAYER_SIZES[layerIndex])
+        );
+    }
+
+    static double[][] encoded(Codec codec, Map<String, String>[] datapoints) {
+        return Arrays.stream(datapoints).map(codec::encode).toArray(double[][]::new);
+    }
+
+    /**
+     * The encoded pixels, which follow the ten values of the encoded label.
+     */
+    static double[][] inputs(double[][] encoded) {
+        return Arrays.stream(encoded).map(values -> Arrays.copyOfRange(values, 10, values.length)).toArray(double[][]::new);
+    }
+
+    static double[][] outputs(double[][] encoded) {
+        return Arrays.stream(encoded).map(values -> Arrays.copyOf(values, 10)).toArray(double[][]::new);
+    }
+
+    double testScore(Trainer trainer) {
+        return Stats.score(IntStream.range(0, testInputs.length)
+                .mapToObj(i -> new double[][]{testOutputs[i], trainer.predict(testInputs[i])}));
+    }
+
+    /**
+     * Trains in mini-batches until the target score is reached,
+     * and returns the number of observations it took.
+     * The score is checked every few batches and the training stops after a maximum number of epochs.
+     */
+    @Benchmark
+    public int timeToScore() {
+        Trainer trainer = net.trainer(rule);
+        int observations = 0;
+        for (int epoch = 0; epoch < MAX_EPOCHS; epoch++) {
+            for (int from = 0; from < TRAINING_SIZE; from += BATCH) {
+                int to = Math.min(from + BATCH, TRAINING_SIZE);
+                trainer.fitBatch(
+                        learningRate,
+                        Arrays.copyOfRange(trainingInputs, from, to),
+                        Arrays.copyOfRange(trainingOutputs, from, to)
+                );
+                observations += to - from;
+                if (observations % (SCORE_INTERVAL * BATCH) == 0 && testScore(trainer) >= TARGET_SCORE) {
+                    return observations;
+                }
+            }
+        }
+        return observations;
+    }
+
+}
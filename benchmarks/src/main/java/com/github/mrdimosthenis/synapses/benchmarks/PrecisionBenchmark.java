@@ -0,0 +1,103 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.CompiledNet;
+import com.github.mrdimosthenis.synapses.FloatNet;
+import com.github.mrdimosthenis.synapses.MappedNet;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.QuantizedNet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Predictions of wide layers with the weights in double precision, in single precision, as 8-bit integers
+ * and mapped from a file. The memory of the weights is 8, 4, 1 and 0 bytes of heap per weight respectively.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrecisionBenchmark {
+
+    @Param({"784,128,10", "2048,2048,10", "4096,4096,10"})
+    public String layers;
+
+    CompiledNet compiledNet;
+
+    FloatNet floatNet;
+
+    QuantizedNet quantizedNet;
+
+    MappedNet mappedNet;
+
+    Path mappedFile;
+
+    double[] inputValues;
+
+    float[] floatInputValues;
+
+    @Setup
+    public void setUp() throws IOException {
+        int[] layerSizes = Datasets.layerSizes(layers);
+        Random random = new Random(Datasets.SEED);
+        Net net = new Net(layerSizes, Datasets.SEED);
+        compiledNet = net.compile();
+        floatNet = net.toFloat();
+        quantizedNet = net.quantize(Datasets.randomValues(random, 64, layerSizes[0]));
+        mappedFile = Files.createTempFile("benchmark", ".bin");
+        try (OutputStream out = Files.newOutputStream(mappedFile)) {
+            net.writeTo(out);
+        }
+        mappedNet = MappedNet.open(mappedFile);
+        inputValues = Datasets.randomValues(random, layerSizes[0]);
+        floatInputValues = new float[inputValues.length];
+        for (int i = 0; i < inputValues.length; i++) {
+            floatInputValues[i] = (float) inputValues[i];
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(mappedFile);
+    }
+
+    @Benchmark
+    public double[] doublePredict() {
+        return compiledNet.predict(inputValues);
+    }
+
+    @Benchmark
+    public float[] floatPredict() {
+        return floatNet.predict(floatInputValues);
+    }
+
+    @Benchmark
+    public double[] quantizedPredict() {
+        return quantizedNet.predict(inputValues);
+    }
+
+    @Benchmark
+    public double[] mappedPredict() {
+        return mappedNet.predict(inputValues);
+    }
+
+}
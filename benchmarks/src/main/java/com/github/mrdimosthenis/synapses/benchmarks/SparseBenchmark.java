@@ -0,0 +1,104 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.CompiledNet;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Trainer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Predictions and fits of the same inputs in their dense and in their sparse form.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SparseBenchmark {
+
+    @Param({"784,128,10", "1000,32,2"})
+    public String layers;
+
+    @Param({"0.9", "0.99"})
+    public double zeros;
+
+    CompiledNet compiledNet;
+
+    Net net;
+
+    Trainer trainer;
+
+    double[] denseInput;
+
+    int[] inputIndices;
+
+    double[] inputValues;
+
+    double[] expectedOutput;
+
+    @Setup
+    public void setUp() {
+        int[] layerSizes = Datasets.layerSizes(layers);
+        Random random = new Random(Datasets.SEED);
+        net = new Net(layerSizes, Datasets.SEED).inPlace(true);
+        compiledNet = net.compile();
+        trainer = net.trainer();
+        denseInput = new double[layerSizes[0]];
+        for (int i = 0; i < denseInput.length; i++) {
+            denseInput[i] = random.nextDouble() < zeros ? 0.0 : random.nextDouble();
+        }
+        inputIndices = IntStream.range(0, denseInput.length).filter(i -> denseInput[i] != 0.0).toArray();
+        inputValues = IntStream.of(inputIndices).mapToDouble(i -> denseInput[i]).toArray();
+        expectedOutput = Datasets.randomValues(random, layerSizes[layerSizes.length - 1]);
+    }
+
+    @Benchmark
+    public double[] densePredict() {
+        return compiledNet.predict(denseInput);
+    }
+
+    @Benchmark
+    public double[] sparsePredict() {
+        return compiledNet.predict(inputIndices, inputValues);
+    }
+
+    @Benchmark
+    public Trainer denseTrainerFit() {
+        trainer.fit(0.01, denseInput, expectedOutput);
+        return trainer;
+    }
+
+    @Benchmark
+    public Trainer sparseTrainerFit() {
+        trainer.fit(0.01, inputIndices, inputValues, expectedOutput);
+        return trainer;
+    }
+
+    @Benchmark
+    public Net denseFit() {
+        net.fit(0.01, denseInput, expectedOutput);
+        return net;
+    }
+
+    @Benchmark
+    public Net sparseFit() {
+        net.fit(0.01, inputIndices, inputValues, expectedOutput);
+        return net;
+    }
+
+}
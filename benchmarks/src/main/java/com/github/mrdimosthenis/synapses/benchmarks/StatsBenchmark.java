@@ -0,0 +1,59 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.Stats;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The metrics over large streams of output pairs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int pairs;
+
+    double[][][] outputPairs;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(Datasets.SEED);
+        outputPairs = new double[pairs][][];
+        for (int p = 0; p < pairs; p++) {
+            outputPairs[p] = new double[][]{
+                    Datasets.randomValues(random, 10),
+                    Datasets.randomValues(random, 10)
+            };
+        }
+    }
+
+    @Benchmark
+    public double rmse() {
+        return Stats.rmse(Arrays.stream(outputPairs));
+    }
+
+    @Benchmark
+    public double score() {
+        return Stats.score(Arrays.stream(outputPairs));
+    }
+
+}
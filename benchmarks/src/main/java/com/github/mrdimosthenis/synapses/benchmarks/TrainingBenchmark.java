@@ -0,0 +1,110 @@
+package com.github.mrdimosthenis.synapses.benchmarks;
+
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Throughput;
+import com.github.mrdimosthenis.synapses.Trainer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Training over a batch of observations, in every way a neural network can be trained.
+ * The scores are observations per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrainingBenchmark {
+
+    static final int BATCH = 256;
+
+    @Param({"100,100,10", "784,128,10"})
+    public String layers;
+
+    Net net;
+
+    Trainer trainer;
+
+    double[][] inputs;
+
+    double[][] outputs;
+
+    double[][][] observations;
+
+    @Setup
+    public void setUp() {
+        int[] layerSizes = Datasets.layerSizes(layers);
+        Random random = new Random(Datasets.SEED);
+        net = new Net(layerSizes, Datasets.SEED);
+        trainer = net.trainer();
+        inputs = Datasets.randomValues(random, BATCH, layerSizes[0]);
+        outputs = Datasets.randomValues(random, BATCH, layerSizes[layerSizes.length - 1]);
+        observations = new double[BATCH][][];
+        for (int i = 0; i < BATCH; i++) {
+            observations[i] = new double[][]{inputs[i], outputs[i]};
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Net fit() {
+        for (int i = 0; i < BATCH; i++) {
+            net.fit(0.01, inputs[i], outputs[i]);
+        }
+        return net;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Net fitBatch() {
+        net.fitBatch(0.01, inputs, outputs);
+        return net;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Net fitBatchPar() {
+        net.fitBatchPar(0.01, inputs, outputs);
+        return net;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Trainer trainerFit() {
+        for (int i = 0; i < BATCH; i++) {
+            trainer.fit(0.01, inputs[i], outputs[i]);
+        }
+        return trainer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Trainer trainerFitBatchPar() {
+        trainer.fitBatchPar(0.01, inputs, outputs);
+        return trainer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Throughput trainerFitHogwild() {
+        return trainer.fitHogwild(0.01, Arrays.stream(observations), Runtime.getRuntime().availableProcessors());
+    }
+
+}
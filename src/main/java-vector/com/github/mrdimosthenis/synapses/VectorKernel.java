@@ -0,0 +1,51 @@
+package com.github.mrdimosthenis.synapses;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The kernels that are performed by the vector instructions of the processor.
+ * <p>
+ * This class is compiled apart, for JDK 17 or later, into the versioned part of the multi-release jar.
+ * It is loaded by {@link Kernels} when the vector module is available.
+ */
+final class VectorKernel implements Kernels.Kernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public double dot(double[] a, int aOffset, double[] b, int bOffset, int length, double sum) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        if (bound > 0) {
+            DoubleVector lanes = DoubleVector.zero(SPECIES);
+            for (; i < bound; i += SPECIES.length()) {
+                DoubleVector x = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+                DoubleVector y = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+                lanes = lanes.add(x.mul(y));
+            }
+            sum += lanes.reduceLanes(VectorOperators.ADD);
+        }
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(double scale, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, x, xOffset + i)
+                    .mul(scale)
+                    .add(DoubleVector.fromArray(SPECIES, y, yOffset + i))
+                    .intoArray(y, yOffset + i);
+        }
+        for (; i < length; i++) {
+            y[yOffset + i] += scale * x[xOffset + i];
+        }
+    }
+
+}
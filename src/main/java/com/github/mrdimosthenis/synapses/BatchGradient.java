@@ -0,0 +1,140 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Accumulates the average adjustments for a batch of observations.
+ * <p>
+ * The batch is split in leaves of {@link #LEAF} consecutive observations.
+ * The adjustments of each leaf are accumulated in a replica of the buffers
+ * and the replicas are added in a binary tree that halves the leaves at every level.
+ * The shape of the tree depends only on the size of the batch,
+ * so the result is identical whether the leaves are calculated by one thread or by many.
+ * <p>
+ * The replicas are kept between batches, so that a batch fit allocates no memory once they are created.
+ */
+final class BatchGradient {
+
+    /**
+     * The number of consecutive observations whose adjustments are accumulated in the same replica.
+     */
+    static final int LEAF = 16;
+
+    private final int[] layerSizes;
+
+    private final ConcurrentLinkedQueue<Gradient> spares = new ConcurrentLinkedQueue<>();
+
+    BatchGradient(int[] layerSizes) {
+        this.layerSizes = layerSizes;
+    }
+
+    /**
+     * Accumulates the adjustments of the observations in the calling thread.
+     * <p>
+     * The returned gradient should be released once it has been subtracted from the weights.
+     *
+     * @return The sum of the adjustments, each one scaled by the learning rate divided by the batch size.
+     */
+    Gradient of(CompiledNet net, double learningRate, double[][] inputValues, double[][] expectedOutputs) {
+        return new Reduction(net, learningRate, inputValues, expectedOutputs, false).compute();
+    }
+
+    /**
+     * Accumulates the adjustments of the observations with the workers of a pool.
+     * <p>
+     * The result is identical to that of {@link #of}, whatever the number of workers.
+     *
+     * @return The sum of the adjustments, each one scaled by the learning rate divided by the batch size.
+     */
+    Gradient parOf(CompiledNet net,
+                   double learningRate,
+                   double[][] inputValues,
+                   double[][] expectedOutputs,
+                   ForkJoinPool pool) {
+        return pool.invoke(new Reduction(net, learningRate, inputValues, expectedOutputs, true));
+    }
+
+    /**
+     * Returns a gradient to the replicas that later batches reuse.
+     */
+    void release(Gradient gradient) {
+        spares.add(gradient);
+    }
+
+    private Gradient acquire() {
+        Gradient gradient = spares.poll();
+        if (gradient == null) {
+            gradient = new Gradient(layerSizes);
+        }
+        gradient.clear();
+        return gradient;
+    }
+
+    private class Reduction extends RecursiveTask<Gradient> {
+
+        final CompiledNet net;
+        final double[][] inputValues;
+        final double[][] expectedOutputs;
+        final double scale;
+        final boolean inParallel;
+        final int fromLeaf;
+        final int toLeaf;
+
+        Reduction(CompiledNet net,
+                  double learningRate,
+                  double[][] inputValues,
+                  double[][] expectedOutputs,
+                  boolean inParallel) {
+            this(net, inputValues, expectedOutputs, learningRate / inputValues.length, inParallel,
+                    0, (inputValues.length + LEAF - 1) / LEAF);
+        }
+
+        Reduction(CompiledNet net,
+                  double[][] inputValues,
+                  double[][] expectedOutputs,
+                  double scale,
+                  boolean inParallel,
+                  int fromLeaf,
+                  int toLeaf) {
+            this.net = net;
+            this.inputValues = inputValues;
+            this.expectedOutputs = expectedOutputs;
+            this.scale = scale;
+            this.inParallel = inParallel;
+            this.fromLeaf = fromLeaf;
+            this.toLeaf = toLeaf;
+        }
+
+        @Override
+        protected Gradient compute() {
+            if (toLeaf - fromLeaf == 1) {
+                Gradient gradient = acquire();
+                int to = Math.min(toLeaf * LEAF, inputValues.length);
+                for (int i = fromLeaf * LEAF; i < to; i++) {
+                    gradient.add(net, inputValues[i], expectedOutputs[i], scale);
+                }
+                return gradient;
+            }
+            int middle = (fromLeaf + toLeaf) >>> 1;
+            Reduction left = new Reduction(net, inputValues, expectedOutputs, scale, inParallel, fromLeaf, middle);
+            Reduction right = new Reduction(net, inputValues, expectedOutputs, scale, inParallel, middle, toLeaf);
+            Gradient leftGradient;
+            Gradient rightGradient;
+            if (inParallel) {
+                right.fork();
+                leftGradient = left.compute();
+                rightGradient = right.join();
+            } else {
+                leftGradient = left.compute();
+                rightGradient = right.compute();
+            }
+            leftGradient.add(rightGradient);
+            release(rightGradient);
+            return leftGradient;
+        }
+
+    }
+
+}
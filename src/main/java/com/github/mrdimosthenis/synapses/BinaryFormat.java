@@ -0,0 +1,161 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The binary representation of a neural network.
+ * <p>
+ * All numbers are little-endian. The header consists of 32-bit integers:
+ * <ul>
+ *     <li>the magic number {@code "SYNN"} and the version of the format,</li>
+ *     <li>the number of layers, including the input layer,</li>
+ *     <li>the size of each layer,</li>
+ *     <li>the id of the activation function of each layer but the input layer.</li>
+ * </ul>
+ * The header is padded to a multiple of 8 bytes and it is followed by the weights of each layer as doubles,
+ * in the layout of {@link CompiledNet}, so that they can be mapped to memory directly.
+ */
+final class BinaryFormat {
+
+    /**
+     * The bytes {@code "SYNN"}, as a little-endian integer.
+     */
+    static final int MAGIC = 0x4E4E5953;
+
+    static final int VERSION = 1;
+
+    /**
+     * The number of bytes that are written or read at once.
+     */
+    private static final int CHUNK = 8192;
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * The size of the header, which is also the position of the first weight.
+     *
+     * @param layers The number of layers, including the input layer.
+     * @throws IllegalArgumentException If the header is too large for an array.
+     */
+    static int headerSize(int layers) {
+        long size = 4L * (3L + layers + layers - 1L);
+        if (size > Integer.MAX_VALUE - 7) {
+            throw new IllegalArgumentException("The header of " + layers + " layers is too large");
+        }
+        return ((int) size + 7) & ~7;
+    }
+
+    /**
+     * The number of weights of a layer, which is the size of its array in the layout of {@link CompiledNet}.
+     *
+     * @param inputSize  The size of the previous layer.
+     * @param outputSize The size of the layer.
+     * @throws IllegalArgumentException If the weights are too many for an array.
+     */
+    static int weightCount(int inputSize, int outputSize) {
+        long count = outputSize * (inputSize + 1L);
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "A layer of " + outputSize + " neurons with " + inputSize + " inputs has too many weights"
+            );
+        }
+        return (int) count;
+    }
+
+    static void write(CompiledNet net, OutputStream out) throws IOException {
+        int layers = net.layerSizes.length;
+        ByteBuffer header = ByteBuffer.allocate(headerSize(layers)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(layers);
+        for (int size : net.layerSizes) {
+            header.putInt(size);
+        }
+        for (Fun activation : net.activations) {
+            header.putInt(activation.id());
+        }
+        out.write(header.array());
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+        for (double[] layerWeights : net.weights) {
+            for (int i = 0; i < layerWeights.length; ) {
+                int length = Math.min(CHUNK / 8, layerWeights.length - i);
+                chunk.clear();
+                chunk.asDoubleBuffer().put(layerWeights, i, length);
+                out.write(chunk.array(), 0, 8 * length);
+                i += length;
+            }
+        }
+        out.flush();
+    }
+
+    static CompiledNet read(InputStream in) throws IOException {
+        DataInputStream input = new DataInputStream(in);
+        byte[] bytes = new byte[CHUNK];
+        input.readFully(bytes, 0, 12);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int layers = checkedLayers(buffer.getInt(0), buffer.getInt(4), buffer.getInt(8));
+        int headerSize = headerSize(layers);
+        if (headerSize > bytes.length) {
+            bytes = new byte[headerSize];
+            System.arraycopy(buffer.array(), 0, bytes, 0, 12);
+            buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        input.readFully(bytes, 12, headerSize - 12);
+        int[] layerSizes = new int[layers];
+        Fun[] activations = new Fun[layers - 1];
+        readShape(buffer, layerSizes, activations);
+        double[][] weights = new double[layers - 1][];
+        for (int l = 0; l < weights.length; l++) {
+            double[] layerWeights = new double[weightCount(layerSizes[l], layerSizes[l + 1])];
+            for (int i = 0; i < layerWeights.length; ) {
+                int length = Math.min(bytes.length / 8, layerWeights.length - i);
+                input.readFully(bytes, 0, 8 * length);
+                buffer.clear();
+                buffer.asDoubleBuffer().get(layerWeights, i, length);
+                i += length;
+            }
+            weights[l] = layerWeights;
+        }
+        return new CompiledNet(layerSizes, activations, weights);
+    }
+
+    /**
+     * Checks the first three integers of the header.
+     *
+     * @return The number of layers, including the input layer.
+     * @throws IllegalArgumentException If the data is not a neural network of a supported version.
+     */
+    static int checkedLayers(int magic, int version, int layers) {
+        if (magic != MAGIC) {
+            throw new IllegalArgumentException("The data is not the binary representation of a neural network");
+        }
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported version of the binary format: " + version);
+        }
+        if (layers < 2) {
+            throw new IllegalArgumentException("A neural network should have at least 2 layers, not " + layers);
+        }
+        return layers;
+    }
+
+    /**
+     * Reads the layer sizes and the activation functions of a header that starts at the beginning of the buffer.
+     */
+    static void readShape(ByteBuffer header, int[] layerSizes, Fun[] activations) {
+        int position = 12;
+        for (int l = 0; l < layerSizes.length; l++, position += 4) {
+            layerSizes[l] = header.getInt(position);
+            if (layerSizes[l] < 1) {
+                throw new IllegalArgumentException("Layer " + l + " has no neurons");
+            }
+        }
+        for (int l = 0; l < activations.length; l++, position += 4) {
+            activations[l] = Fun.withId(header.getInt(position));
+        }
+    }
+
+}
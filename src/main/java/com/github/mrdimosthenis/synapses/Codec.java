@@ -1,7 +1,14 @@
 package com.github.mrdimosthenis.synapses;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collector;
 import java.util.stream.Stream;
 
 import synapses.custom.AttributeWithFlag;
@@ -41,6 +48,13 @@ import synapses.jvm.CodecJ;
  * }
  * </pre>
  * <p>
+ * Encode a row of values in the order of the attributes, into a buffer:
+ * <pre>
+ * {@code
+ * codec.rowEncoder().encode(new String[]{"1.5", "setosa"}, buffer, 0);
+ * }
+ * </pre>
+ * <p>
  * <p>
  * Decode a data point:
  * <pre>
@@ -50,6 +64,14 @@ import synapses.jvm.CodecJ;
  * </pre>
  * <p>
  * <p>
+ * Decode the predictions of a batch:
+ * <pre>
+ * {@code
+ * codec.decodeBatch(net.predictBatch(encodedValues));
+ * }
+ * </pre>
+ * <p>
+ * <p>
  * Get the JSON representation of the codec:
  * <pre>
  * {@code
@@ -60,22 +82,56 @@ import synapses.jvm.CodecJ;
  */
 public class Codec {
 
+    /**
+     * The codec of synapses. It is absent when the codec has been read from a stream.
+     */
     CodecJ contents;
 
+    /**
+     * The attributes as plain arrays. They are extracted from the codec of synapses when they are first needed.
+     */
+    Encoding encoding;
+
+    /**
+     * The listener that records the encodings and the decodings, if one has been registered.
+     */
+    NetMetrics metrics;
+
     /**
      * Creates a codec by consuming a stream of data points.
+     * <p>
+     * When the stream is parallel, its parts are consumed in parallel by {@link CodecBuilder}s that are merged
+     * in the order of the parts, so the codec is identical to the one of the sequential stream.
      *
      * @param attributes An array of attributes that defines their names and types (discrete or not).
      * @param datapoints A stream that contains the data points.
+     * @throws IllegalArgumentException If the stream contains no data points.
      */
     public Codec(Attribute[] attributes,
                  Stream<Map<String, String>> datapoints) {
+        Events.CodecCreation event = new Events.CodecCreation();
+        event.begin();
+        if (datapoints.isParallel()) {
+            CodecBuilder builder = datapoints.collect(
+                    () -> new CodecBuilder(attributes),
+                    CodecBuilder::add,
+                    CodecBuilder::merge
+            );
+            encoding = builder.encoding();
+            created(event, "datapoints", attributes.length, builder.datapoints());
+            return;
+        }
         AttributeWithFlag[] keysWithDiscreteFlags =
                 Arrays.stream(attributes)
                         .map(attribute ->
                                 new AttributeWithFlag(attribute.name, attribute.flag)
                         ).toArray(AttributeWithFlag[]::new);
-        contents = CodecJ.apply(keysWithDiscreteFlags, datapoints);
+        long[] count = {0};
+        contents = CodecJ.apply(keysWithDiscreteFlags, datapoints.peek(datapoint -> count[0]++));
+        if (count[0] == 0) {
+            throw new IllegalArgumentException("A codec cannot be created without data points");
+        }
+        created(event, "datapoints", attributes.length, count[0]);
     }
 
     /**
@@ -84,17 +140,94 @@ public class Codec {
      * @param json The JSON representation of a codec.
      */
     public Codec(String json) {
+        Events.CodecCreation event = new Events.CodecCreation();
+        event.begin();
         contents = CodecJ.apply(json);
+        if (event.shouldCommit()) {
+            created(event, "json", encoding().keys.length, 0);
+        }
+    }
+
+    /**
+     * Creates a codec by parsing its JSON representation incrementally.
+     * <p>
+     * The JSON representation is never held in memory as a whole. The reader is not closed.
+     *
+     * @param json A reader of the JSON representation of a codec.
+     * @throws IOException If the reader fails.
+     */
+    public Codec(Reader json) throws IOException {
+        Events.CodecCreation event = new Events.CodecCreation();
+        event.begin();
+        encoding = Encoding.parse(json);
+        created(event, "reader", encoding.keys.length, 0);
+    }
+
+    Codec(Encoding _encoding) {
+        encoding = _encoding;
+    }
+
+    /**
+     * A collector that creates a codec from a stream of data points, which can be parallel.
+     * <p>
+     * The codec is identical to the one that {@link #Codec(Attribute[], Stream)} creates from the same stream.
+     *
+     * @param attributes An array of attributes that defines their names and types (discrete or not).
+     * @return The collector. It throws {@link IllegalArgumentException} if the stream contains no data points.
+     */
+    public static Collector<Map<String, String>, CodecBuilder, Codec> collector(Attribute[] attributes) {
+        return Collector.of(
+                () -> new CodecBuilder(attributes),
+                CodecBuilder::add,
+                CodecBuilder::merge,
+                CodecBuilder::build
+        );
+    }
+
+    /**
+     * Merges two codecs into the codec of the data points of both.
+     * <p>
+     * The codecs may have been created from different parts of a dataset, in different processes,
+     * and transferred as JSON.
+     * When the codec of the first part is merged with that of the second part,
+     * the result is identical to the codec of both parts together.
+     *
+     * @param other A codec with the same attributes, in the same order.
+     * @return A new codec. Neither of the merged codecs is changed.
+     * @throws IllegalArgumentException If the codecs have different attributes.
+     */
+    public Codec merge(Codec other) {
+        return CodecBuilder.of(encoding())
+                .merge(CodecBuilder.of(other.encoding()))
+                .build();
+    }
+
+    /**
+     * Records the creation of the codec as a flight recorder event, if a recording wants it.
+     */
+    private static void created(Events.CodecCreation event, String source, int attributes, long datapoints) {
+        if (event.shouldCommit()) {
+            event.source = source;
+            event.attributes = attributes;
+            event.datapoints = datapoints;
+            event.commit();
+        }
     }
 
     /**
      * Encodes a data point.
+     * <p>
+     * The value of each discrete attribute is found by a hash lookup,
+     * so the encoding takes the same time however many values the attribute has.
      *
      * @param datapoint A data point as a map of strings.
      * @return The encoded data point as an array of numbers between 0.0 and 1.0.
      */
     public double[] encode(Map<String, String> datapoint) {
-        return contents.encode(datapoint);
+        long start = NetMetrics.start(metrics);
+        double[] encodedValues = encoding().encode(datapoint);
+        NetMetrics.stop(metrics, NetMetrics.Operation.ENCODE, start, 1);
+        return encodedValues;
     }
 
     /**
@@ -104,7 +237,110 @@ public class Codec {
      * @return The decoded data point as a map of strings.
      */
     public Map<String, String> decode(double[] encodedValues) {
-        return contents.decode(encodedValues);
+        long start = NetMetrics.start(metrics);
+        Map<String, String> datapoint = encoding().decode(encodedValues);
+        NetMetrics.stop(metrics, NetMetrics.Operation.DECODE, start, 1);
+        return datapoint;
+    }
+
+    /**
+     * Decodes a data point into an array that the caller provides, without creating a map.
+     * <p>
+     * The encoded values are read from the offset,
+     * so the rows of a batch prediction can be decoded one after the other from the same array.
+     * Each discrete attribute takes the value with the largest encoded value.
+     *
+     * @param encodedValues An array that contains an encoded data point.
+     * @param offset        The position of the first encoded value in the array.
+     * @param decodedValues The array that receives the decoded value of each attribute,
+     *                      in the order of the attributes the codec was created with.
+     * @throws IllegalArgumentException If the encoded data point is out of its array
+     *                                  or the array of the decoded values is smaller than the number of attributes.
+     */
+    public void decode(double[] encodedValues, int offset, String[] decodedValues) {
+        Encoding decoding = encoding();
+        if (offset < 0 || offset > encodedValues.length - decoding.size()) {
+            throw new IllegalArgumentException(
+                    "The " + decoding.size() + " encoded values do not fit in an array of " + encodedValues.length
+                            + " from position " + offset);
+        }
+        if (decodedValues.length < decoding.keys.length) {
+            throw new IllegalArgumentException(
+                    "The array has " + decodedValues.length + " positions, but there are "
+                            + decoding.keys.length + " attributes");
+        }
+        long start = NetMetrics.start(metrics);
+        decoding.decode(encodedValues, offset, decodedValues);
+        NetMetrics.stop(metrics, NetMetrics.Operation.DECODE, start, 1);
+    }
+
+    /**
+     * Decodes a batch of data points, such as the predictions of {@link Net#predictBatch(double[][])}.
+     *
+     * @param encodedValues The encoded data points, one per row.
+     * @return The decoded data points as maps of strings, in the order of the rows.
+     */
+    public List<Map<String, String>> decodeBatch(double[][] encodedValues) {
+        long start = NetMetrics.start(metrics);
+        Encoding decoding = encoding();
+        List<Map<String, String>> datapoints = new ArrayList<>(encodedValues.length);
+        for (double[] row : encodedValues) {
+            datapoints.add(decoding.decode(row));
+        }
+        NetMetrics.stop(metrics, NetMetrics.Operation.DECODE, start, encodedValues.length);
+        return datapoints;
+    }
+
+    /**
+     * Creates an encoder for rows whose values are in the order of the attributes of the codec.
+     *
+     * @return An encoder that finds the value of each attribute at the position of the attribute.
+     */
+    public RowEncoder rowEncoder() {
+        Encoding rowEncoding = encoding();
+        int[] columns = new int[rowEncoding.keys.length];
+        for (int a = 0; a < columns.length; a++) {
+            columns[a] = a;
+        }
+        return new RowEncoder(this, rowEncoding, columns);
+    }
+
+    /**
+     * Creates an encoder for rows whose values are in the order of the provided columns,
+     * such as the columns of a CSV file.
+     * <p>
+     * The columns can be in any order, and the ones that are not attributes of the codec are ignored.
+     *
+     * @param columns The name of the value at each position of a row.
+     * @return An encoder that finds the value of each attribute at the position of its column.
+     * @throws IllegalArgumentException If an attribute of the codec is not one of the columns.
+     */
+    public RowEncoder rowEncoder(String[] columns) {
+        Encoding rowEncoding = encoding();
+        Map<String, Integer> positions = new HashMap<>();
+        for (int c = columns.length - 1; c >= 0; c--) {
+            positions.put(columns[c], c);
+        }
+        int[] attributeColumns = new int[rowEncoding.keys.length];
+        for (int a = 0; a < attributeColumns.length; a++) {
+            Integer position = positions.get(rowEncoding.keys[a]);
+            if (position == null) {
+                throw new IllegalArgumentException("The attribute " + rowEncoding.keys[a] + " is not a column");
+            }
+            attributeColumns[a] = position;
+        }
+        return new RowEncoder(this, rowEncoding, attributeColumns);
+    }
+
+    /**
+     * Registers a listener that records the encodings and the decodings of the codec.
+     *
+     * @param listener The listener, or {@code null} to stop recording.
+     * @return The codec itself.
+     */
+    public Codec metrics(NetMetrics listener) {
+        metrics = listener;
+        return this;
     }
 
     /**
@@ -113,7 +349,29 @@ public class Codec {
      * @return The JSON representation of the codec.
      */
     public String json() {
+        if (contents == null) {
+            return encoding.json();
+        }
         return contents.json();
     }
 
+    /**
+     * Writes the JSON representation of the codec incrementally.
+     * <p>
+     * The output is identical to that of {@link #json()}. The writer is flushed but not closed.
+     *
+     * @param out The writer that receives the JSON representation.
+     * @throws IOException If the writer fails.
+     */
+    public void writeJson(Writer out) throws IOException {
+        encoding().writeJson(out);
+    }
+
+    Encoding encoding() {
+        if (encoding == null) {
+            encoding = Encoding.parse(contents.json());
+        }
+        return encoding;
+    }
+
 }
@@ -0,0 +1,226 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * The statistics of the data points a codec is created from, which can be gathered in parts and merged.
+ * <p>
+ * A builder keeps the minimum and the maximum of each continuous attribute
+ * and the values of each discrete attribute in the order they first appeared.
+ * Builders that have consumed different parts of a dataset, in different threads or processes,
+ * can be merged into one that has consumed all of them.
+ * When the builders are merged in the order of their parts,
+ * the codec is identical to the one that {@link Codec#Codec(Attribute[], java.util.stream.Stream)} creates
+ * from the whole dataset in a single pass.
+ * Otherwise, the values of each discrete attribute are in the reverse order of their first appearance
+ * in the parts, taken in the order they were merged.
+ * <p>
+ * A builder is not thread-safe. Each thread should fill a builder of its own.
+ * <p>
+ * Gather the statistics of two parts of a dataset and merge them:
+ * <pre>
+ * {@code
+ * CodecBuilder first = new CodecBuilder(attributes).add(setosa);
+ * CodecBuilder second = new CodecBuilder(attributes).add(versicolor);
+ * Codec codec = first.merge(second).build();
+ * }
+ * </pre>
+ */
+public final class CodecBuilder {
+
+    private final String[] keys;
+
+    private final boolean[] discrete;
+
+    private final double[] minimums;
+
+    private final double[] maximums;
+
+    /**
+     * The values of each discrete attribute, in the order they first appeared.
+     */
+    private final LinkedHashSet<String>[] values;
+
+    private long datapoints = 0;
+
+    /**
+     * Creates a builder that has not consumed any data points.
+     *
+     * @param attributes An array of attributes that defines their names and types (discrete or not).
+     */
+    public CodecBuilder(Attribute[] attributes) {
+        this(
+                Arrays.stream(attributes).map(attribute -> attribute.name).toArray(String[]::new),
+                flags(attributes)
+        );
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private CodecBuilder(String[] keys, boolean[] discrete) {
+        this.keys = keys;
+        this.discrete = discrete;
+        minimums = new double[keys.length];
+        maximums = new double[keys.length];
+        Arrays.fill(minimums, Double.POSITIVE_INFINITY);
+        Arrays.fill(maximums, Double.NEGATIVE_INFINITY);
+        values = new LinkedHashSet[keys.length];
+        for (int a = 0; a < keys.length; a++) {
+            if (discrete[a]) {
+                values[a] = new LinkedHashSet<>();
+            }
+        }
+    }
+
+    private static boolean[] flags(Attribute[] attributes) {
+        boolean[] flags = new boolean[attributes.length];
+        for (int a = 0; a < attributes.length; a++) {
+            flags[a] = attributes[a].flag;
+        }
+        return flags;
+    }
+
+    /**
+     * Creates a builder with the statistics of a codec, as if it had consumed the data points of the codec.
+     */
+    static CodecBuilder of(Encoding encoding) {
+        CodecBuilder builder = new CodecBuilder(encoding.keys.clone(), encoding.discrete.clone());
+        for (int a = 0; a < encoding.keys.length; a++) {
+            if (encoding.discrete[a]) {
+                String[] attributeValues = encoding.values[a];
+                for (int v = attributeValues.length - 1; v >= 0; v--) {
+                    builder.values[a].add(attributeValues[v]);
+                }
+            } else {
+                builder.minimums[a] = encoding.minimums[a];
+                builder.maximums[a] = encoding.maximums[a];
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Consumes a data point.
+     *
+     * @param datapoint A data point as a map of strings.
+     * @return The builder itself.
+     * @throws IllegalArgumentException If the data point has no value for an attribute.
+     * @throws NumberFormatException    If the value of a continuous attribute is not a number.
+     */
+    public CodecBuilder add(Map<String, String> datapoint) {
+        for (int a = 0; a < keys.length; a++) {
+            String value = datapoint.get(keys[a]);
+            if (value == null) {
+                throw new IllegalArgumentException("The data point has no value for the attribute " + keys[a]);
+            }
+            if (discrete[a]) {
+                values[a].add(value);
+            } else {
+                double number = Double.parseDouble(value);
+                minimums[a] = Math.min(minimums[a], number);
+                maximums[a] = Math.max(maximums[a], number);
+            }
+        }
+        datapoints++;
+        return this;
+    }
+
+    /**
+     * Merges the statistics of another builder into this one,
+     * as if this builder had also consumed the data points of the other one, after its own.
+     * <p>
+     * The other builder is left untouched.
+     *
+     * @param other A builder with the same attributes, in the same order.
+     * @return The builder itself.
+     * @throws IllegalArgumentException If the builders have different attributes.
+     */
+    public CodecBuilder merge(CodecBuilder other) {
+        if (!Arrays.equals(keys, other.keys) || !Arrays.equals(discrete, other.discrete)) {
+            throw new IllegalArgumentException("The codecs have different attributes");
+        }
+        for (int a = 0; a < keys.length; a++) {
+            if (discrete[a]) {
+                values[a].addAll(other.values[a]);
+            } else {
+                minimums[a] = Math.min(minimums[a], other.minimums[a]);
+                maximums[a] = Math.max(maximums[a], other.maximums[a]);
+            }
+        }
+        datapoints += other.datapoints;
+        return this;
+    }
+
+    /**
+     * Creates the codec of the data points that have been consumed.
+     * <p>
+     * The builder can keep consuming data points and create more codecs afterwards.
+     *
+     * @return The codec.
+     * @throws IllegalArgumentException If the builder has not consumed any data points.
+     */
+    public Codec build() {
+        Events.CodecCreation event = new Events.CodecCreation();
+        event.begin();
+        Codec codec = new Codec(encoding());
+        if (event.shouldCommit()) {
+            event.source = "builder";
+            event.attributes = keys.length;
+            event.datapoints = datapoints;
+            event.commit();
+        }
+        return codec;
+    }
+
+    /**
+     * The number of data points that have been consumed, including those of the merged builders.
+     */
+    long datapoints() {
+        return datapoints;
+    }
+
+    /**
+     * Whether the builder has neither consumed data points nor been created with the statistics of a codec.
+     * Its continuous attributes would have no range and its discrete attributes no values.
+     */
+    private boolean isEmpty() {
+        if (datapoints > 0) {
+            return false;
+        }
+        for (int a = 0; a < keys.length; a++) {
+            if (discrete[a] ? !values[a].isEmpty() : !(minimums[a] > maximums[a])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The attributes as plain arrays, with the values of each discrete attribute
+     * in the reverse order of their first appearance, as a codec has them.
+     *
+     * @throws IllegalArgumentException If the builder has not consumed any data points.
+     */
+    Encoding encoding() {
+        if (isEmpty()) {
+            throw new IllegalArgumentException("A codec cannot be created without data points");
+        }
+        String[][] encodingValues = new String[keys.length][];
+        for (int a = 0; a < keys.length; a++) {
+            if (discrete[a]) {
+                String[] attributeValues = values[a].toArray(new String[0]);
+                for (int i = 0, j = attributeValues.length - 1; i < j; i++, j--) {
+                    String value = attributeValues[i];
+                    attributeValues[i] = attributeValues[j];
+                    attributeValues[j] = value;
+                }
+                encodingValues[a] = attributeValues;
+            } else {
+                encodingValues[a] = new String[0];
+            }
+        }
+        return new Encoding(keys.clone(), discrete.clone(), minimums.clone(), maximums.clone(), encodingValues);
+    }
+
+}
@@ -0,0 +1,665 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The compiled form of a neural network.
+ * <p>
+ * The weights of each layer are kept in a single contiguous array,
+ * so predictions are made with plain loops over primitive values instead of lists.
+ * The predictions are identical to those of the neural network it was compiled from.
+ * <p>
+ * Compile a neural network:
+ * <pre>
+ * {@code
+ * CompiledNet compiledNet = net.compile();
+ * }
+ * </pre>
+ * <p>
+ * Get the prediction for an input:
+ * <pre>
+ * {@code
+ * compiledNet.predict(new double[]{0.4, 0.05, 0.2});
+ * }
+ * </pre>
+ * <p>
+ * Get the predictions for a batch of inputs:
+ * <pre>
+ * {@code
+ * compiledNet.predictBatch(new double[][]{{0.4, 0.05, 0.2}, {0.1, 0.9, 0.3}});
+ * }
+ * </pre>
+ */
+public class CompiledNet {
+
+    /**
+     * The number of inputs whose values are multiplied by the same block of weights before moving to the next block.
+     */
+    static final int ROW_BLOCK = 32;
+
+    static final int NEURON_BLOCK = 32;
+
+    static final int INPUT_BLOCK = 256;
+
+    /**
+     * The number of inputs below which a parallel batch prediction is not split any further.
+     */
+    static final int PARALLEL_ROWS = 64;
+
+    /**
+     * The size of each layer, including the input layer.
+     */
+    final int[] layerSizes;
+
+    /**
+     * The activation function of the neurons of each layer.
+     */
+    final Fun[] activations;
+
+    /**
+     * The weights of each layer.
+     * Every neuron occupies a row of {@code inputSize + 1} weights and its first weight is the bias.
+     */
+    final double[][] weights;
+
+    CompiledNet(int[] layerSizes, Fun[] activations, double[][] weights) {
+        this.layerSizes = layerSizes;
+        this.activations = activations;
+        this.weights = weights;
+    }
+
+    /**
+     * Makes a prediction for the provided input.
+     *
+     * @param inputValues The values of the features. Their size should be equal to the size of the input layer.
+     * @return The prediction. It's size should be equal to the size of the output layer.
+     */
+    public double[] predict(double[] inputValues) {
+        double[] values = inputValues;
+        for (int l = 0; l < weights.length; l++) {
+            double[] outputValues = new double[layerSizes[l + 1]];
+            forward(weights[l], activations[l], values, layerSizes[l], outputValues, layerSizes[l + 1]);
+            values = outputValues;
+        }
+        return values;
+    }
+
+    /**
+     * Makes a prediction for a sparse input, which is given by the indices and the values of its non-zero features.
+     * <p>
+     * The first layer only reads the weights of the non-zero features,
+     * so inputs that are mostly zeros, such as one-hot encoded categories, are predicted several times faster.
+     * Without vector instructions, the prediction is identical to that of the dense input with the same values.
+     *
+     * @param inputIndices The indices of the non-zero features, in increasing order.
+     * @param inputValues  The values of the non-zero features. Their size should be equal to that of the indices.
+     * @return The prediction. It's size should be equal to the size of the output layer.
+     * @throws IllegalArgumentException If the indices are not increasing, are out of the input layer
+     *                                  or do not match the values.
+     */
+    public double[] predict(int[] inputIndices, double[] inputValues) {
+        checkSparse(inputIndices, inputValues);
+        double[] values = new double[layerSizes[1]];
+        forward(weights[0], activations[0], inputIndices, inputValues, layerSizes[0], null, values, layerSizes[1]);
+        for (int l = 1; l < weights.length; l++) {
+            double[] outputValues = new double[layerSizes[l + 1]];
+            forward(weights[l], activations[l], values, layerSizes[l], outputValues, layerSizes[l + 1]);
+            values = outputValues;
+        }
+        return values;
+    }
+
+    /**
+     * Checks that a sparse input fits the input layer.
+     *
+     * @throws IllegalArgumentException If the indices are not increasing, are out of the input layer
+     *                                  or do not match the values.
+     */
+    void checkSparse(int[] inputIndices, double[] inputValues) {
+        if (inputIndices.length != inputValues.length) {
+            throw new IllegalArgumentException(
+                    "The sparse input has " + inputIndices.length + " indices and " + inputValues.length + " values");
+        }
+        int previous = -1;
+        for (int index : inputIndices) {
+            if (index <= previous || index >= layerSizes[0]) {
+                throw new IllegalArgumentException(
+                        "The indices of the sparse input should be increasing and below " + layerSizes[0]);
+            }
+            previous = index;
+        }
+    }
+
+    /**
+     * Checks that a packed batch has a full row of values for each of its inputs.
+     *
+     * @throws IllegalArgumentException If the number of values is not the number of inputs times the input size.
+     */
+    void checkPacked(double[] inputs, int rows) {
+        if (rows < 0 || inputs.length != (long) rows * layerSizes[0]) {
+            throw new IllegalArgumentException(
+                    "The packed batch has " + inputs.length + " values, not " + rows + " rows of " + layerSizes[0]);
+        }
+    }
+
+    /**
+     * Makes a prediction for the provided input without allocating memory.
+     *
+     * @param inputValues  The values of the features. Their size should be equal to the size of the input layer.
+     * @param outputValues The array that receives the prediction.
+     *                     It's size should be equal to the size of the output layer.
+     * @param workspace    The buffers for the values of the hidden layers.
+     */
+    public void predict(double[] inputValues, double[] outputValues, Workspace workspace) {
+        workspace.check(layerSizes);
+        double[] values = inputValues;
+        int last = weights.length - 1;
+        for (int l = 0; l < last; l++) {
+            double[] layerValues = workspace.buffers[l];
+            forward(weights[l], activations[l], values, layerSizes[l], layerValues, layerSizes[l + 1]);
+            values = layerValues;
+        }
+        forward(weights[last], activations[last], values, layerSizes[last], outputValues, layerSizes[last + 1]);
+    }
+
+    /**
+     * Creates a workspace for predictions that do not allocate memory.
+     *
+     * @return A workspace with a buffer for every hidden layer.
+     */
+    public Workspace workspace() {
+        return new Workspace(layerSizes);
+    }
+
+    /**
+     * Makes a prediction for each input of a batch.
+     * <p>
+     * Each layer is calculated as a product of matrices, in blocks that fit in the cache of the processor.
+     * The predictions are identical to those of {@link #predict(double[])}.
+     *
+     * @param inputs The inputs. The size of each one should be equal to the size of the input layer.
+     * @return The prediction for each input.
+     */
+    public double[][] predictBatch(double[][] inputs) {
+        return unpacked(predictBatch(packed(inputs), inputs.length), inputs.length);
+    }
+
+    /**
+     * Makes a prediction for each input of a batch that is packed in a single array.
+     *
+     * @param inputs The values of the inputs, one row after the other.
+     *               Each row has as many values as the size of the input layer.
+     * @param rows   The number of inputs.
+     * @return The values of the predictions, one row after the other.
+     * Each row has as many values as the size of the output layer.
+     * @throws IllegalArgumentException If the number of values is not the number of inputs times the input size.
+     */
+    public double[] predictBatch(double[] inputs, int rows) {
+        checkPacked(inputs, rows);
+        double[] outputs = new double[rows * layerSizes[layerSizes.length - 1]];
+        predictRows(inputs, outputs, 0, rows);
+        return outputs;
+    }
+
+    /**
+     * Makes a prediction for each input of a batch.
+     * <p>
+     * The inputs are split in groups that are calculated in parallel.
+     *
+     * @param inputs The inputs. The size of each one should be equal to the size of the input layer.
+     * @return The prediction for each input.
+     */
+    public double[][] parPredictBatch(double[][] inputs) {
+        return unpacked(parPredictBatch(packed(inputs), inputs.length), inputs.length);
+    }
+
+    /**
+     * Makes a prediction for each input of a batch that is packed in a single array.
+     * <p>
+     * The inputs are split in groups that are calculated in parallel.
+     *
+     * @param inputs The values of the inputs, one row after the other.
+     * @param rows   The number of inputs.
+     * @return The values of the predictions, one row after the other.
+     * @throws IllegalArgumentException If the number of values is not the number of inputs times the input size.
+     */
+    public double[] parPredictBatch(double[] inputs, int rows) {
+        return parPredictBatch(inputs, rows, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Makes a prediction for each input of a batch that is packed in a single array.
+     * <p>
+     * The inputs are split in groups that are calculated by the provided pool.
+     *
+     * @param inputs The values of the inputs, one row after the other.
+     * @param rows   The number of inputs.
+     * @param pool   The pool that calculates the groups of inputs.
+     * @return The values of the predictions, one row after the other.
+     * @throws IllegalArgumentException If the number of values is not the number of inputs times the input size.
+     */
+    public double[] parPredictBatch(double[] inputs, int rows, ForkJoinPool pool) {
+        checkPacked(inputs, rows);
+        double[] outputs = new double[rows * layerSizes[layerSizes.length - 1]];
+        pool.invoke(new BatchPrediction(inputs, outputs, 0, rows));
+        return outputs;
+    }
+
+    /**
+     * Feeds the rows between {@code from} (inclusive) and {@code to} (exclusive) through all layers.
+     */
+    void predictRows(double[] inputs, double[] outputs, int from, int to) {
+        int rows = to - from;
+        double[] values = inputs;
+        int offset = from * layerSizes[0];
+        int last = weights.length - 1;
+        for (int l = 0; l < last; l++) {
+            double[] layerValues = new double[rows * layerSizes[l + 1]];
+            forwardBatch(weights[l], activations[l],
+                    values, offset, layerSizes[l],
+                    layerValues, 0, layerSizes[l + 1],
+                    rows);
+            values = layerValues;
+            offset = 0;
+        }
+        forwardBatch(weights[last], activations[last],
+                values, offset, layerSizes[last],
+                outputs, from * layerSizes[last + 1], layerSizes[last + 1],
+                rows);
+    }
+
+    private class BatchPrediction extends RecursiveAction {
+
+        final double[] inputs;
+        final double[] outputs;
+        final int from;
+        final int to;
+
+        BatchPrediction(double[] inputs, double[] outputs, int from, int to) {
+            this.inputs = inputs;
+            this.outputs = outputs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_ROWS) {
+                predictRows(inputs, outputs, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new BatchPrediction(inputs, outputs, from, middle),
+                        new BatchPrediction(inputs, outputs, middle, to)
+                );
+            }
+        }
+
+    }
+
+    private double[] packed(double[][] inputs) {
+        int inputSize = layerSizes[0];
+        double[] values = new double[inputs.length * inputSize];
+        for (int r = 0; r < inputs.length; r++) {
+            System.arraycopy(inputs[r], 0, values, r * inputSize, inputSize);
+        }
+        return values;
+    }
+
+    private double[][] unpacked(double[] outputs, int rows) {
+        int outputSize = layerSizes[layerSizes.length - 1];
+        double[][] values = new double[rows][];
+        for (int r = 0; r < rows; r++) {
+            values[r] = Arrays.copyOfRange(outputs, r * outputSize, (r + 1) * outputSize);
+        }
+        return values;
+    }
+
+    /**
+     * The size of each layer.
+     *
+     * @return The size of each layer, starting from the input layer and ending with the output layer.
+     */
+    public int[] layerSizes() {
+        return layerSizes.clone();
+    }
+
+    /**
+     * The same network with {@link Fun#FAST_SIGMOID} and {@link Fun#FAST_TANH}
+     * in place of {@link Fun#SIGMOID} and {@link Fun#TANH}.
+     * <p>
+     * The approximations are several times faster, which shows on networks with narrow layers,
+     * where the activation functions take a large share of the calculation.
+     * Each activation differs from the exact one by less than 6e-6.
+     * The weights are shared with this network.
+     *
+     * @return A compiled network for fast and approximate predictions.
+     */
+    public CompiledNet withFastActivations() {
+        Fun[] fastActivations = new Fun[activations.length];
+        for (int l = 0; l < activations.length; l++) {
+            fastActivations[l] = activations[l].fast();
+        }
+        return new CompiledNet(layerSizes, fastActivations, weights);
+    }
+
+    /**
+     * Feeds the input through a single layer.
+     * <p>
+     * The sum of each neuron starts from its bias and adds the weighted inputs in order,
+     * exactly as the neural network does.
+     */
+    static void forward(double[] layerWeights,
+                        Fun activation,
+                        double[] input,
+                        int inputSize,
+                        double[] output,
+                        int outputSize) {
+        int stride = inputSize + 1;
+        for (int n = 0, row = 0; n < outputSize; n++, row += stride) {
+            double sum = Kernels.dot(layerWeights, row + 1, input, 0, inputSize, layerWeights[row]);
+            output[n] = activation.f.applyAsDouble(sum);
+        }
+    }
+
+    /**
+     * Feeds the input through a single layer and keeps the weighted sum of each neuron.
+     */
+    static void forward(double[] layerWeights,
+                        Fun activation,
+                        double[] input,
+                        int inputSize,
+                        double[] sums,
+                        double[] output,
+                        int outputSize) {
+        int stride = inputSize + 1;
+        for (int n = 0, row = 0; n < outputSize; n++, row += stride) {
+            double sum = Kernels.dot(layerWeights, row + 1, input, 0, inputSize, layerWeights[row]);
+            sums[n] = sum;
+            output[n] = activation.f.applyAsDouble(sum);
+        }
+    }
+
+    /**
+     * Feeds the input through the neurons of a layer between {@code from} (inclusive) and {@code to} (exclusive),
+     * keeping their weighted sums when a buffer is provided.
+     */
+    static void forward(double[] layerWeights,
+                        Fun activation,
+                        double[] input,
+                        int inputSize,
+                        double[] sums,
+                        double[] output,
+                        int from,
+                        int to) {
+        int stride = inputSize + 1;
+        for (int n = from, row = from * stride; n < to; n++, row += stride) {
+            double sum = Kernels.dot(layerWeights, row + 1, input, 0, inputSize, layerWeights[row]);
+            if (sums != null) {
+                sums[n] = sum;
+            }
+            output[n] = activation.f.applyAsDouble(sum);
+        }
+    }
+
+    /**
+     * Feeds a sparse input through a single layer, keeping the weighted sum of each neuron when a buffer is provided.
+     * <p>
+     * The sum of each neuron starts from its bias and adds the weighted non-zero inputs in order,
+     * so it only skips terms that are zero.
+     */
+    static void forward(double[] layerWeights,
+                        Fun activation,
+                        int[] inputIndices,
+                        double[] inputValues,
+                        int inputSize,
+                        double[] sums,
+                        double[] output,
+                        int outputSize) {
+        int stride = inputSize + 1;
+        int count = inputIndices.length;
+        for (int n = 0, row = 0; n < outputSize; n++, row += stride) {
+            double sum = layerWeights[row];
+            for (int k = 0; k < count; k++) {
+                sum += layerWeights[row + 1 + inputIndices[k]] * inputValues[k];
+            }
+            if (sums != null) {
+                sums[n] = sum;
+            }
+            output[n] = activation.f.applyAsDouble(sum);
+        }
+    }
+
+    /**
+     * Subtracts the accumulated adjustments of a gradient from the weights in place.
+     */
+    void subtract(Gradient gradient) {
+        for (int l = 0; l < weights.length; l++) {
+            double[] layerWeights = weights[l];
+            double[] layerGradient = gradient.weights[l];
+            for (int i = 0; i < layerWeights.length; i++) {
+                layerWeights[i] -= layerGradient[i];
+            }
+        }
+    }
+
+    /**
+     * Copies the weights, so that the copy can be adjusted in place.
+     */
+    CompiledNet copy() {
+        double[][] copiedWeights = new double[weights.length][];
+        for (int l = 0; l < weights.length; l++) {
+            copiedWeights[l] = weights[l].clone();
+        }
+        return new CompiledNet(layerSizes, activations, copiedWeights);
+    }
+
+    /**
+     * Feeds a batch of packed rows through a single layer.
+     * <p>
+     * The rows, the neurons and the inputs are visited in blocks, so that a block of weights stays in the cache
+     * while it is multiplied by a block of rows.
+     * The partial sums are kept in the output array and every sum still adds the weighted inputs in order,
+     * so the result of each row is identical to that of {@link #forward}.
+     * The vector kernels add the inputs in lanes, so they visit all the inputs of a neuron at once instead.
+     */
+    static void forwardBatch(double[] layerWeights,
+                             Fun activation,
+                             double[] input,
+                             int inputOffset,
+                             int inputSize,
+                             double[] output,
+                             int outputOffset,
+                             int outputSize,
+                             int rows) {
+        int stride = inputSize + 1;
+        int inputBlock = Kernels.ACCELERATED ? Math.max(inputSize, 1) : INPUT_BLOCK;
+        for (int r0 = 0; r0 < rows; r0 += ROW_BLOCK) {
+            int r1 = Math.min(r0 + ROW_BLOCK, rows);
+            for (int n0 = 0; n0 < outputSize; n0 += NEURON_BLOCK) {
+                int n1 = Math.min(n0 + NEURON_BLOCK, outputSize);
+                for (int r = r0; r < r1; r++) {
+                    int y = outputOffset + r * outputSize;
+                    for (int n = n0; n < n1; n++) {
+                        output[y + n] = layerWeights[n * stride];
+                    }
+                }
+                for (int i0 = 0; i0 < inputSize; i0 += inputBlock) {
+                    int i1 = Math.min(i0 + inputBlock, inputSize);
+                    for (int r = r0; r < r1; r++) {
+                        int x = inputOffset + r * inputSize;
+                        int y = outputOffset + r * outputSize;
+                        for (int n = n0; n < n1; n++) {
+                            int row = n * stride + 1;
+                            output[y + n] = Kernels.dot(layerWeights, row + i0, input, x + i0, i1 - i0, output[y + n]);
+                        }
+                    }
+                }
+                for (int r = r0; r < r1; r++) {
+                    int y = outputOffset + r * outputSize;
+                    for (int n = n0; n < n1; n++) {
+                        output[y + n] = activation.f.applyAsDouble(output[y + n]);
+                    }
+                }
+            }
+        }
+    }
+
+    String json() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeJson(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes the JSON representation of the neural network, one neuron at a time.
+     */
+    void writeJson(Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginArray();
+        for (int l = 0; l < weights.length; l++) {
+            int stride = layerSizes[l] + 1;
+            writer.beginArray();
+            for (int row = 0; row < weights[l].length; row += stride) {
+                writer.beginObject()
+                        .name("activationF").value(activations[l].name)
+                        .name("weights").beginArray();
+                for (int i = row; i < row + stride; i++) {
+                    writer.value(weights[l][i]);
+                }
+                writer.endArray().endObject();
+            }
+            writer.endArray();
+        }
+        writer.endArray();
+        writer.flush();
+    }
+
+    static CompiledNet parse(String json) {
+        try {
+            return parse(new StringReader(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the JSON representation of a neural network.
+     *
+     * @param json A reader of the JSON representation.
+     * @return The compiled neural network.
+     * @throws MixedActivationsException If the neurons of a layer have different activation functions.
+     * @throws IllegalArgumentException  If the neurons of a layer have a different number of weights.
+     */
+    static CompiledNet parse(Reader json) throws IOException {
+        JsonReader reader = new JsonReader(json);
+        int mixedLayer = -1;
+        List<Integer> sizes = new ArrayList<>();
+        List<Fun> activations = new ArrayList<>();
+        List<double[]> weights = new ArrayList<>();
+        double[] buffer = new double[64];
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int layer = activations.size();
+            Fun activation = null;
+            int stride = -1;
+            int neurons = 0;
+            int length = 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                Fun neuronActivation = null;
+                int start = length;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (name.equals("activationF")) {
+                        neuronActivation = Fun.named(reader.nextString());
+                    } else if (name.equals("weights")) {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            if (length == buffer.length) {
+                                buffer = Arrays.copyOf(buffer, 2 * length);
+                            }
+                            buffer[length++] = reader.nextDouble();
+                        }
+                        reader.endArray();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                if (activation == null) {
+                    activation = neuronActivation;
+                    stride = length - start;
+                } else if (activation != neuronActivation && mixedLayer < 0) {
+                    mixedLayer = layer;
+                }
+                if (stride != length - start) {
+                    throw new IllegalArgumentException(
+                            "The neurons of layer " + layer + " have a different number of weights"
+                    );
+                }
+                neurons++;
+            }
+            reader.endArray();
+            if (neurons == 0 || activation == null || stride < 1) {
+                throw new IllegalArgumentException("Layer " + layer + " has no neurons");
+            }
+            if (layer == 0) {
+                sizes.add(stride - 1);
+            } else if (sizes.get(layer) != stride - 1) {
+                throw new IllegalArgumentException(
+                        "The neurons of layer " + layer + " do not match the size of the previous layer"
+                );
+            }
+            sizes.add(neurons);
+            activations.add(activation);
+            weights.add(Arrays.copyOf(buffer, length));
+        }
+        reader.endArray();
+        reader.endDocument();
+        if (mixedLayer >= 0) {
+            throw new MixedActivationsException(mixedLayer, sizes.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return new CompiledNet(
+                sizes.stream().mapToInt(Integer::intValue).toArray(),
+                activations.toArray(new Fun[0]),
+                weights.toArray(new double[0][])
+        );
+    }
+
+    /**
+     * Thrown when the neurons of a layer have different activation functions,
+     * which only a network of synapses can hold.
+     */
+    static final class MixedActivationsException extends IllegalArgumentException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The size of each layer of the neural network that could not be compiled.
+         */
+        final int[] layerSizes;
+
+        MixedActivationsException(int layer, int[] layerSizes) {
+            super("The neurons of layer " + layer + " have different activation functions");
+            this.layerSizes = layerSizes;
+        }
+
+    }
+
+}
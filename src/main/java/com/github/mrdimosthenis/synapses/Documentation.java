@@ -111,6 +111,66 @@ package com.github.mrdimosthenis.synapses;
  * by using the parallel counterparts of <code>predict</code> and <code>fit</code>
  * (<code>parPredict</code> and <code>parFit</code>).
  * <p>
+ * When a neural network makes many predictions without being fitted in between,
+ * its compiled form keeps the weights of each layer in a contiguous array and gives the same predictions faster.
+ *
+ * <pre>
+ * {@code
+ * CompiledNet compiledNet = net.compile();
+ * compiledNet.predict(new double[]{0.2, 0.6});
+ * }
+ * </pre>
+ * <p>
+ * For inference, the compiled form can replace sigmoid and tanh with their fast approximations,
+ * {@code Fun.FAST_SIGMOID} and {@code Fun.FAST_TANH}, which differ from the exact functions by less than 6e-6.
+ *
+ * <pre>
+ * {@code
+ * CompiledNet fastNet = net.compile().withFastActivations();
+ * }
+ * </pre>
+ * <p>
+ * Inputs that are mostly zeros, such as one-hot encoded categories, can be given by the indices and the values
+ * of their non-zero features. The first layer then only touches the weights of those features.
+ *
+ * <pre>
+ * {@code
+ * net.predict(new int[]{0, 3}, new double[]{0.2, 0.6});
+ * trainer.fit(0.1, new int[]{0, 3}, new double[]{0.2, 0.6}, new double[]{0.9});
+ * }
+ * </pre>
+ * <p>
+ * On JDK 17 or later, {@code predict} and {@code fit} use the vector instructions of the processor
+ * when the JVM is started with {@code --add-modules jdk.incubator.vector}.
+ * Their results may differ from those of the scalar code in the last bits.
+ * The vector instructions can be turned off with {@code -Dsynapses.vector=false}.
+ * <p>
+ * Training can take fewer epochs when a trainer adjusts the weights with momentum, Nesterov momentum or Adam
+ * instead of plain gradient descent. Each trainer keeps the state of its optimizer next to its weights.
+ *
+ * <pre>
+ * {@code
+ * Trainer trainer = net.trainer(Optimizer.adam());
+ * trainer.fit(0.001, new double[]{0.2, 0.6}, new double[]{0.9});
+ * }
+ * </pre>
+ * <p>
+ * A {@code NetMetrics} listener records the call counts, the latency percentiles and the throughput
+ * of the networks and codecs it is registered on.
+ *
+ * <pre>
+ * {@code
+ * NetMetrics metrics = new NetMetrics();
+ * net.metrics(metrics);
+ * net.predict(new double[]{0.2, 0.6});
+ * metrics.percentileNanoseconds(NetMetrics.Operation.PREDICT, 0.99);
+ * }
+ * </pre>
+ * <p>
+ * Predictions, fits, training epochs, codec creations and metrics are also recorded
+ * as JDK Flight Recorder events of the {@code Synapses} category.
+ * Predictions and fits that last less than a millisecond are left out, unless a lower threshold is configured.
+ * <p>
  * <h3>Create a neural network for testing</h3>
  *
  * <pre>
@@ -256,6 +316,18 @@ package com.github.mrdimosthenis.synapses;
  * <li>The second parameter is an iterator that contains the data points.</li>
  * </ul>
  * <p>
+ * A parallel stream of data points is consumed in parallel, and the codec is the same.
+ * The statistics of different parts of a dataset can also be gathered separately, even in different processes,
+ * and merged in the order of the parts.
+ *
+ * <pre>
+ * {@code
+ * Codec firstPart = new Codec(attributes, Stream.of(setosa, versicolor));
+ * Codec secondPart = new Codec(attributes, Stream.of(virginica));
+ * Codec merged = firstPart.merge(secondPart);
+ * }
+ * </pre>
+ * <p>
  * <h3>Get the json of the codec</h3>
  *
  * <pre>
@@ -293,6 +365,34 @@ package com.github.mrdimosthenis.synapses;
  * }
  * </pre>
  * <p>
+ * <h3>Encode a row of values</h3>
+ * A {@code RowEncoder} finds the values of a data point by their position instead of their name,
+ * and writes the encoded values in a buffer, without allocating memory.
+ *
+ * <pre>
+ * {@code
+ * RowEncoder encoder = codec.rowEncoder(
+ *     new String[]{"species", "sepal_length", "sepal_width", "petal_length", "petal_width"}
+ * );
+ * double[] buffer = new double[encoder.size()];
+ * encoder.encode(new String[]{"setosa", "4.9", "3.1", "1.5", "0.1"}, buffer, 0);
+ * // buffer: [0.0, 0.0, 0.0, 1.0, 0.0, 0.0, 1.0]
+ * }
+ * </pre>
+ * <p>
+ * <h3>Encode a CSV file</h3>
+ * An {@code EncodedCsv} maps a file and encodes its rows straight from its bytes,
+ * packed in a single array, as {@code predictBatch} takes them.
+ * The columns of the header that are not attributes of the codec are skipped.
+ *
+ * <pre>
+ * {@code
+ * EncodedCsv encodedCsv = EncodedCsv.parRead(Paths.get("iris.csv"), codec);
+ * double[] encodedRows = encodedCsv.values();
+ * // encodedCsv.rows() rows of encodedCsv.rowSize() values each, one after the other
+ * }
+ * </pre>
+ * <p>
  * <h3>Decode a data point</h3>
  *
  * <pre>
@@ -301,6 +401,16 @@ package com.github.mrdimosthenis.synapses;
  * // {species=setosa, sepal_width=3.1, petal_width=0.1, petal_length=1.5, sepal_length=4.9}
  * }
  * </pre>
+ * Decode the predictions of a batch, or decode a data point into an array that is reused,
+ * in the order of the attributes.
+ *
+ * <pre>
+ * {@code
+ * List<Map<String, String>> datapoints = codec.decodeBatch(net.predictBatch(encodedDatapoints));
+ * String[] decodedValues = new String[5];
+ * codec.decode(encodedSetosa, 0, decodedValues);
+ * }
+ * </pre>
  */
 public class Documentation {
 }
@@ -0,0 +1,531 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * The rows of a CSV file, encoded by a codec and packed in a single array one after the other.
+ * <p>
+ * The file is memory-mapped and its values are encoded straight from the mapped bytes,
+ * without creating a string or a map for every row.
+ * The columns of the header are looked up in the attributes of the codec once,
+ * and the columns that are not attributes are skipped.
+ * The encoded values of each row are identical to those of {@link Codec#encode}.
+ * <p>
+ * The file is expected in UTF-8 with a header in its first line, as in RFC 4180.
+ * Quoted values may contain commas and escaped quotes, but not line breaks. Empty lines are skipped.
+ * <p>
+ * Encode a file:
+ * <pre>
+ * {@code
+ * EncodedCsv encodedCsv = EncodedCsv.read(Paths.get("mnist.csv"), codec);
+ * }
+ * </pre>
+ * <p>
+ * Encode a file in parallel, a chunk of lines at a time:
+ * <pre>
+ * {@code
+ * EncodedCsv encodedCsv = EncodedCsv.parRead(Paths.get("mnist.csv"), codec);
+ * }
+ * </pre>
+ * <p>
+ * Get the predictions for the encoded rows, when the codec encodes only the inputs of a network:
+ * <pre>
+ * {@code
+ * net.predictBatch(encodedCsv.values(), encodedCsv.rows());
+ * }
+ * </pre>
+ */
+public final class EncodedCsv {
+
+    /**
+     * The largest number of bytes of a chunk that is mapped and encoded at once by a sequential reading.
+     */
+    static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    /**
+     * The number of bytes of a chunk of a parallel reading, which is small enough to keep all processors busy.
+     */
+    static final long PARALLEL_CHUNK_BYTES = 1L << 22;
+
+    /**
+     * The largest number of values of an array.
+     */
+    static final long MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final double[] values;
+
+    private final int rows;
+
+    private final int rowSize;
+
+    private EncodedCsv(double[] values, int rows, int rowSize) {
+        this.values = values;
+        this.rows = rows;
+        this.rowSize = rowSize;
+    }
+
+    /**
+     * Reads and encodes a CSV file in the calling thread.
+     *
+     * @param path  The path of the CSV file.
+     * @param codec The codec that encodes the rows.
+     * @return The encoded rows.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If an attribute of the codec is not a column of the header,
+     *                                  a row is shorter than the header, a quoted value spans lines
+     *                                  or is not followed by a comma or a line end,
+     *                                  or the encoded rows do not fit in an array.
+     * @throws NumberFormatException    If the value of a continuous attribute is not a number.
+     */
+    public static EncodedCsv read(Path path, Codec codec) throws IOException {
+        return read(path, codec, MAX_CHUNK_BYTES, null);
+    }
+
+    /**
+     * Reads and encodes a CSV file in parallel.
+     * <p>
+     * The file is split in chunks of whole lines that are encoded in parallel.
+     * The encoded rows are identical to those of {@link #read}.
+     *
+     * @param path  The path of the CSV file.
+     * @param codec The codec that encodes the rows.
+     * @return The encoded rows.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If an attribute of the codec is not a column of the header,
+     *                                  a row is shorter than the header, a quoted value spans lines
+     *                                  or is not followed by a comma or a line end,
+     *                                  or the encoded rows do not fit in an array.
+     * @throws NumberFormatException    If the value of a continuous attribute is not a number.
+     */
+    public static EncodedCsv parRead(Path path, Codec codec) throws IOException {
+        return parRead(path, codec, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reads and encodes a CSV file with the workers of a pool.
+     *
+     * @param path  The path of the CSV file.
+     * @param codec The codec that encodes the rows.
+     * @param pool  The pool whose workers encode the chunks of the file.
+     * @return The encoded rows.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If an attribute of the codec is not a column of the header,
+     *                                  a row is shorter than the header, a quoted value spans lines
+     *                                  or is not followed by a comma or a line end,
+     *                                  or the encoded rows do not fit in an array.
+     * @throws NumberFormatException    If the value of a continuous attribute is not a number.
+     */
+    public static EncodedCsv parRead(Path path, Codec codec, ForkJoinPool pool) throws IOException {
+        return read(path, codec, PARALLEL_CHUNK_BYTES, pool);
+    }
+
+    /**
+     * The number of encoded rows, which is the number of non-empty lines of the file after its header.
+     *
+     * @return The number of rows.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * The number of encoded values of each row.
+     *
+     * @return The size of an encoded row.
+     */
+    public int rowSize() {
+        return rowSize;
+    }
+
+    /**
+     * The encoded values of all rows, one row after the other.
+     * <p>
+     * The array is not copied, so it can be as large as the memory allows.
+     *
+     * @return The encoded values.
+     */
+    public double[] values() {
+        return values;
+    }
+
+    /**
+     * The encoded values of a single row.
+     *
+     * @param row The index of the row.
+     * @return A copy of the encoded values of the row.
+     */
+    public double[] row(int row) {
+        return Arrays.copyOfRange(values, row * rowSize, (row + 1) * rowSize);
+    }
+
+    /**
+     * The encoded values between two positions of every row, one row after the other,
+     * such as the encoded features or the encoded labels.
+     *
+     * @param from The position of the first value of each row, inclusive.
+     * @param to   The position of the last value of each row, exclusive.
+     * @return The values of the rows between the two positions, packed in a new array.
+     */
+    public double[] columns(int from, int to) {
+        if (from < 0 || to > rowSize || from > to) {
+            throw new IllegalArgumentException("The positions " + from + " and " + to + " are out of a row of " + rowSize);
+        }
+        int width = to - from;
+        double[] columnValues = new double[rows * width];
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(values, r * rowSize + from, columnValues, r * width, width);
+        }
+        return columnValues;
+    }
+
+    /**
+     * A range of whole lines of the file, and the number and the first index of its rows.
+     */
+    private static final class Chunk {
+
+        final MappedByteBuffer buffer;
+
+        int rows;
+
+        int firstRow;
+
+        Chunk(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+    }
+
+    private static EncodedCsv read(Path path, Codec codec, long chunkBytes, ForkJoinPool pool) throws IOException {
+        long start = NetMetrics.start(codec.metrics);
+        List<Chunk> chunks = new ArrayList<>();
+        String[] header;
+        RowEncoder encoder;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long headerEnd = lineEnd(channel, 0);
+            header = fields(header(channel, headerEnd));
+            encoder = codec.rowEncoder(header);
+            for (long from = headerEnd; from < fileSize; ) {
+                long to = from + chunkBytes >= fileSize ? fileSize : lineEnd(channel, from + chunkBytes - 1);
+                chunks.add(new Chunk(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from)));
+                from = to;
+            }
+        }
+        forEach(chunks, pool, chunk -> chunk.rows = rows(chunk.buffer));
+        long rows = 0;
+        for (Chunk chunk : chunks) {
+            chunk.firstRow = (int) rows;
+            rows += chunk.rows;
+        }
+        int rowSize = encoder.size();
+        if (rows * rowSize > MAX_ARRAY_SIZE) {
+            throw new IllegalArgumentException(
+                    "The " + rows + " encoded rows of " + rowSize + " values do not fit in an array");
+        }
+        double[] values = new double[(int) rows * rowSize];
+        int[] attributes = attributesOfColumns(encoder, header.length);
+        forEach(chunks, pool, chunk -> encode(chunk, encoder, attributes, values));
+        NetMetrics.stop(codec.metrics, NetMetrics.Operation.ENCODE, start, rows);
+        return new EncodedCsv(values, (int) rows, rowSize);
+    }
+
+    /**
+     * Applies an action to every chunk, in the calling thread or in parallel with the workers of a pool.
+     */
+    private static void forEach(List<Chunk> chunks, ForkJoinPool pool, Consumer<Chunk> action) {
+        if (pool == null) {
+            chunks.forEach(action);
+            return;
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for (Chunk chunk : chunks) {
+                    tasks.add(ForkJoinTask.adapt(() -> action.accept(chunk)));
+                }
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * Finds the end of the line that contains a position of the file.
+     *
+     * @return The position after the line break of the line, or the size of the file if it is the last line.
+     */
+    private static long lineEnd(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Reads the first line of the file, without its line break and the byte order mark of UTF-8.
+     */
+    private static String header(FileChannel channel, long headerEnd) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) headerEnd);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // reads until the whole line is in the buffer
+        }
+        String header = new String(buffer.array(), StandardCharsets.UTF_8);
+        int start = header.startsWith("\uFEFF") ? 1 : 0;
+        int end = header.length();
+        while (end > start && (header.charAt(end - 1) == '\n' || header.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        return header.substring(start, end);
+    }
+
+    /**
+     * Counts the non-empty lines of a chunk.
+     */
+    private static int rows(ByteBuffer buffer) {
+        int rows = 0;
+        int limit = buffer.limit();
+        int lineStart = 0;
+        for (int i = 0; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                if (!isLineEnd(buffer, lineStart, limit)) {
+                    rows++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        return lineStart < limit && !isLineEnd(buffer, lineStart, limit) ? rows + 1 : rows;
+    }
+
+    /**
+     * The attribute of each column of the header, or -1 for the columns that are not attributes.
+     */
+    private static int[] attributesOfColumns(RowEncoder encoder, int columns) {
+        int[] attributes = new int[columns];
+        Arrays.fill(attributes, -1);
+        for (int a = 0; a < encoder.columns.length; a++) {
+            attributes[encoder.columns[a]] = a;
+        }
+        return attributes;
+    }
+
+    /**
+     * Encodes the rows of a chunk into their positions of the encoded values.
+     */
+    private static void encode(Chunk chunk, RowEncoder encoder, int[] attributes, double[] values) {
+        ByteBuffer buffer = chunk.buffer;
+        ByteSlice slice = new ByteSlice(buffer);
+        int limit = buffer.limit();
+        int rowSize = encoder.size();
+        int row = chunk.firstRow;
+        int i = 0;
+        while (i < limit) {
+            if (isLineEnd(buffer, i, limit)) {
+                i = skipLineEnd(buffer, i, limit);
+                continue;
+            }
+            int offset = row * rowSize;
+            int column = 0;
+            boolean lineEnded = false;
+            while (!lineEnded) {
+                int attribute = column < attributes.length ? attributes[column] : -1;
+                CharSequence value;
+                int valueStart;
+                int valueEnd;
+                boolean ascii = true;
+                boolean escaped = false;
+                if (i < limit && buffer.get(i) == '"') {
+                    valueStart = ++i;
+                    while (true) {
+                        if (i >= limit || buffer.get(i) == '\n') {
+                            throw new IllegalArgumentException(
+                                    "A quoted value of row " + row + " is not closed before the end of its line");
+                        }
+                        byte b = buffer.get(i);
+                        if (b == '"') {
+                            if (i + 1 < limit && buffer.get(i + 1) == '"') {
+                                escaped = true;
+                                i += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        ascii &= b >= 0;
+                        i++;
+                    }
+                    valueEnd = i++;
+                    if (i < limit && buffer.get(i) != ',' && !isLineEnd(buffer, i, limit)) {
+                        throw new IllegalArgumentException(
+                                "A quoted value of row " + row + " is followed by more than a comma or a line end");
+                    }
+                } else {
+                    valueStart = i;
+                    while (i < limit) {
+                        byte b = buffer.get(i);
+                        if (b == ',' || b == '\n') {
+                            break;
+                        }
+                        ascii &= b >= 0;
+                        i++;
+                    }
+                    valueEnd = i > valueStart && (i == limit || buffer.get(i) == '\n') && buffer.get(i - 1) == '\r'
+                            ? i - 1
+                            : i;
+                }
+                if (i < limit && buffer.get(i) == ',') {
+                    i++;
+                } else {
+                    lineEnded = true;
+                    i = skipLineEnd(buffer, i, limit);
+                }
+                if (attribute >= 0) {
+                    if (ascii && !escaped) {
+                        value = slice.of(valueStart, valueEnd);
+                    } else {
+                        String decoded = slice.decoded(valueStart, valueEnd);
+                        value = escaped ? decoded.replace("\"\"", "\"") : decoded;
+                    }
+                    encoder.encode(attribute, value, values, offset + encoder.positions[attribute]);
+                }
+                column++;
+            }
+            if (column < attributes.length) {
+                throw new IllegalArgumentException(
+                        "Row " + row + " has " + column + " values, but " + attributes.length + " are expected");
+            }
+            row++;
+        }
+    }
+
+    /**
+     * Whether a position is at the end of a line, on a line break or on the carriage return before it.
+     */
+    private static boolean isLineEnd(ByteBuffer buffer, int i, int limit) {
+        byte b = buffer.get(i);
+        return b == '\n' || (b == '\r' && (i + 1 == limit || buffer.get(i + 1) == '\n'));
+    }
+
+    /**
+     * Skips the carriage return and the line break at a position, if there are any.
+     *
+     * @return The position of the next line.
+     */
+    private static int skipLineEnd(ByteBuffer buffer, int i, int limit) {
+        if (i < limit && buffer.get(i) == '\r') {
+            i++;
+        }
+        if (i < limit && buffer.get(i) == '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Splits a line of plain values, such as a header, at its commas, removing the quotes of the quoted values.
+     */
+    static String[] fields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * The characters of a range of ASCII bytes of a mapped file, as a sequence that is reused for every value.
+     */
+    private static final class ByteSlice implements CharSequence {
+
+        final ByteBuffer buffer;
+
+        int start;
+
+        int length;
+
+        ByteSlice(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        ByteSlice of(int from, int to) {
+            start = from;
+            length = to - from;
+            return this;
+        }
+
+        /**
+         * Decodes a range of UTF-8 bytes to a string.
+         */
+        String decoded(int from, int to) {
+            byte[] bytes = new byte[to - from];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(from + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) buffer.get(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().substring(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return decoded(start, start + length);
+        }
+
+    }
+
+}
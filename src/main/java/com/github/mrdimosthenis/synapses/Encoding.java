@@ -0,0 +1,343 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The attributes of a codec as plain arrays.
+ * <p>
+ * An encoding encodes and decodes data points exactly as the codec it was created from,
+ * and it reads and writes the same JSON representation incrementally.
+ */
+final class Encoding {
+
+    /**
+     * The name of each attribute.
+     */
+    final String[] keys;
+
+    /**
+     * Whether each attribute is discrete.
+     */
+    final boolean[] discrete;
+
+    /**
+     * The minimum and the maximum of each continuous attribute.
+     */
+    final double[] minimums;
+
+    final double[] maximums;
+
+    /**
+     * The values of each discrete attribute, in the order of their encoded positions.
+     */
+    final String[][] values;
+
+    /**
+     * The position of the first encoded value of each attribute in an encoded data point.
+     */
+    final int[] positions;
+
+    /**
+     * For each discrete attribute, an open addressing table from the hash of a value to its index plus one.
+     */
+    private final int[][] tables;
+
+    private final int size;
+
+    Encoding(String[] keys, boolean[] discrete, double[] minimums, double[] maximums, String[][] values) {
+        this.keys = keys;
+        this.discrete = discrete;
+        this.minimums = minimums;
+        this.maximums = maximums;
+        this.values = values;
+        positions = new int[keys.length];
+        tables = new int[keys.length][];
+        int position = 0;
+        for (int a = 0; a < keys.length; a++) {
+            positions[a] = position;
+            if (discrete[a]) {
+                tables[a] = table(values[a]);
+                position += values[a].length;
+            } else {
+                position++;
+            }
+        }
+        size = position;
+    }
+
+    /**
+     * The size of an encoded data point.
+     */
+    int size() {
+        return size;
+    }
+
+    double[] encode(Map<String, String> datapoint) {
+        double[] encodedValues = new double[size];
+        for (int a = 0; a < keys.length; a++) {
+            String value = datapoint.get(keys[a]);
+            if (discrete[a]) {
+                int index = index(a, value);
+                if (index >= 0) {
+                    encodedValues[positions[a] + index] = 1.0;
+                }
+            } else {
+                encodedValues[positions[a]] = normalized(a, Double.parseDouble(value));
+            }
+        }
+        return encodedValues;
+    }
+
+    /**
+     * Finds the index of a value of a discrete attribute, in a time that does not depend on the number of values.
+     *
+     * @return The index of the value, or -1 if it is not one of the values of the attribute.
+     */
+    int index(int attribute, CharSequence value) {
+        if (value == null) {
+            return -1;
+        }
+        int[] table = tables[attribute];
+        String[] attributeValues = values[attribute];
+        int mask = table.length - 1;
+        for (int slot = hash(value) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            String candidate = attributeValues[table[slot] - 1];
+            if (candidate.contentEquals(value)) {
+                return table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Builds the lookup table of the values of a discrete attribute, with at most half of its slots occupied.
+     */
+    private static int[] table(String[] values) {
+        int capacity = Integer.highestOneBit(Math.max(values.length, 1) * 2) * 2;
+        int[] table = new int[capacity];
+        int mask = capacity - 1;
+        for (int v = 0; v < values.length; v++) {
+            int slot = hash(values[v]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = v + 1;
+        }
+        return table;
+    }
+
+    /**
+     * The hash of the characters of a value, which is equal to the hash code of a string with the same characters.
+     */
+    private static int hash(CharSequence value) {
+        if (value instanceof String) {
+            return value.hashCode();
+        }
+        int hash = 0;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Scales a value of a continuous attribute between 0.0 and 1.0, or to 0.5 when the attribute has a single value.
+     */
+    double normalized(int attribute, double value) {
+        double minimum = minimums[attribute];
+        double maximum = maximums[attribute];
+        return minimum == maximum ? 0.5 : (value - minimum) / (maximum - minimum);
+    }
+
+    Map<String, String> decode(double[] encodedValues) {
+        String[] decodedValues = new String[keys.length];
+        decode(encodedValues, 0, decodedValues);
+        Map<String, String> datapoint = new HashMap<>(keys.length * 4 / 3 + 1);
+        for (int a = 0; a < keys.length; a++) {
+            datapoint.put(keys[a], decodedValues[a]);
+        }
+        return datapoint;
+    }
+
+    /**
+     * Decodes the encoded values that start from an offset into the value of each attribute.
+     * A discrete attribute takes the value with the largest encoded value, the first one if there are many.
+     */
+    void decode(double[] encodedValues, int offset, String[] decodedValues) {
+        for (int a = 0; a < keys.length; a++) {
+            int position = offset + positions[a];
+            if (discrete[a]) {
+                String[] attributeValues = values[a];
+                int best = 0;
+                double bestValue = encodedValues[position];
+                for (int v = 1; v < attributeValues.length; v++) {
+                    if (encodedValues[position + v] > bestValue) {
+                        best = v;
+                        bestValue = encodedValues[position + v];
+                    }
+                }
+                decodedValues[a] = attributeValues[best];
+            } else {
+                double minimum = minimums[a];
+                double value = encodedValues[position] * (maximums[a] - minimum) + minimum;
+                decodedValues[a] = Double.toString(value);
+            }
+        }
+    }
+
+    String json() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeJson(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes the JSON representation of the codec, one attribute at a time.
+     */
+    void writeJson(Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginArray();
+        for (int a = 0; a < keys.length; a++) {
+            writer.beginObject()
+                    .name("Case").value(discrete[a] ? "SerializableDiscrete" : "SerializableContinuous")
+                    .name("Fields").beginArray()
+                    .beginObject()
+                    .name("key").value(keys[a]);
+            if (discrete[a]) {
+                writer.name("values").beginArray();
+                for (String value : values[a]) {
+                    writer.value(value);
+                }
+                writer.endArray();
+            } else {
+                writer.name("min").value(minimums[a])
+                        .name("max").value(maximums[a]);
+            }
+            writer.endObject()
+                    .endArray()
+                    .endObject();
+        }
+        writer.endArray();
+        writer.flush();
+    }
+
+    static Encoding parse(String json) {
+        try {
+            return parse(new StringReader(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the JSON representation of a codec.
+     *
+     * @param json A reader of the JSON representation.
+     * @return The encoding of the codec.
+     * @throws IllegalArgumentException If an attribute has an unknown case or misses a field.
+     */
+    static Encoding parse(Reader json) throws IOException {
+        JsonReader reader = new JsonReader(json);
+        List<String> keys = new ArrayList<>();
+        List<Boolean> discrete = new ArrayList<>();
+        List<double[]> ranges = new ArrayList<>();
+        List<String[]> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String attributeCase = null;
+            String key = null;
+            double minimum = Double.NaN;
+            double maximum = Double.NaN;
+            List<String> attributeValues = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("Case")) {
+                    attributeCase = reader.nextString();
+                } else if (name.equals("Fields")) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            String field = reader.nextName();
+                            if (field.equals("key")) {
+                                key = reader.nextString();
+                            } else if (field.equals("min")) {
+                                minimum = reader.nextDouble();
+                            } else if (field.equals("max")) {
+                                maximum = reader.nextDouble();
+                            } else if (field.equals("values")) {
+                                attributeValues = new ArrayList<>();
+                                reader.beginArray();
+                                while (reader.hasNext()) {
+                                    attributeValues.add(reader.nextString());
+                                }
+                                reader.endArray();
+                            } else {
+                                reader.skipValue();
+                            }
+                        }
+                        reader.endObject();
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            int attribute = keys.size();
+            if (key == null) {
+                throw new IllegalArgumentException("Attribute " + attribute + " has no key");
+            }
+            if ("SerializableDiscrete".equals(attributeCase)) {
+                if (attributeValues == null) {
+                    throw new IllegalArgumentException("The discrete attribute " + key + " has no values");
+                }
+                discrete.add(true);
+                values.add(attributeValues.toArray(new String[0]));
+            } else if ("SerializableContinuous".equals(attributeCase)) {
+                if (Double.isNaN(minimum) || Double.isNaN(maximum)) {
+                    throw new IllegalArgumentException("The continuous attribute " + key + " has no range");
+                }
+                discrete.add(false);
+                values.add(new String[0]);
+            } else {
+                throw new IllegalArgumentException("Attribute " + key + " has an unknown case: " + attributeCase);
+            }
+            keys.add(key);
+            ranges.add(new double[]{minimum, maximum});
+        }
+        reader.endArray();
+        reader.endDocument();
+        int size = keys.size();
+        boolean[] discreteFlags = new boolean[size];
+        double[] minimums = new double[size];
+        double[] maximums = new double[size];
+        for (int a = 0; a < size; a++) {
+            discreteFlags[a] = discrete.get(a);
+            minimums[a] = ranges.get(a)[0];
+            maximums[a] = ranges.get(a)[1];
+        }
+        return new Encoding(
+                keys.toArray(new String[0]),
+                discreteFlags,
+                minimums,
+                maximums,
+                values.toArray(new String[0][])
+        );
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.github.mrdimosthenis.synapses;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The JDK Flight Recorder events of neural networks, codecs and metrics.
+ * <p>
+ * While no recording is running, an event is a disabled object that the JIT compiler removes.
+ * The events of predictions and fits are frequent, so by default only those that last at least a millisecond
+ * are recorded. The threshold can be changed in the settings of a recording, e.g. with
+ * {@code recording.enable("com.github.mrdimosthenis.synapses.Predict").withThreshold(Duration.ZERO)}.
+ */
+final class Events {
+
+    static final String SEQUENTIAL = "sequential";
+
+    static final String PARALLEL = "parallel";
+
+    static final String AUTO = "auto";
+
+    static final String HOGWILD = "hogwild";
+
+    private Events() {
+    }
+
+    @Name("com.github.mrdimosthenis.synapses.Predict")
+    @Label("Predict")
+    @Category({"Synapses", "Inference"})
+    @Description("Predictions of a neural network for one input or a batch of inputs")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class Predict extends Event {
+
+        @Label("Layer Sizes")
+        String layerSizes;
+
+        @Label("Samples")
+        long samples;
+
+        @Label("Mode")
+        @Description("How the layers are calculated: sequential, parallel or auto")
+        String mode;
+
+    }
+
+    @Name("com.github.mrdimosthenis.synapses.Fit")
+    @Label("Fit")
+    @Category({"Synapses", "Training"})
+    @Description("Adjustment of the weights of a neural network to one observation or a batch of observations")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class Fit extends Event {
+
+        @Label("Layer Sizes")
+        String layerSizes;
+
+        @Label("Batch Size")
+        long batchSize;
+
+        @Label("Mode")
+        @Description("How the adjustments are calculated: sequential, parallel, auto or hogwild")
+        String mode;
+
+        @Label("Learning Rate")
+        double learningRate;
+
+    }
+
+    @Name("com.github.mrdimosthenis.synapses.Epoch")
+    @Label("Training Epoch")
+    @Category({"Synapses", "Training"})
+    @Description("A pass of a training plan over its dataset")
+    static final class Epoch extends Event {
+
+        @Label("Layer Sizes")
+        String layerSizes;
+
+        @Label("Epoch")
+        int epoch;
+
+        @Label("Batch Size")
+        int batchSize;
+
+        @Label("Mode")
+        String mode;
+
+        @Label("Training RMSE")
+        double trainingRmse;
+
+        @Label("Validation RMSE")
+        double validationRmse;
+
+        @Label("Validation Score")
+        double validationScore;
+
+    }
+
+    @Name("com.github.mrdimosthenis.synapses.CodecCreation")
+    @Label("Codec Creation")
+    @Category({"Synapses", "Preprocessing"})
+    @Description("Creation of a codec from data points or from its JSON representation")
+    static final class CodecCreation extends Event {
+
+        @Label("Source")
+        @Description("What the codec is created from: datapoints, json or reader")
+        String source;
+
+        @Label("Attributes")
+        int attributes;
+
+        @Label("Data Points")
+        @Description("The number of data points the codec has consumed, or 0 if it has been parsed")
+        long datapoints;
+
+    }
+
+    @Name("com.github.mrdimosthenis.synapses.Stats")
+    @Label("Stats")
+    @Category({"Synapses", "Evaluation"})
+    @Description("Calculation of a metric over a stream of output pairs")
+    static final class Stats extends Event {
+
+        @Label("Metric")
+        String metric;
+
+        @Label("Output Pairs")
+        long outputPairs;
+
+        @Label("Value")
+        double value;
+
+    }
+
+}
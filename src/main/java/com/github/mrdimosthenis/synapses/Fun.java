@@ -1,5 +1,7 @@
 package com.github.mrdimosthenis.synapses;
 
+import java.util.function.DoubleUnaryOperator;
+
 import synapses.lib.Fun$package.Fun$;
 import synapses.model.net_elems.activation.Activation;
 
@@ -12,8 +14,135 @@ public class Fun {
 
     Activation contents;
 
-    Fun(Activation _contents) {
+    final String name;
+
+    final DoubleUnaryOperator f;
+
+    final DoubleUnaryOperator deriv;
+
+    /**
+     * The exact function that an approximation stands for, or the function itself.
+     */
+    final Fun exact;
+
+    Fun(Activation _contents,
+        String _name,
+        DoubleUnaryOperator _f,
+        DoubleUnaryOperator _deriv) {
         contents = _contents;
+        name = _name;
+        f = _f;
+        deriv = _deriv;
+        exact = this;
+    }
+
+    /**
+     * Creates an approximation that is serialized and trained as the provided exact function.
+     */
+    Fun(Fun _exact,
+        DoubleUnaryOperator _f,
+        DoubleUnaryOperator _deriv) {
+        contents = _exact.contents;
+        name = _exact.name;
+        f = _f;
+        deriv = _deriv;
+        exact = _exact;
+    }
+
+    static double sigmoid(double x) {
+        return 1.0 / (1.0 + Math.exp(-x));
+    }
+
+    /**
+     * The range of the table of tanh. Beyond it, tanh is within 2.3e-7 of -1 or 1.
+     */
+    static final double FAST_RANGE = 8.0;
+
+    /**
+     * The number of entries of the table of tanh per unit of input.
+     */
+    static final int FAST_STEPS = 128;
+
+    /**
+     * The values of tanh from {@code -FAST_RANGE} to {@code FAST_RANGE}, at a step of {@code 1 / FAST_STEPS}.
+     */
+    private static final double[] TANH_TABLE = tanhTable();
+
+    private static final double FAST_LAST = 2.0 * FAST_RANGE * FAST_STEPS;
+
+    private static double[] tanhTable() {
+        int last = (int) (2.0 * FAST_RANGE * FAST_STEPS);
+        double[] table = new double[last + 1];
+        for (int i = 0; i <= last; i++) {
+            table[i] = Math.tanh((double) i / FAST_STEPS - FAST_RANGE);
+        }
+        return table;
+    }
+
+    /**
+     * Tanh by linear interpolation between the entries of a table.
+     * Its error is below 6e-6 everywhere and it returns NaN for NaN.
+     */
+    static double fastTanh(double x) {
+        double t = (x + FAST_RANGE) * FAST_STEPS;
+        if (t <= 0.0) {
+            return -1.0;
+        }
+        if (t >= FAST_LAST) {
+            return 1.0;
+        }
+        int i = (int) t;
+        double low = TANH_TABLE[i];
+        return low + (t - i) * (TANH_TABLE[i + 1] - low);
+    }
+
+    /**
+     * Sigmoid as {@code (1 + tanh(x / 2)) / 2}, with the table of tanh.
+     * Its error is below 3e-6 everywhere.
+     */
+    static double fastSigmoid(double x) {
+        return 0.5 + 0.5 * fastTanh(0.5 * x);
+    }
+
+    /**
+     * Finds an activation function by the name it has in the JSON representation of a neural network.
+     *
+     * @param name The name of the activation function, for example {@code "sigmoid"}.
+     * @return The activation function.
+     */
+    static Fun named(String name) {
+        for (Fun fun : FUNCTIONS) {
+            if (fun.name.equals(name)) {
+                return fun;
+            }
+        }
+        throw new IllegalArgumentException("Unknown activation function: " + name);
+    }
+
+    /**
+     * Finds an activation function by the id it has in the binary representation of a neural network.
+     *
+     * @param id The id of the activation function.
+     * @return The activation function.
+     */
+    static Fun withId(int id) {
+        if (id < 0 || id >= FUNCTIONS.length) {
+            throw new IllegalArgumentException("Unknown activation function id: " + id);
+        }
+        return FUNCTIONS[id];
+    }
+
+    /**
+     * The id of the activation function in the binary representation of a neural network.
+     * An approximation has the id of its exact function.
+     */
+    int id() {
+        for (int id = 0; id < FUNCTIONS.length; id++) {
+            if (FUNCTIONS[id] == exact) {
+                return id;
+            }
+        }
+        throw new IllegalStateException("The activation function " + name + " has no id");
     }
 
     /**
@@ -25,7 +154,12 @@ public class Fun {
      * }
      * </pre>
      */
-    public static final Fun SIGMOID = new Fun(Fun$.MODULE$.sigmoid());
+    public static final Fun SIGMOID = new Fun(
+            Fun$.MODULE$.sigmoid(),
+            "sigmoid",
+            Fun::sigmoid,
+            x -> sigmoid(x) * (1.0 - sigmoid(x))
+    );
 
     /**
      * Identity is a linear function where the output is equal to the input.
@@ -36,7 +170,12 @@ public class Fun {
      * }
      * </pre>
      */
-    public static final Fun IDENTITY = new Fun(Fun$.MODULE$.identity());
+    public static final Fun IDENTITY = new Fun(
+            Fun$.MODULE$.identity(),
+            "identity",
+            x -> x,
+            x -> 1.0
+    );
 
     /**
      * Tanh is similar to Sigmoid, but outputs values in the range of -1 and 1.
@@ -47,7 +186,12 @@ public class Fun {
      * }
      * </pre>
      */
-    public static final Fun TANH = new Fun(Fun$.MODULE$.tanh());
+    public static final Fun TANH = new Fun(
+            Fun$.MODULE$.tanh(),
+            "tanh",
+            Math::tanh,
+            x -> 1.0 - Math.tanh(x) * Math.tanh(x)
+    );
 
     /**
      * LeakyReLU gives a small proportion of x if x is negative and x otherwise.
@@ -58,6 +202,70 @@ public class Fun {
      * }
      * </pre>
      */
-    public static final Fun LEAKY_RE_LU = new Fun(Fun$.MODULE$.leakyReLU());
+    public static final Fun LEAKY_RE_LU = new Fun(
+            Fun$.MODULE$.leakyReLU(),
+            "leakyReLU",
+            x -> x < 0.0 ? 0.01 * x : x,
+            x -> x < 0.0 ? 0.01 : 1.0
+    );
+
+    /**
+     * An approximation of sigmoid that is several times faster, with an absolute error below 3e-6.
+     * <p>
+     * It interpolates linearly between the entries of a table of 2049 values of tanh:
+     *
+     * <pre>
+     * {@code
+     * x -> 0.5 + 0.5 * fastTanh(0.5 * x)
+     * }
+     * </pre>
+     * <p>
+     * It is meant for inference, with {@link CompiledNet#withFastActivations()}.
+     * A neural network, its JSON representation and its training treat it as {@link #SIGMOID}.
+     */
+    public static final Fun FAST_SIGMOID = new Fun(
+            SIGMOID,
+            Fun::fastSigmoid,
+            x -> {
+                double s = fastSigmoid(x);
+                return s * (1.0 - s);
+            }
+    );
+
+    /**
+     * An approximation of tanh that is several times faster, with an absolute error below 6e-6.
+     * <p>
+     * It interpolates linearly between the entries of a table of tanh from -8 to 8, at a step of 1/128,
+     * and it is -1 or 1 beyond them.
+     * <p>
+     * It is meant for inference, with {@link CompiledNet#withFastActivations()}.
+     * A neural network, its JSON representation and its training treat it as {@link #TANH}.
+     */
+    public static final Fun FAST_TANH = new Fun(
+            TANH,
+            Fun::fastTanh,
+            x -> {
+                double t = fastTanh(x);
+                return 1.0 - t * t;
+            }
+    );
+
+    /**
+     * The approximation of the activation function, or the function itself if it has none.
+     */
+    Fun fast() {
+        if (this == SIGMOID) {
+            return FAST_SIGMOID;
+        }
+        if (this == TANH) {
+            return FAST_TANH;
+        }
+        return this;
+    }
+
+    /**
+     * The activation functions in the order of their ids. New functions should only be appended.
+     */
+    private static final Fun[] FUNCTIONS = {SIGMOID, IDENTITY, TANH, LEAKY_RE_LU};
 
 }
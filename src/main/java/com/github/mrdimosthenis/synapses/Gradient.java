@@ -0,0 +1,397 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.util.Arrays;
+
+/**
+ * The reusable buffers of back propagation.
+ * <p>
+ * A gradient accumulates the adjustments of the weights for any number of observations,
+ * so they can be subtracted from the weights of a neural network at once.
+ * The errors are propagated the same way they are propagated by {@link Net#fit},
+ * so the adjustments for a single observation are identical to those of a fit.
+ */
+final class Gradient {
+
+    /**
+     * The accumulated adjustments, in the same layout as the weights of {@link CompiledNet}.
+     */
+    final double[][] weights;
+
+    /**
+     * The weighted sums of the neurons of each layer, for the latest observation.
+     */
+    final double[][] sums;
+
+    /**
+     * The output values of each layer, for the latest observation.
+     */
+    final double[][] outputs;
+
+    /**
+     * The errors of the neurons of each layer, for the latest observation.
+     */
+    final double[][] errors;
+
+    /**
+     * The sum of the squared errors of the outputs, for the observations that have been added since the last clear.
+     */
+    double squaredError = 0.0;
+
+    private final int[] layerSizes;
+
+    private boolean empty = true;
+
+    Gradient(int[] layerSizes) {
+        this.layerSizes = layerSizes;
+        int layers = layerSizes.length - 1;
+        weights = new double[layers][];
+        sums = new double[layers][];
+        outputs = new double[layers][];
+        errors = new double[layers][];
+        for (int l = 0; l < layers; l++) {
+            weights[l] = new double[layerSizes[l + 1] * (layerSizes[l] + 1)];
+            sums[l] = new double[layerSizes[l + 1]];
+            outputs[l] = new double[layerSizes[l + 1]];
+            errors[l] = new double[layerSizes[l + 1]];
+        }
+    }
+
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Forgets the accumulated adjustments.
+     */
+    void clear() {
+        empty = true;
+        squaredError = 0.0;
+    }
+
+    /**
+     * Adds the adjustments for a single observation.
+     *
+     * @param net            The neural network whose weights are adjusted.
+     * @param inputValues    The feature values of the observation.
+     * @param expectedOutput The expected output of the observation.
+     * @param scale          The factor of the adjustments, for example the learning rate divided by the batch size.
+     */
+    void add(CompiledNet net, double[] inputValues, double[] expectedOutput, double scale) {
+        propagate(net, inputValues, expectedOutput, null);
+        for (int l = 0; l < weights.length; l++) {
+            double[] input = l == 0 ? inputValues : outputs[l - 1];
+            int inputSize = layerSizes[l];
+            int stride = inputSize + 1;
+            double[] layerGradient = weights[l];
+            double[] deltas = errors[l];
+            for (int n = 0, row = 0; n < deltas.length; n++, row += stride) {
+                double delta = scale * deltas[n];
+                if (empty) {
+                    layerGradient[row] = delta;
+                    for (int i = 0; i < inputSize; i++) {
+                        layerGradient[row + 1 + i] = delta * input[i];
+                    }
+                } else {
+                    layerGradient[row] += delta;
+                    Kernels.axpy(delta, input, 0, layerGradient, row + 1, inputSize);
+                }
+            }
+        }
+        empty = false;
+    }
+
+    /**
+     * Adjusts the weights of a neural network in place to a single observation.
+     * <p>
+     * The accumulated adjustments are left untouched.
+     *
+     * @param net            The neural network whose weights are adjusted.
+     * @param learningRate   A number that controls how much the weights are adjusted to the observation.
+     * @param inputValues    The feature values of the observation.
+     * @param expectedOutput The expected output of the observation.
+     */
+    void descend(CompiledNet net, double learningRate, double[] inputValues, double[] expectedOutput) {
+        descend(net, learningRate, inputValues, expectedOutput, null);
+    }
+
+    /**
+     * Adjusts the weights of a neural network in place to a single observation,
+     * calculating each layer sequentially or in parallel.
+     *
+     * @param dispatch The choice between sequential and parallel calculation for each layer,
+     *                 or {@code null} for sequential calculation of all layers.
+     */
+    void descend(CompiledNet net,
+                 double learningRate,
+                 double[] inputValues,
+                 double[] expectedOutput,
+                 LayerDispatch dispatch) {
+        propagate(net, inputValues, expectedOutput, dispatch);
+        for (int l = 0; l < weights.length; l++) {
+            double[] input = l == 0 ? inputValues : outputs[l - 1];
+            int inputSize = layerSizes[l];
+            double[] layerWeights = net.weights[l];
+            double[] deltas = errors[l];
+            if (dispatch == null) {
+                descend(layerWeights, deltas, learningRate, input, inputSize, 0, deltas.length);
+            } else {
+                dispatch.run(l, deltas.length, (from, to) ->
+                        descend(layerWeights, deltas, learningRate, input, inputSize, from, to)
+                );
+            }
+        }
+    }
+
+    /**
+     * Adjusts the weights of the neurons of a layer between {@code from} (inclusive) and {@code to} (exclusive).
+     */
+    private static void descend(double[] layerWeights,
+                                double[] deltas,
+                                double learningRate,
+                                double[] input,
+                                int inputSize,
+                                int from,
+                                int to) {
+        int stride = inputSize + 1;
+        for (int n = from, row = from * stride; n < to; n++, row += stride) {
+            double delta = learningRate * deltas[n];
+            layerWeights[row] -= delta;
+            Kernels.axpy(-delta, input, 0, layerWeights, row + 1, inputSize);
+        }
+    }
+
+    /**
+     * Calculates the errors of the input layer for a single observation, without adjusting the weights.
+     * <p>
+     * The errors are identical to those of the network of synapses,
+     * whose error of each input is the sum of the deltas of the first layer multiplied by the value of that input.
+     *
+     * @param dispatch The choice between sequential and parallel calculation for each layer,
+     *                 or {@code null} for sequential calculation of all layers.
+     */
+    double[] errors(CompiledNet net, double[] inputValues, double[] expectedOutput, LayerDispatch dispatch) {
+        propagate(net, inputValues, expectedOutput, dispatch);
+        double[] deltas = errors[0];
+        double[] inputErrors = new double[inputValues.length];
+        for (int i = 0; i < inputErrors.length; i++) {
+            double error = 0.0;
+            for (int n = 0; n < deltas.length; n++) {
+                error += deltas[n] * inputValues[i];
+            }
+            inputErrors[i] = error;
+        }
+        return inputErrors;
+    }
+
+    /**
+     * Adjusts the weights of a neural network in place, touching only the weights whose adjustment is not zero.
+     * <p>
+     * The weights of zero inputs and of neurons with a zero delta are neither read nor written,
+     * which keeps the updates of concurrent threads apart when the inputs are sparse.
+     */
+    void descendSparsely(CompiledNet net, double learningRate, double[] inputValues, double[] expectedOutput) {
+        propagate(net, inputValues, expectedOutput, null);
+        for (int l = 0; l < weights.length; l++) {
+            double[] input = l == 0 ? inputValues : outputs[l - 1];
+            int inputSize = layerSizes[l];
+            int stride = inputSize + 1;
+            double[] layerWeights = net.weights[l];
+            double[] deltas = errors[l];
+            for (int n = 0, row = 0; n < deltas.length; n++, row += stride) {
+                double delta = learningRate * deltas[n];
+                if (delta == 0.0) {
+                    continue;
+                }
+                layerWeights[row] -= delta;
+                for (int i = 0; i < inputSize; i++) {
+                    if (input[i] != 0.0) {
+                        layerWeights[row + 1 + i] -= delta * input[i];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the adjustments for a single sparse observation.
+     * <p>
+     * The adjustments of the first layer for the zero inputs are zero, so they are written only when the gradient
+     * is empty and otherwise left untouched.
+     *
+     * @param net            The neural network whose weights are adjusted.
+     * @param inputIndices   The indices of the non-zero feature values of the observation, in increasing order.
+     * @param inputValues    The non-zero feature values of the observation.
+     * @param expectedOutput The expected output of the observation.
+     * @param scale          The factor of the adjustments, for example the learning rate divided by the batch size.
+     */
+    void add(CompiledNet net, int[] inputIndices, double[] inputValues, double[] expectedOutput, double scale) {
+        propagate(net, inputIndices, inputValues, expectedOutput);
+        int stride = layerSizes[0] + 1;
+        double[] firstGradient = weights[0];
+        double[] firstDeltas = errors[0];
+        for (int n = 0, row = 0; n < firstDeltas.length; n++, row += stride) {
+            double delta = scale * firstDeltas[n];
+            if (empty) {
+                Arrays.fill(firstGradient, row, row + stride, 0.0);
+                firstGradient[row] = delta;
+                for (int k = 0; k < inputIndices.length; k++) {
+                    firstGradient[row + 1 + inputIndices[k]] = delta * inputValues[k];
+                }
+            } else {
+                firstGradient[row] += delta;
+                for (int k = 0; k < inputIndices.length; k++) {
+                    firstGradient[row + 1 + inputIndices[k]] += delta * inputValues[k];
+                }
+            }
+        }
+        for (int l = 1; l < weights.length; l++) {
+            double[] input = outputs[l - 1];
+            int inputSize = layerSizes[l];
+            int layerStride = inputSize + 1;
+            double[] layerGradient = weights[l];
+            double[] deltas = errors[l];
+            for (int n = 0, row = 0; n < deltas.length; n++, row += layerStride) {
+                double delta = scale * deltas[n];
+                if (empty) {
+                    layerGradient[row] = delta;
+                    for (int i = 0; i < inputSize; i++) {
+                        layerGradient[row + 1 + i] = delta * input[i];
+                    }
+                } else {
+                    layerGradient[row] += delta;
+                    Kernels.axpy(delta, input, 0, layerGradient, row + 1, inputSize);
+                }
+            }
+        }
+        empty = false;
+    }
+
+    /**
+     * Adjusts the weights of a neural network in place to a single sparse observation.
+     * <p>
+     * In the first layer, only the biases and the weights of the non-zero inputs are read and written.
+     * The adjustments are identical to those of a dense observation with the same values,
+     * as the adjustment of the weight of a zero input is zero.
+     *
+     * @param net            The neural network whose weights are adjusted.
+     * @param learningRate   A number that controls how much the weights are adjusted to the observation.
+     * @param inputIndices   The indices of the non-zero feature values of the observation, in increasing order.
+     * @param inputValues    The non-zero feature values of the observation.
+     * @param expectedOutput The expected output of the observation.
+     */
+    void descend(CompiledNet net,
+                 double learningRate,
+                 int[] inputIndices,
+                 double[] inputValues,
+                 double[] expectedOutput) {
+        propagate(net, inputIndices, inputValues, expectedOutput);
+        int stride = layerSizes[0] + 1;
+        double[] firstWeights = net.weights[0];
+        double[] firstDeltas = errors[0];
+        for (int n = 0, row = 0; n < firstDeltas.length; n++, row += stride) {
+            double delta = learningRate * firstDeltas[n];
+            firstWeights[row] -= delta;
+            for (int k = 0; k < inputIndices.length; k++) {
+                firstWeights[row + 1 + inputIndices[k]] += -delta * inputValues[k];
+            }
+        }
+        for (int l = 1; l < weights.length; l++) {
+            double[] deltas = errors[l];
+            descend(net.weights[l], deltas, learningRate, outputs[l - 1], layerSizes[l], 0, deltas.length);
+        }
+    }
+
+    /**
+     * Feeds the observation forward and propagates its errors back, leaving the delta of each neuron in the errors.
+     * <p>
+     * The error of each input of a layer is the sum of the deltas of the layer multiplied by the value of that input.
+     * Since the propagation does not depend on the weights, they can be adjusted in place afterwards.
+     */
+    private void propagate(CompiledNet net, double[] inputValues, double[] expectedOutput, LayerDispatch dispatch) {
+        double[] values = inputValues;
+        for (int l = 0; l < weights.length; l++) {
+            if (dispatch == null) {
+                CompiledNet.forward(net.weights[l], net.activations[l],
+                        values, layerSizes[l],
+                        sums[l], outputs[l], layerSizes[l + 1]);
+            } else {
+                dispatch.forward(net, l, values, sums[l], outputs[l]);
+            }
+            values = outputs[l];
+        }
+        propagateBack(net, expectedOutput);
+    }
+
+    /**
+     * Feeds a sparse observation forward and propagates its errors back.
+     * <p>
+     * The first layer only reads the weights of the non-zero inputs.
+     */
+    private void propagate(CompiledNet net, int[] inputIndices, double[] inputValues, double[] expectedOutput) {
+        CompiledNet.forward(net.weights[0], net.activations[0],
+                inputIndices, inputValues, layerSizes[0],
+                sums[0], outputs[0], layerSizes[1]);
+        for (int l = 1; l < weights.length; l++) {
+            CompiledNet.forward(net.weights[l], net.activations[l],
+                    outputs[l - 1], layerSizes[l],
+                    sums[l], outputs[l], layerSizes[l + 1]);
+        }
+        propagateBack(net, expectedOutput);
+    }
+
+    /**
+     * Propagates the errors of the latest observation back, once its values have been fed forward.
+     * The errors of the input layer are not needed, so they are not calculated.
+     */
+    private void propagateBack(CompiledNet net, double[] expectedOutput) {
+        int last = weights.length - 1;
+        double[] outputErrors = errors[last];
+        for (int n = 0; n < outputErrors.length; n++) {
+            double error = outputs[last][n] - expectedOutput[n];
+            outputErrors[n] = error;
+            squaredError += error * error;
+        }
+        for (int l = last; l >= 0; l--) {
+            Fun activation = net.activations[l];
+            double[] layerSums = sums[l];
+            double[] deltas = errors[l];
+            for (int n = 0; n < deltas.length; n++) {
+                deltas[n] = deltas[n] * activation.deriv.applyAsDouble(layerSums[n]);
+            }
+            if (l > 0) {
+                double[] input = outputs[l - 1];
+                double[] inputErrors = errors[l - 1];
+                for (int i = 0; i < inputErrors.length; i++) {
+                    double error = 0.0;
+                    for (int n = 0; n < deltas.length; n++) {
+                        error += deltas[n] * input[i];
+                    }
+                    inputErrors[i] = error;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the adjustments that another gradient has accumulated.
+     */
+    void add(Gradient other) {
+        if (other.empty) {
+            return;
+        }
+        squaredError += other.squaredError;
+        for (int l = 0; l < weights.length; l++) {
+            double[] target = weights[l];
+            double[] source = other.weights[l];
+            if (empty) {
+                System.arraycopy(source, 0, target, 0, target.length);
+            } else {
+                for (int i = 0; i < target.length; i++) {
+                    target[i] += source[i];
+                }
+            }
+        }
+        empty = false;
+    }
+
+}
@@ -0,0 +1,285 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A pull parser that reads a JSON document incrementally through a fixed-size buffer.
+ * <p>
+ * It understands the subset of JSON that neural networks and codecs are made of:
+ * arrays, objects, strings and numbers. Other values can only be skipped.
+ * Malformed input, such as a missing or a trailing comma, is rejected with an {@link IllegalArgumentException}.
+ */
+final class JsonReader {
+
+    private final Reader in;
+
+    private final char[] buffer = new char[8192];
+
+    private int pos = 0;
+
+    private int limit = 0;
+
+    private final StringBuilder scratch = new StringBuilder();
+
+    /**
+     * Whether each open array or object has not yet reached its first element.
+     */
+    private boolean[] first = new boolean[16];
+
+    /**
+     * The number of open arrays and objects.
+     */
+    private int depth = 0;
+
+    JsonReader(Reader in) {
+        this.in = in;
+    }
+
+    void beginArray() throws IOException {
+        expect('[');
+        open();
+    }
+
+    void endArray() throws IOException {
+        expect(']');
+        depth--;
+    }
+
+    void beginObject() throws IOException {
+        expect('{');
+        open();
+    }
+
+    void endObject() throws IOException {
+        expect('}');
+        depth--;
+    }
+
+    /**
+     * Checks that nothing but whitespace follows the value that has been read.
+     */
+    void endDocument() throws IOException {
+        if (peek() != -1) {
+            throw malformed("unexpected content after the end of the document");
+        }
+    }
+
+    /**
+     * Checks whether the current array or object has more elements, consuming the comma that separates them.
+     * <p>
+     * The elements should be separated by exactly one comma, with no comma before the first or after the last.
+     *
+     * @return {@code false} if the next character closes the current array or object.
+     */
+    boolean hasNext() throws IOException {
+        int c = peek();
+        if (c == -1) {
+            throw malformed("unexpected end of the document");
+        }
+        if (first[depth - 1]) {
+            if (c == ']' || c == '}') {
+                return false;
+            }
+            if (c == ',') {
+                throw malformed("unexpected ',' before the first element");
+            }
+            first[depth - 1] = false;
+            return true;
+        }
+        if (c == ']' || c == '}') {
+            return false;
+        }
+        if (c != ',') {
+            throw malformed("expected ',' between elements");
+        }
+        pos++;
+        c = peek();
+        if (c == ']' || c == '}' || c == ',' || c == -1) {
+            throw malformed("expected an element after ','");
+        }
+        return true;
+    }
+
+    String nextName() throws IOException {
+        String name = nextString();
+        expect(':');
+        return name;
+    }
+
+    String nextString() throws IOException {
+        expect('"');
+        scratch.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return scratch.toString();
+            }
+            if (c == -1) {
+                throw malformed("unterminated string");
+            }
+            if (c == '\\') {
+                int e = read();
+                switch (e) {
+                    case 'b':
+                        scratch.append('\b');
+                        break;
+                    case 'f':
+                        scratch.append('\f');
+                        break;
+                    case 'n':
+                        scratch.append('\n');
+                        break;
+                    case 'r':
+                        scratch.append('\r');
+                        break;
+                    case 't':
+                        scratch.append('\t');
+                        break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0) {
+                                throw malformed("invalid unicode escape");
+                            }
+                            code = code * 16 + digit;
+                        }
+                        scratch.append((char) code);
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        scratch.append((char) e);
+                        break;
+                    case -1:
+                        throw malformed("unterminated string");
+                    default:
+                        throw malformed("invalid escape");
+                }
+            } else {
+                scratch.append((char) c);
+            }
+        }
+    }
+
+    double nextDouble() throws IOException {
+        peek();
+        scratch.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) {
+                break;
+            }
+            char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                scratch.append(c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (scratch.length() == 0) {
+            throw malformed("expected a number");
+        }
+        try {
+            return Double.parseDouble(scratch.toString());
+        } catch (NumberFormatException e) {
+            throw malformed("invalid number " + scratch);
+        }
+    }
+
+    /**
+     * Skips the next value, whatever its type.
+     */
+    void skipValue() throws IOException {
+        int c = peek();
+        if (c == '[') {
+            beginArray();
+            while (hasNext()) {
+                skipValue();
+            }
+            endArray();
+        } else if (c == '{') {
+            beginObject();
+            while (hasNext()) {
+                nextName();
+                skipValue();
+            }
+            endObject();
+        } else if (c == '"') {
+            nextString();
+        } else if (c == 't') {
+            expectLiteral("true");
+        } else if (c == 'f') {
+            expectLiteral("false");
+        } else if (c == 'n') {
+            expectLiteral("null");
+        } else {
+            nextDouble();
+        }
+    }
+
+    /**
+     * Returns the next non-whitespace character without consuming it, or {@code -1} at the end of the input.
+     */
+    int peek() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            char c = buffer[pos];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peek();
+        if (c != expected) {
+            throw malformed("expected '" + expected + "'");
+        }
+        pos++;
+    }
+
+    private void expectLiteral(String literal) throws IOException {
+        peek();
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw malformed("expected " + literal);
+            }
+        }
+    }
+
+    private void open() {
+        if (depth == first.length) {
+            first = Arrays.copyOf(first, 2 * depth);
+        }
+        first[depth++] = true;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private IllegalArgumentException malformed(String reason) {
+        return new IllegalArgumentException("Malformed JSON: " + reason);
+    }
+
+}
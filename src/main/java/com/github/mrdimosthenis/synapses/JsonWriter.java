@@ -0,0 +1,153 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A writer that emits a JSON document incrementally.
+ * <p>
+ * The layout is the same as that of the JSON representations of neural networks and codecs:
+ * every element goes on its own line, it is indented by two spaces per level
+ * and the names of the fields are followed by {@code " : "}.
+ */
+final class JsonWriter {
+
+    private final Writer out;
+
+    private int depth = 0;
+
+    private boolean empty = true;
+
+    private boolean afterName = false;
+
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    JsonWriter beginArray() throws IOException {
+        open('[');
+        return this;
+    }
+
+    JsonWriter endArray() throws IOException {
+        close(']');
+        return this;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        open('{');
+        return this;
+    }
+
+    JsonWriter endObject() throws IOException {
+        close('}');
+        return this;
+    }
+
+    JsonWriter name(String name) throws IOException {
+        beforeValue();
+        string(name);
+        out.write(" : ");
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) throws IOException {
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    JsonWriter value(double value) throws IOException {
+        beforeValue();
+        out.write(Double.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes the shortest decimal that identifies a single-precision value,
+     * instead of the long expansion of its double-precision equivalent.
+     */
+    JsonWriter value(float value) throws IOException {
+        beforeValue();
+        out.write(Float.toString(value));
+        return this;
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    private void open(char bracket) throws IOException {
+        beforeValue();
+        out.write(bracket);
+        depth++;
+        empty = true;
+    }
+
+    private void close(char bracket) throws IOException {
+        depth--;
+        newLine();
+        out.write(bracket);
+        empty = false;
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (!empty) {
+                out.write(',');
+            }
+            newLine();
+        }
+        empty = false;
+    }
+
+    private void newLine() throws IOException {
+        out.write('\n');
+        for (int i = 0; i < depth; i++) {
+            out.write("  ");
+        }
+    }
+
+    private void string(String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\b':
+                    out.write("\\b");
+                    break;
+                case '\f':
+                    out.write("\\f");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.github.mrdimosthenis.synapses;
+
+/**
+ * The arithmetic of the inner loops of prediction and training.
+ * <p>
+ * The loops are performed by vector instructions when the {@code jdk.incubator.vector} module is available,
+ * for example when the JVM is started with {@code --add-modules jdk.incubator.vector},
+ * and by scalar code otherwise.
+ * The vector kernels can be turned off with the system property {@code synapses.vector=false}.
+ * <p>
+ * The scalar dot product adds the products in order, exactly as the neural network does.
+ * The vector dot product adds them in lanes, so its sums may differ in the last bits.
+ * The updates of the weights are identical either way.
+ */
+final class Kernels {
+
+    /**
+     * The operations that are performed by vector instructions.
+     */
+    interface Kernel {
+
+        double dot(double[] a, int aOffset, double[] b, int bOffset, int length, double sum);
+
+        void axpy(double scale, double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    }
+
+    static final Kernel VECTOR = vectorKernel();
+
+    /**
+     * Whether the inner loops are performed by vector instructions.
+     */
+    static final boolean ACCELERATED = VECTOR != null;
+
+    private Kernels() {
+    }
+
+    /**
+     * Adds the products of two ranges of values to a sum.
+     *
+     * @return The sum plus {@code a[aOffset + i] * b[bOffset + i]} for every {@code i} below the length.
+     */
+    static double dot(double[] a, int aOffset, double[] b, int bOffset, int length, double sum) {
+        if (VECTOR != null) {
+            return VECTOR.dot(a, aOffset, b, bOffset, length, sum);
+        }
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Adds {@code scale * x[xOffset + i]} to {@code y[yOffset + i]} for every {@code i} below the length.
+     */
+    static void axpy(double scale, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        if (VECTOR != null) {
+            VECTOR.axpy(scale, x, xOffset, y, yOffset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            y[yOffset + i] += scale * x[xOffset + i];
+        }
+    }
+
+    /**
+     * Loads the vector kernels, which the multi-release jar only holds for JDK 17 or later.
+     *
+     * @return The vector kernels, or {@code null} when they or the vector module are not available.
+     */
+    private static Kernel vectorKernel() {
+        if ("false".equals(System.getProperty("synapses.vector"))) {
+            return null;
+        }
+        try {
+            Class<?> kernelClass = Class.forName("com.github.mrdimosthenis.synapses.VectorKernel");
+            return (Kernel) kernelClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+}
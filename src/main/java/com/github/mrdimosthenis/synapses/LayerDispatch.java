@@ -0,0 +1,155 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The choice between sequential and parallel calculation for each layer of a neural network.
+ * <p>
+ * The choice is made once, by timing both calculations of every layer with a short micro-benchmark.
+ * A parallel calculation splits the neurons of a layer in ranges that are calculated by the workers of a pool.
+ * Each neuron is calculated exactly as in a sequential calculation, so the results are identical either way.
+ */
+final class LayerDispatch {
+
+    /**
+     * The number of multiply-adds that a calibration round performs for each layer, approximately.
+     */
+    static final int CALIBRATION_WORK = 1 << 20;
+
+    static final int CALIBRATION_ROUNDS = 5;
+
+    /**
+     * The calculation of a range of neurons.
+     */
+    interface NeuronRange {
+
+        void run(int from, int to);
+
+    }
+
+    /**
+     * Whether each layer is calculated in parallel.
+     */
+    final boolean[] parallel;
+
+    private final ForkJoinPool pool;
+
+    LayerDispatch(boolean[] parallel, ForkJoinPool pool) {
+        this.parallel = parallel;
+        this.pool = pool;
+    }
+
+    /**
+     * The parallel calculation of every layer.
+     */
+    static LayerDispatch parallel(int layers, ForkJoinPool pool) {
+        boolean[] parallel = new boolean[layers];
+        Arrays.fill(parallel, true);
+        return new LayerDispatch(parallel, pool);
+    }
+
+    /**
+     * Times the sequential and the parallel calculation of every layer and keeps the faster one.
+     */
+    static LayerDispatch calibrate(CompiledNet net, ForkJoinPool pool) {
+        int layers = net.weights.length;
+        boolean[] parallel = new boolean[layers];
+        LayerDispatch sequentialDispatch = new LayerDispatch(new boolean[layers], pool);
+        LayerDispatch parallelDispatch = parallel(layers, pool);
+        for (int l = 0; l < layers; l++) {
+            int inputSize = net.layerSizes[l];
+            int outputSize = net.layerSizes[l + 1];
+            double[] input = new double[inputSize];
+            Arrays.fill(input, 0.5);
+            double[] output = new double[outputSize];
+            int repetitions = Math.max(1, CALIBRATION_WORK / Math.max(1, (inputSize + 1) * outputSize));
+            long sequentialTime = Long.MAX_VALUE;
+            long parallelTime = Long.MAX_VALUE;
+            for (int round = 0; round < CALIBRATION_ROUNDS; round++) {
+                sequentialTime = Math.min(sequentialTime, time(sequentialDispatch, net, l, input, output, repetitions));
+                parallelTime = Math.min(parallelTime, time(parallelDispatch, net, l, input, output, repetitions));
+            }
+            parallel[l] = parallelTime < sequentialTime;
+        }
+        return new LayerDispatch(parallel, pool);
+    }
+
+    private static long time(LayerDispatch dispatch,
+                             CompiledNet net,
+                             int layer,
+                             double[] input,
+                             double[] output,
+                             int repetitions) {
+        long start = System.nanoTime();
+        for (int r = 0; r < repetitions; r++) {
+            dispatch.forward(net, layer, input, null, output);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Calculates the neurons of a layer, sequentially or in parallel.
+     */
+    void run(int layer, int neurons, NeuronRange range) {
+        if (parallel[layer]) {
+            int minimumRange = Math.max(1, neurons / (4 * pool.getParallelism()));
+            pool.invoke(new ParallelRange(range, minimumRange, 0, neurons));
+        } else {
+            range.run(0, neurons);
+        }
+    }
+
+    /**
+     * Feeds the input through a layer, keeping the weighted sums when a buffer is provided.
+     */
+    void forward(CompiledNet net, int layer, double[] input, double[] sums, double[] output) {
+        double[] layerWeights = net.weights[layer];
+        Fun activation = net.activations[layer];
+        int inputSize = net.layerSizes[layer];
+        run(layer, net.layerSizes[layer + 1], (from, to) ->
+                CompiledNet.forward(layerWeights, activation, input, inputSize, sums, output, from, to)
+        );
+    }
+
+    double[] predict(CompiledNet net, double[] inputValues) {
+        double[] values = inputValues;
+        for (int l = 0; l < net.weights.length; l++) {
+            double[] outputValues = new double[net.layerSizes[l + 1]];
+            forward(net, l, values, null, outputValues);
+            values = outputValues;
+        }
+        return values;
+    }
+
+    private static class ParallelRange extends RecursiveAction {
+
+        final NeuronRange range;
+        final int minimumRange;
+        final int from;
+        final int to;
+
+        ParallelRange(NeuronRange range, int minimumRange, int from, int to) {
+            this.range = range;
+            this.minimumRange = minimumRange;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= minimumRange) {
+                range.run(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new ParallelRange(range, minimumRange, from, middle),
+                        new ParallelRange(range, minimumRange, middle, to)
+                );
+            }
+        }
+
+    }
+
+}
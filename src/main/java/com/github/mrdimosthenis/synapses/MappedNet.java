@@ -0,0 +1,230 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A neural network whose weights are read in place from a memory-mapped file.
+ * <p>
+ * The file is the binary representation of a neural network, as written by {@link Net#writeTo}.
+ * The weights are never copied to the heap; predictions read them directly from the mapped file,
+ * so several processes that map the same file share a single copy of it in the page cache of the operating system.
+ * The file is mapped in regions of whole neurons, so networks larger than 2 GB are supported.
+ * <p>
+ * The mapping lasts until the mapped neural network is garbage collected.
+ * The file should not be modified while it is mapped.
+ * <p>
+ * Map a neural network:
+ * <pre>
+ * {@code
+ * try (OutputStream out = Files.newOutputStream(path)) {
+ *     net.writeTo(out);
+ * }
+ * MappedNet mappedNet = MappedNet.open(path);
+ * }
+ * </pre>
+ * <p>
+ * Get the prediction for an input:
+ * <pre>
+ * {@code
+ * mappedNet.predict(new double[]{0.4, 0.05, 0.2});
+ * }
+ * </pre>
+ */
+public class MappedNet {
+
+    /**
+     * The largest number of bytes of a mapped region.
+     */
+    static final long MAX_REGION_BYTES = 1L << 30;
+
+    /**
+     * The size of each layer, including the input layer.
+     */
+    final int[] layerSizes;
+
+    /**
+     * The activation function of the neurons of each layer.
+     */
+    final Fun[] activations;
+
+    /**
+     * The mapped regions of each layer. Every region holds the weights of {@link #regionNeurons} consecutive neurons,
+     * in the layout of {@link CompiledNet}.
+     */
+    final DoubleBuffer[][] regions;
+
+    /**
+     * The number of neurons of each region of each layer.
+     */
+    final int[] regionNeurons;
+
+    private MappedNet(int[] layerSizes, Fun[] activations, DoubleBuffer[][] regions, int[] regionNeurons) {
+        this.layerSizes = layerSizes;
+        this.activations = activations;
+        this.regions = regions;
+        this.regionNeurons = regionNeurons;
+    }
+
+    /**
+     * Maps the binary representation of a neural network.
+     *
+     * @param path The path of the file that contains the binary representation.
+     * @return The mapped neural network.
+     * @throws IOException              If the file cannot be read or it ends before the neural network.
+     * @throws IllegalArgumentException If the file does not contain a neural network of a supported version.
+     */
+    public static MappedNet open(Path path) throws IOException {
+        return open(path, MAX_REGION_BYTES);
+    }
+
+    static MappedNet open(Path path, long maxRegionBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer start = read(channel, 0, 12);
+            int layers = BinaryFormat.checkedLayers(start.getInt(0), start.getInt(4), start.getInt(8));
+            int headerSize = BinaryFormat.headerSize(layers);
+            int[] layerSizes = new int[layers];
+            Fun[] activations = new Fun[layers - 1];
+            BinaryFormat.readShape(read(channel, 0, headerSize), layerSizes, activations);
+            DoubleBuffer[][] regions = new DoubleBuffer[layers - 1][];
+            int[] regionNeurons = new int[layers - 1];
+            long position = headerSize;
+            for (int l = 0; l < layers - 1; l++) {
+                long rowBytes = 8L * (layerSizes[l] + 1);
+                int neurons = layerSizes[l + 1];
+                int neuronsPerRegion = (int) Math.min(neurons, Math.max(1, maxRegionBytes / rowBytes));
+                if (rowBytes * neuronsPerRegion > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("The neurons of layer " + l + " have too many weights to be mapped");
+                }
+                int regionCount = (neurons + neuronsPerRegion - 1) / neuronsPerRegion;
+                regions[l] = new DoubleBuffer[regionCount];
+                for (int r = 0; r < regionCount; r++) {
+                    int regionSize = Math.min(neuronsPerRegion, neurons - r * neuronsPerRegion);
+                    long bytes = rowBytes * regionSize;
+                    if (position + bytes > channel.size()) {
+                        throw new EOFException("The file ends before the weights of layer " + l);
+                    }
+                    regions[l][r] = channel.map(FileChannel.MapMode.READ_ONLY, position, bytes)
+                            .order(ByteOrder.LITTLE_ENDIAN)
+                            .asDoubleBuffer();
+                    position += bytes;
+                }
+                regionNeurons[l] = neuronsPerRegion;
+            }
+            return new MappedNet(layerSizes, activations, regions, regionNeurons);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("The file ends before the header of the neural network");
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Makes a prediction for the provided input.
+     * <p>
+     * The sums of the neurons add the weighted inputs in order,
+     * so the predictions are identical to those of the scalar code of the neural network.
+     *
+     * @param inputValues The values of the features. Their size should be equal to the size of the input layer.
+     * @return The prediction. It's size should be equal to the size of the output layer.
+     */
+    public double[] predict(double[] inputValues) {
+        double[] values = inputValues;
+        for (int l = 0; l < regions.length; l++) {
+            double[] outputValues = new double[layerSizes[l + 1]];
+            forward(l, values, outputValues);
+            values = outputValues;
+        }
+        return values;
+    }
+
+    /**
+     * Makes a prediction for the provided input without allocating memory.
+     *
+     * @param inputValues  The values of the features. Their size should be equal to the size of the input layer.
+     * @param outputValues The array that receives the prediction.
+     *                     It's size should be equal to the size of the output layer.
+     * @param workspace    The buffers for the values of the hidden layers.
+     */
+    public void predict(double[] inputValues, double[] outputValues, Workspace workspace) {
+        workspace.check(layerSizes);
+        double[] values = inputValues;
+        int last = regions.length - 1;
+        for (int l = 0; l < last; l++) {
+            forward(l, values, workspace.buffers[l]);
+            values = workspace.buffers[l];
+        }
+        forward(last, values, outputValues);
+    }
+
+    /**
+     * Creates a workspace for predictions that do not allocate memory.
+     *
+     * @return A workspace with a buffer for every hidden layer.
+     */
+    public Workspace workspace() {
+        return new Workspace(layerSizes);
+    }
+
+    private void forward(int layer, double[] input, double[] output) {
+        int inputSize = layerSizes[layer];
+        int stride = inputSize + 1;
+        Fun activation = activations[layer];
+        int neuronsPerRegion = regionNeurons[layer];
+        DoubleBuffer[] layerRegions = regions[layer];
+        for (int n = 0; n < output.length; n++) {
+            DoubleBuffer region = layerRegions[n / neuronsPerRegion];
+            int row = (n % neuronsPerRegion) * stride;
+            double sum = region.get(row);
+            for (int i = 0; i < inputSize; i++) {
+                sum += region.get(row + 1 + i) * input[i];
+            }
+            output[n] = activation.f.applyAsDouble(sum);
+        }
+    }
+
+    /**
+     * The size of each layer.
+     *
+     * @return The size of each layer, starting from the input layer and ending with the output layer.
+     */
+    public int[] layerSizes() {
+        return layerSizes.clone();
+    }
+
+    /**
+     * Copies the mapped weights to the heap.
+     *
+     * @return A neural network with a copy of the mapped weights.
+     * @throws IllegalArgumentException If the weights of a layer are too many for an array on the heap.
+     */
+    public Net net() {
+        double[][] weights = new double[regions.length][];
+        for (int l = 0; l < regions.length; l++) {
+            double[] layerWeights = new double[BinaryFormat.weightCount(layerSizes[l], layerSizes[l + 1])];
+            int offset = 0;
+            for (DoubleBuffer region : regions[l]) {
+                DoubleBuffer view = region.duplicate();
+                view.rewind();
+                int length = view.remaining();
+                view.get(layerWeights, offset, length);
+                offset += length;
+            }
+            weights[l] = layerWeights;
+        }
+        return new Net(new CompiledNet(layerSizes, activations, weights));
+    }
+
+}
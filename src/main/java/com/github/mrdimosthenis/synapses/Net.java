@@ -1,6 +1,15 @@
 package com.github.mrdimosthenis.synapses;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 import synapses.jvm.NetJ;
 
@@ -28,16 +37,95 @@ import synapses.jvm.NetJ;
  * }
  * </pre>
  * <p>
+ * Fit network to a batch of observations:
+ * <pre>
+ * {@code
+ * net.fitBatch(
+ *         0.1,
+ *         new double[][]{{0.4, 0.05, 0.2}, {0.1, 0.9, 0.3}},
+ *         new double[][]{{0.03, 0.8}, {0.7, 0.1}}
+ * );
+ * }
+ * </pre>
+ * <p>
+ * Compile the network for fast predictions:
+ * <pre>
+ * {@code
+ * net.compile().predict(new double[]{0.4, 0.05, 0.2});
+ * }
+ * </pre>
+ * <p>
  * Get the JSON representation of the network:
  * <pre>
  * {@code
  * net.json();
  * }
  * </pre>
+ * <p>
+ * Every fit adjusts a copy of the weights and then replaces the weights of the network with it.
+ * So a network can make predictions while another thread fits it,
+ * and each prediction uses the weights from before or after a whole fit.
+ * Fits that run at the same time are not combined: each one starts from the weights it finds
+ * and the last one to finish replaces the others.
+ * <p>
+ * Large networks can be fitted faster, without copying their weights, in place:
+ * <pre>
+ * {@code
+ * net.inPlace(true);
+ * }
+ * </pre>
+ * In that mode, a network should not make predictions or be fitted while another thread fits it.
  */
 public class Net {
 
-    NetJ contents;
+    /**
+     * The network of synapses, built from the compiled form for the SVG representation and discarded by every fit.
+     * If the neurons of a layer have different activation functions, it holds the weights instead of a compiled form.
+     */
+    private volatile NetJ contents;
+
+    /**
+     * The compiled form, which holds the weights of the neural network. Every prediction and every fit uses it.
+     * It is {@code null} if the neurons of a layer have different activation functions.
+     * Unless the neural network is fitted in place, it is replaced by every fit and never changes.
+     */
+    private volatile CompiledNet compiled;
+
+    /**
+     * Whether the fits adjust the compiled form itself instead of a copy of it.
+     */
+    private boolean inPlace;
+
+    /**
+     * Whether the compiled form has been handed out by {@link #compile()}, so it is copied before it is adjusted.
+     */
+    private boolean shared;
+
+    /**
+     * The reusable buffers of batch fits.
+     */
+    private BatchGradient batchGradient;
+
+    /**
+     * The reusable buffers of single fits, taken by a fit and put back once it is done,
+     * so that fits that run at the same time never share them.
+     */
+    private final AtomicReference<Gradient> gradient = new AtomicReference<>();
+
+    /**
+     * The choice between sequential and parallel calculation for each layer, calibrated on first use.
+     */
+    private LayerDispatch dispatch;
+
+    /**
+     * The listener that records the predictions and the fits, if one has been registered.
+     */
+    private NetMetrics metrics;
+
+    /**
+     * The layer sizes as they appear in flight recorder events, rendered on the first recorded event.
+     */
+    private String shape;
 
     /**
      * Creates a neural network.
@@ -49,11 +137,11 @@ public class Net {
     public Net(int[] layerSizes,
                IntFunction<Fun> activationF,
                IntFunction<Double> weightInitF) {
-        contents = NetJ.apply(
+        this(NetJ.apply(
                 layerSizes,
                 (i) -> activationF.apply(i).contents,
                 weightInitF::apply
-        );
+        ));
     }
 
     /**
@@ -68,7 +156,7 @@ public class Net {
      *                   In order for a neural network to be deep, the list should contain more than two numbers.
      */
     public Net(int[] layerSizes) {
-        contents = NetJ.apply(layerSizes);
+        this(NetJ.apply(layerSizes));
     }
 
     /**
@@ -82,26 +170,95 @@ public class Net {
      * @param seed       A number used to initialize the internal pseudorandom number generator.
      */
     public Net(int[] layerSizes, Long seed) {
-        contents = NetJ.apply(layerSizes, seed);
+        this(NetJ.apply(layerSizes, seed));
     }
 
     /**
      * Cretaes a neural network by parsing its JSON representation.
+     * <p>
+     * If the neurons of a layer have different activation functions, the neural network cannot be compiled.
+     * It is kept as a network of synapses, which makes predictions with {@link #predict(double[])}
+     * and {@link #parPredict}, is fitted with {@link #fit(double, double[], double[])} and {@link #fitPar}
+     * and has a JSON and an SVG representation.
+     * Every other method of such a neural network throws an {@link IllegalArgumentException}.
      *
      * @param json The JSON representation of a neural network.
      */
     public Net(String json) {
-        contents = NetJ.apply(json);
+        try {
+            compiled = CompiledNet.parse(json);
+        } catch (CompiledNet.MixedActivationsException e) {
+            contents = NetJ.apply(json);
+            shape = Arrays.toString(e.layerSizes);
+        }
+    }
+
+    /**
+     * Creates a neural network by parsing its JSON representation incrementally.
+     * <p>
+     * The JSON representation is never held in memory as a whole. The reader is not closed.
+     * Unlike {@link #Net(String)}, it only creates neural networks that can be compiled.
+     *
+     * @param json A reader of the JSON representation of a neural network.
+     * @throws IOException              If the reader fails.
+     * @throws IllegalArgumentException If the neurons of a layer have different activation functions.
+     */
+    public Net(Reader json) throws IOException {
+        compiled = CompiledNet.parse(json);
+    }
+
+    Net(CompiledNet _compiled) {
+        compiled = _compiled;
+    }
+
+    /**
+     * Compiles a network of synapses once, keeping it for the SVG representation.
+     */
+    private Net(NetJ _contents) {
+        contents = _contents;
+        compiled = CompiledNet.parse(_contents.json());
     }
 
     /**
      * Makes a prediction for the provided input.
+     * <p>
+     * The prediction is made by the compiled form of the neural network, with plain loops over its weights.
+     * When the {@code jdk.incubator.vector} module is available, the loops are performed by vector instructions.
      *
      * @param inputValues The values of the features. Their size should be equal to the size of the input layer.
      * @return The prediction. It's size should be equal to the size of the output layer.
      */
     public double[] predict(double[] inputValues) {
-        return contents.predict(inputValues);
+        long start = NetMetrics.start(metrics);
+        Events.Predict event = new Events.Predict();
+        event.begin();
+        double[] outputValues = compiled == null
+                ? contents.predict(inputValues)
+                : compiled.predict(inputValues);
+        predicted(start, event, 1, Events.SEQUENTIAL);
+        return outputValues;
+    }
+
+    /**
+     * Makes a prediction for a sparse input, which is given by the indices and the values of its non-zero features.
+     * <p>
+     * The prediction is made by the compiled form of the neural network,
+     * whose first layer only reads the weights of the non-zero features.
+     * When most features are zero, as in one-hot encoded categories, it is several times faster than a dense prediction.
+     *
+     * @param inputIndices The indices of the non-zero features, in increasing order.
+     * @param inputValues  The values of the non-zero features. Their size should be equal to that of the indices.
+     * @return The prediction. It's size should be equal to the size of the output layer.
+     * @throws IllegalArgumentException If the indices are not increasing, are out of the input layer
+     *                                  or do not match the values.
+     */
+    public double[] predict(int[] inputIndices, double[] inputValues) {
+        long start = NetMetrics.start(metrics);
+        Events.Predict event = new Events.Predict();
+        event.begin();
+        double[] outputValues = compiled().predict(inputIndices, inputValues);
+        predicted(start, event, 1, Events.SEQUENTIAL);
+        return outputValues;
     }
 
     /**
@@ -109,22 +266,161 @@ public class Net {
      * <p>
      * The calculation is performed in parallel.
      * When the neural network has huge layers, the parallel calculation boosts the performance.
+     * The neurons of each layer are split between the workers of the common pool
+     * and the prediction is identical to that of {@link #predict(double[])}.
      *
      * @param inputValues The values of the features. Their size should be equal to the size of the input layer.
      * @return The prediction. It's size should be equal to the size of the output layer.
      */
     public double[] parPredict(double[] inputValues) {
-        return contents.parPredict(inputValues);
+        long start = NetMetrics.start(metrics);
+        Events.Predict event = new Events.Predict();
+        event.begin();
+        double[] outputValues = compiled == null
+                ? contents.parPredict(inputValues)
+                : parallelDispatch().predict(compiled, inputValues);
+        predicted(start, event, 1, Events.PARALLEL);
+        return outputValues;
+    }
+
+    /**
+     * Makes a prediction for the provided input, calculating each layer sequentially or in parallel.
+     * <p>
+     * The first call times the sequential and the parallel calculation of every layer with a short micro-benchmark.
+     * From then on, each layer is calculated in the faster way, so that wide layers are split between the processors
+     * while narrow layers avoid the cost of coordinating them.
+     * The prediction is identical to that of the compiled form of the neural network.
+     *
+     * @param inputValues The values of the features. Their size should be equal to the size of the input layer.
+     * @return The prediction. It's size should be equal to the size of the output layer.
+     */
+    public double[] autoPredict(double[] inputValues) {
+        long start = NetMetrics.start(metrics);
+        Events.Predict event = new Events.Predict();
+        event.begin();
+        double[] outputValues = dispatch().predict(compiled(), inputValues);
+        predicted(start, event, 1, Events.AUTO);
+        return outputValues;
+    }
+
+    /**
+     * Makes a prediction for the provided input without allocating memory.
+     * <p>
+     * The prediction is made by the compiled form of the neural network.
+     * It is recorded by a {@link NetMetrics} listener but not as a flight recorder event,
+     * whose object the JIT compiler cannot always remove.
+     *
+     * @param inputValues  The values of the features. Their size should be equal to the size of the input layer.
+     * @param outputValues The array that receives the prediction.
+     *                     It's size should be equal to the size of the output layer.
+     * @param workspace    The buffers for the values of the hidden layers.
+     *                     It can be created once with {@link #workspace()} and reused for every prediction.
+     */
+    public void predict(double[] inputValues, double[] outputValues, Workspace workspace) {
+        long start = NetMetrics.start(metrics);
+        compiled().predict(inputValues, outputValues, workspace);
+        NetMetrics.stop(metrics, NetMetrics.Operation.PREDICT, start, 1);
+    }
+
+    /**
+     * Makes a prediction for each input of a batch.
+     * <p>
+     * Each layer is calculated as a product of matrices by the compiled form of the neural network.
+     * The predictions are identical to those of {@link #predict(double[])}.
+     *
+     * @param inputs The inputs. The size of each one should be equal to the size of the input layer.
+     * @return The prediction for each input.
+     */
+    public double[][] predictBatch(double[][] inputs) {
+        long start = NetMetrics.start(metrics);
+        Events.Predict event = new Events.Predict();
+        event.begin();
+        double[][] predictions = compiled().predictBatch(inputs);
+        predicted(start, event, inputs.length, Events.SEQUENTIAL);
+        return predictions;
+    }
+
+    /**
+     * Makes a prediction for each input of a batch that is packed in a single array.
+     *
+     * @param inputs The values of the inputs, one row after the other.
+     *               Each row has as many values as the size of the input layer.
+     * @param rows   The number of inputs.
+     * @return The values of the predictions, one row after the other.
+     * Each row has as many values as the size of the output layer.
+     * @throws IllegalArgumentException If the number of values is not the number of inputs times the input size.
+     */
+    public double[] predictBatch(double[] inputs, int rows) {
+        long start = NetMetrics.start(metrics);
+        Events.Predict event = new Events.Predict();
+        event.begin();
+        double[] predictions = compiled().predictBatch(inputs, rows);
+        predicted(start, event, rows, Events.SEQUENTIAL);
+        return predictions;
+    }
+
+    /**
+     * Makes a prediction for each input of a batch.
+     * <p>
+     * The inputs are split in groups that are calculated in parallel.
+     *
+     * @param inputs The inputs. The size of each one should be equal to the size of the input layer.
+     * @return The prediction for each input.
+     */
+    public double[][] parPredictBatch(double[][] inputs) {
+        long start = NetMetrics.start(metrics);
+        Events.Predict event = new Events.Predict();
+        event.begin();
+        double[][] predictions = compiled().parPredictBatch(inputs);
+        predicted(start, event, inputs.length, Events.PARALLEL);
+        return predictions;
+    }
+
+    /**
+     * Makes a prediction for each input of a batch that is packed in a single array.
+     * <p>
+     * The inputs are split in groups that are calculated in parallel.
+     *
+     * @param inputs The values of the inputs, one row after the other.
+     * @param rows   The number of inputs.
+     * @return The values of the predictions, one row after the other.
+     * @throws IllegalArgumentException If the number of values is not the number of inputs times the input size.
+     */
+    public double[] parPredictBatch(double[] inputs, int rows) {
+        long start = NetMetrics.start(metrics);
+        Events.Predict event = new Events.Predict();
+        event.begin();
+        double[] predictions = compiled().parPredictBatch(inputs, rows);
+        predicted(start, event, rows, Events.PARALLEL);
+        return predictions;
+    }
+
+    /**
+     * Creates a workspace for predictions that do not allocate memory.
+     *
+     * @return A workspace with a buffer for every hidden layer.
+     */
+    public Workspace workspace() {
+        return compiled().workspace();
     }
 
     public double[] errors(double[] inputValues, double[] expectedOutput, boolean inParallel) {
-        return contents.errors(inputValues, expectedOutput, inParallel);
+        CompiledNet net = compiled;
+        if (net == null) {
+            return contents.errors(inputValues, expectedOutput, inParallel);
+        }
+        Gradient gradient = gradient(net);
+        double[] inputErrors = gradient.errors(net, inputValues, expectedOutput, inParallel ? parallelDispatch() : null);
+        this.gradient.set(gradient);
+        return inputErrors;
     }
 
     /**
      * Adjust the weights of the neural network to the provided observation.
      * <p>
      * In order for it to be trained, it should fit with multiple observations.
+     * The weights are adjusted by the compiled form of the neural network.
+     * When the {@code jdk.incubator.vector} module is available, the adjustments are performed by vector instructions.
      *
      * @param learningRate   A number that controls how much the weights are adjusted to the observation.
      * @param inputValues    The feature values of the observation.
@@ -132,7 +428,134 @@ public class Net {
      *                       It's size should be equal to the size of the output layer.
      */
     public void fit(double learningRate, double[] inputValues, double[] expectedOutput) {
-        contents = contents.fit(learningRate, inputValues, expectedOutput);
+        long start = NetMetrics.start(metrics);
+        Events.Fit event = new Events.Fit();
+        event.begin();
+        if (compiled == null) {
+            contents = contents.fit(learningRate, inputValues, expectedOutput);
+        } else {
+            descend(learningRate, inputValues, expectedOutput, null);
+        }
+        fitted(start, event, 1, Events.SEQUENTIAL, learningRate);
+    }
+
+    /**
+     * Adjust the weights of the neural network to a sparse observation,
+     * whose feature values are given by the indices and the values of the non-zero ones.
+     * <p>
+     * The first layer only reads and adjusts the weights of the non-zero features.
+     * Without vector instructions, the adjustments are identical to those of the dense observation with the same values.
+     * When the neural network is fitted {@link #inPlace in place},
+     * the weights of the zero features are neither read nor written.
+     *
+     * @param learningRate   A number that controls how much the weights are adjusted to the observation.
+     * @param inputIndices   The indices of the non-zero feature values, in increasing order.
+     * @param inputValues    The non-zero feature values. Their size should be equal to that of the indices.
+     * @param expectedOutput The expected output of the observation.
+     *                       It's size should be equal to the size of the output layer.
+     * @throws IllegalArgumentException If the indices are not increasing, are out of the input layer
+     *                                  or do not match the values.
+     */
+    public void fit(double learningRate, int[] inputIndices, double[] inputValues, double[] expectedOutput) {
+        long start = NetMetrics.start(metrics);
+        Events.Fit event = new Events.Fit();
+        event.begin();
+        CompiledNet net = compiled();
+        net.checkSparse(inputIndices, inputValues);
+        CompiledNet adjusted = adjustable(net);
+        Gradient gradient = gradient(net);
+        gradient.descend(adjusted, learningRate, inputIndices, inputValues, expectedOutput);
+        this.gradient.set(gradient);
+        update(adjusted);
+        fitted(start, event, 1, Events.SEQUENTIAL, learningRate);
+    }
+
+    /**
+     * Adjust the weights of the neural network to the provided observation,
+     * calculating each layer sequentially or in parallel.
+     * <p>
+     * The layers are calculated in the way {@link #autoPredict} has chosen for them.
+     * The adjustments are identical to those of {@link #fit}.
+     *
+     * @param learningRate   A number that controls how much the weights are adjusted to the observation.
+     * @param inputValues    The feature values of the observation.
+     * @param expectedOutput The expected output of the observation.
+     *                       It's size should be equal to the size of the output layer.
+     */
+    public void autoFit(double learningRate, double[] inputValues, double[] expectedOutput) {
+        long start = NetMetrics.start(metrics);
+        Events.Fit event = new Events.Fit();
+        event.begin();
+        descend(learningRate, inputValues, expectedOutput, dispatch());
+        fitted(start, event, 1, Events.AUTO, learningRate);
+    }
+
+    /**
+     * Adjusts the compiled form to the provided observation.
+     */
+    private void descend(double learningRate,
+                         double[] inputValues,
+                         double[] expectedOutput,
+                         LayerDispatch layerDispatch) {
+        CompiledNet net = compiled();
+        CompiledNet adjusted = adjustable(net);
+        Gradient gradient = gradient(net);
+        gradient.descend(adjusted, learningRate, inputValues, expectedOutput, layerDispatch);
+        this.gradient.set(gradient);
+        update(adjusted);
+    }
+
+    /**
+     * The compiled form that a fit adjusts, which becomes the compiled form of the neural network once it is adjusted.
+     * <p>
+     * Unless the neural network is fitted in place, it is a copy of the current compiled form,
+     * so that predictions keep using the current one until the fit is done.
+     * A compiled form that has been handed out by {@link #compile()} is always copied,
+     * so that it is not affected by the fits.
+     */
+    private CompiledNet adjustable(CompiledNet net) {
+        if (inPlace && !shared) {
+            return net;
+        }
+        shared = false;
+        return net.copy();
+    }
+
+    /**
+     * Replaces the compiled form of the neural network with an adjusted one.
+     */
+    private void update(CompiledNet net) {
+        compiled = net;
+        contents = null;
+    }
+
+    /**
+     * Chooses whether the neural network is fitted in place.
+     * <p>
+     * By default, every fit adjusts a copy of the weights, so that the neural network can make predictions
+     * while another thread fits it.
+     * In place, the fits adjust the weights themselves and allocate no memory,
+     * which pays off for large neural networks and sparse observations.
+     * Then, the neural network should not make predictions or be fitted while another thread fits it.
+     * The compiled forms that have been handed out by {@link #compile()} are never affected by the fits.
+     *
+     * @param enabled Whether the fits adjust the weights in place.
+     * @return The neural network itself.
+     */
+    public Net inPlace(boolean enabled) {
+        inPlace = enabled;
+        return this;
+    }
+
+    /**
+     * Whether each layer is calculated in parallel by {@link #autoPredict} and {@link #autoFit}.
+     * <p>
+     * The choice is calibrated on the first call, unless it has already been calibrated.
+     *
+     * @return A flag for each layer but the input layer, which is {@code true} if the layer is calculated in parallel.
+     */
+    public boolean[] parallelLayers() {
+        return dispatch().parallel.clone();
     }
 
     /**
@@ -140,6 +563,8 @@ public class Net {
      * <p>
      * The calculation is performed in parallel.
      * When the neural network has huge layers, the parallel calculation boosts the performance.
+     * The neurons of each layer are split between the workers of the common pool
+     * and the adjustments are identical to those of {@link #fit}.
      *
      * @param learningRate   A number that controls how much the weights are adjusted to the observation.
      * @param inputValues    The feature values of the observation.
@@ -147,7 +572,315 @@ public class Net {
      *                       It's size should be equal to the size of the output layer.
      */
     public void fitPar(double learningRate, double[] inputValues, double[] expectedOutput) {
-        contents = contents.fitPar(learningRate, inputValues, expectedOutput);
+        long start = NetMetrics.start(metrics);
+        Events.Fit event = new Events.Fit();
+        event.begin();
+        if (compiled == null) {
+            contents = contents.fitPar(learningRate, inputValues, expectedOutput);
+        } else {
+            descend(learningRate, inputValues, expectedOutput, parallelDispatch());
+        }
+        fitted(start, event, 1, Events.PARALLEL, learningRate);
+    }
+
+    /**
+     * Adjust the weights of the neural network to a batch of observations.
+     * <p>
+     * The adjustments of all observations are accumulated in reusable buffers
+     * and the weights are updated once, by the average adjustment.
+     * For a batch of a single observation, the result is identical to that of {@link #fit}.
+     *
+     * @param learningRate    A number that controls how much the weights are adjusted to the observations.
+     * @param inputValues     The feature values of each observation.
+     * @param expectedOutputs The expected output of each observation.
+     *                        The size of each one should be equal to the size of the output layer.
+     */
+    public void fitBatch(double learningRate, double[][] inputValues, double[][] expectedOutputs) {
+        if (inputValues.length == 0) {
+            return;
+        }
+        long start = NetMetrics.start(metrics);
+        Events.Fit event = new Events.Fit();
+        event.begin();
+        CompiledNet net = compiled();
+        BatchGradient batchGradient = batchGradient();
+        Gradient gradient = batchGradient.of(net, learningRate, inputValues, expectedOutputs);
+        CompiledNet adjusted = adjustable(net);
+        adjusted.subtract(gradient);
+        batchGradient.release(gradient);
+        update(adjusted);
+        fitted(start, event, inputValues.length, Events.SEQUENTIAL, learningRate);
+    }
+
+    /**
+     * Adjust the weights of the neural network to a batch of observations.
+     * <p>
+     * The observations are split in groups whose adjustments are calculated in parallel.
+     * When the batches are large, the parallel calculation boosts the performance.
+     * The result is identical to that of {@link #fitBatch}, whatever the number of processors.
+     *
+     * @param learningRate    A number that controls how much the weights are adjusted to the observations.
+     * @param inputValues     The feature values of each observation.
+     * @param expectedOutputs The expected output of each observation.
+     *                        The size of each one should be equal to the size of the output layer.
+     */
+    public void fitBatchPar(double learningRate, double[][] inputValues, double[][] expectedOutputs) {
+        fitBatchPar(learningRate, inputValues, expectedOutputs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Adjust the weights of the neural network to a batch of observations, with the workers of a pool.
+     * <p>
+     * Each worker accumulates the adjustments of its groups in its own buffers
+     * and the buffers are added in a fixed order.
+     * So the result is identical to that of {@link #fitBatch}, whatever the number of workers.
+     *
+     * @param learningRate    A number that controls how much the weights are adjusted to the observations.
+     * @param inputValues     The feature values of each observation.
+     * @param expectedOutputs The expected output of each observation.
+     *                        The size of each one should be equal to the size of the output layer.
+     * @param pool            The pool whose workers calculate the adjustments.
+     */
+    public void fitBatchPar(double learningRate,
+                            double[][] inputValues,
+                            double[][] expectedOutputs,
+                            ForkJoinPool pool) {
+        if (inputValues.length == 0) {
+            return;
+        }
+        long start = NetMetrics.start(metrics);
+        Events.Fit event = new Events.Fit();
+        event.begin();
+        CompiledNet net = compiled();
+        BatchGradient batchGradient = batchGradient();
+        Gradient gradient = batchGradient.parOf(net, learningRate, inputValues, expectedOutputs, pool);
+        CompiledNet adjusted = adjustable(net);
+        adjusted.subtract(gradient);
+        batchGradient.release(gradient);
+        update(adjusted);
+        fitted(start, event, inputValues.length, Events.PARALLEL, learningRate);
+    }
+
+    /**
+     * Adjust the weights of the neural network to a stream of observations, with several threads.
+     * <p>
+     * The threads fit the shared weights without locking them, in the style of Hogwild.
+     * When the network is small and the data is big, this keeps all processors busy.
+     * The result depends on the timing of the threads, so it differs from run to run.
+     *
+     * @param learningRate A number that controls how much the weights are adjusted to the observations.
+     * @param observations A stream of array-pairs that contain the feature values and the expected output.
+     * @param threads      The number of threads that fit the weights.
+     * @return The number of observations and the time it took to fit to them.
+     */
+    public Throughput fitHogwild(double learningRate, Stream<double[][]> observations, int threads) {
+        long start = NetMetrics.start(metrics);
+        Events.Fit event = new Events.Fit();
+        event.begin();
+        Trainer trainer = trainer();
+        Throughput throughput = trainer.fitHogwild(learningRate, observations, threads);
+        shared = false;
+        update(trainer.model);
+        fitted(start, event, throughput.observations, Events.HOGWILD, learningRate);
+        return throughput;
+    }
+
+    /**
+     * Records a prediction in the registered listener and, if a recording wants it, as a flight recorder event.
+     */
+    private void predicted(long start, Events.Predict event, long samples, String mode) {
+        NetMetrics.stop(metrics, NetMetrics.Operation.PREDICT, start, samples);
+        if (event.shouldCommit()) {
+            event.layerSizes = shape();
+            event.samples = samples;
+            event.mode = mode;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a fit in the registered listener and, if a recording wants it, as a flight recorder event.
+     */
+    private void fitted(long start, Events.Fit event, long batchSize, String mode, double learningRate) {
+        NetMetrics.stop(metrics, NetMetrics.Operation.FIT, start, batchSize);
+        if (event.shouldCommit()) {
+            event.layerSizes = shape();
+            event.batchSize = batchSize;
+            event.mode = mode;
+            event.learningRate = learningRate;
+            event.commit();
+        }
+    }
+
+    /**
+     * The layer sizes as they appear in flight recorder events. They are never changed by a fit.
+     */
+    private String shape() {
+        if (shape == null) {
+            shape = Arrays.toString(compiled.layerSizes);
+        }
+        return shape;
+    }
+
+    /**
+     * Registers a listener that records the predictions and the fits of the neural network.
+     * <p>
+     * Every kind of prediction is recorded as {@link NetMetrics.Operation#PREDICT}
+     * and every kind of fit as {@link NetMetrics.Operation#FIT}, with a sample for each observation of a batch.
+     * The trainers, compiled forms and converted forms of the neural network are not recorded.
+     *
+     * @param listener The listener, or {@code null} to stop recording.
+     * @return The neural network itself.
+     */
+    public Net metrics(NetMetrics listener) {
+        metrics = listener;
+        return this;
+    }
+
+    /**
+     * Creates a trainer that adjusts a copy of the weights of the neural network in place.
+     * <p>
+     * A trainer keeps its weights apart from those of the neural network,
+     * so it can be fitted, even by several threads, while the neural network keeps making predictions.
+     * The neural network itself is not affected by the trainer.
+     *
+     * @return A trainer that starts from the current weights of the neural network.
+     */
+    public Trainer trainer() {
+        return new Trainer(compiled());
+    }
+
+    /**
+     * Creates a trainer that adjusts a copy of the weights of the neural network in place, with an optimizer.
+     * <p>
+     * The state of the optimizer, such as the velocity or the moments of each weight,
+     * is kept by the trainer in arrays next to the weights and it is carried from fit to fit.
+     *
+     * @param optimizer The rule by which the weights are adjusted, for example {@link Optimizer#adam()}.
+     * @return A trainer that starts from the current weights of the neural network and a fresh optimizer state.
+     */
+    public Trainer trainer(Optimizer optimizer) {
+        return new Trainer(compiled(), optimizer);
+    }
+
+    /**
+     * Converts the neural network to a float network with single-precision weights.
+     * <p>
+     * A float network needs half the memory and makes predictions faster on wide layers,
+     * at the cost of precision.
+     * The neural network itself is not affected by the float network.
+     *
+     * @return A float network with the current weights, narrowed to single precision.
+     */
+    public FloatNet toFloat() {
+        return new FloatNet(compiled());
+    }
+
+    /**
+     * Quantizes the neural network to 8-bit integers for fast predictions with little memory.
+     * <p>
+     * The neural network itself is not affected by the quantized neural network.
+     *
+     * @param calibrationInputs Inputs that are representative of those the neural network will predict.
+     *                          The values that enter each layer are quantized according to their range for these inputs.
+     * @return The quantized neural network.
+     * @throws IllegalArgumentException If there are no calibration inputs.
+     */
+    public QuantizedNet quantize(double[][] calibrationInputs) {
+        return QuantizedNet.of(compiled(), calibrationInputs);
+    }
+
+    /**
+     * Writes the binary representation of the neural network.
+     * <p>
+     * The binary representation keeps the exact weights, like the JSON representation,
+     * but it is several times smaller and faster to write and read.
+     * The stream is flushed but not closed.
+     *
+     * @param out The stream that receives the binary representation.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        BinaryFormat.write(compiled(), out);
+    }
+
+    /**
+     * Creates a neural network by reading its binary representation.
+     * <p>
+     * The stream is not closed.
+     *
+     * @param in The stream that contains the binary representation, as written by {@link #writeTo}.
+     * @return The neural network.
+     * @throws IOException              If the stream cannot be read or it ends before the neural network.
+     * @throws IllegalArgumentException If the stream does not contain a neural network of a supported version.
+     */
+    public static Net readFrom(InputStream in) throws IOException {
+        return new Net(BinaryFormat.read(in));
+    }
+
+    private LayerDispatch dispatch() {
+        if (dispatch == null) {
+            dispatch = LayerDispatch.calibrate(compiled(), ForkJoinPool.commonPool());
+        }
+        return dispatch;
+    }
+
+    /**
+     * The parallel calculation of every layer, with the workers of the common pool.
+     */
+    private LayerDispatch parallelDispatch() {
+        return LayerDispatch.parallel(compiled().weights.length, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Takes the reusable buffers of single fits, which should be put back once the fit is done.
+     * If another fit has taken them, new buffers are created.
+     */
+    private Gradient gradient(CompiledNet net) {
+        Gradient taken = gradient.getAndSet(null);
+        return taken == null ? new Gradient(net.layerSizes) : taken;
+    }
+
+    private BatchGradient batchGradient() {
+        if (batchGradient == null) {
+            batchGradient = new BatchGradient(compiled().layerSizes);
+        }
+        return batchGradient;
+    }
+
+    private NetJ contents() {
+        if (contents == null) {
+            contents = NetJ.apply(compiled.json());
+        }
+        return contents;
+    }
+
+    /**
+     * The compiled form, for the methods that a network of synapses does not have.
+     *
+     * @throws IllegalArgumentException If the neurons of a layer have different activation functions.
+     */
+    private CompiledNet compiled() {
+        if (compiled == null) {
+            return CompiledNet.parse(contents.json());
+        }
+        return compiled;
+    }
+
+    /**
+     * The compiled form of the neural network.
+     * <p>
+     * It keeps the weights of each layer in a contiguous array and makes the same predictions several times faster.
+     * The compiled form is not affected when the neural network is fitted again,
+     * since the neural network continues with a copy of the weights.
+     *
+     * @return The compiled neural network.
+     * @throws IllegalArgumentException If the neurons of a layer have different activation functions.
+     */
+    public CompiledNet compile() {
+        CompiledNet compiledNet = compiled();
+        shared = true;
+        return compiledNet;
     }
 
     /**
@@ -156,7 +889,24 @@ public class Net {
      * @return The JSON representation of the neural network.
      */
     public String json() {
-        return contents.json();
+        return compiled == null ? contents.json() : compiled.json();
+    }
+
+    /**
+     * Writes the JSON representation of the neural network incrementally.
+     * <p>
+     * The output is identical to that of {@link #json()}. The writer is flushed but not closed.
+     *
+     * @param out The writer that receives the JSON representation.
+     * @throws IOException If the writer fails.
+     */
+    public void writeJson(Writer out) throws IOException {
+        if (compiled == null) {
+            out.write(contents.json());
+            out.flush();
+            return;
+        }
+        compiled.writeJson(out);
     }
 
     /**
@@ -167,7 +917,7 @@ public class Net {
      * while the transparency of the synapses depends on their weight.
      */
     public String svg() {
-        return contents.svg();
+        return contents().svg();
     }
 
 }
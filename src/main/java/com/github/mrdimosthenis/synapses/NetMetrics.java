@@ -0,0 +1,271 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The call counts, latencies, throughput and allocations of neural networks and codecs.
+ * <p>
+ * A listener is registered on one or more networks and codecs, which record every call in it:
+ * <pre>
+ * {@code
+ * NetMetrics metrics = new NetMetrics();
+ * net.metrics(metrics);
+ * codec.metrics(metrics);
+ * net.predict(codec.encode(datapoint));
+ * metrics.percentileNanoseconds(NetMetrics.Operation.PREDICT, 0.99);
+ * }
+ * </pre>
+ * <p>
+ * The calls are recorded without locking, so a listener can be shared by many threads.
+ * A network or codec without a listener only checks for one, so the instrumentation can stay in production code.
+ */
+public final class NetMetrics {
+
+    /**
+     * The kinds of calls that are recorded.
+     */
+    public enum Operation {
+        /**
+         * The predictions of a neural network, single or batched.
+         */
+        PREDICT,
+        /**
+         * The fits of a neural network, single or batched.
+         */
+        FIT,
+        /**
+         * The encodings of a codec.
+         */
+        ENCODE,
+        /**
+         * The decodings of a codec.
+         */
+        DECODE
+    }
+
+    static final class Counters {
+
+        final LongAdder calls = new LongAdder();
+
+        final LongAdder samples = new LongAdder();
+
+        final LongAdder nanoseconds = new LongAdder();
+
+        final LongAdder bytes = new LongAdder();
+
+        final LatencyHistogram latencies = new LatencyHistogram();
+
+        void reset() {
+            calls.reset();
+            samples.reset();
+            nanoseconds.reset();
+            bytes.reset();
+            latencies.reset();
+        }
+
+    }
+
+    private final Counters[] counters = new Counters[Operation.values().length];
+
+    private final com.sun.management.ThreadMXBean threads;
+
+    /**
+     * The bytes the current thread had allocated when its current call started.
+     */
+    private final ThreadLocal<long[]> allocationStart;
+
+    /**
+     * Creates a listener that records the calls, their latencies and their samples.
+     */
+    public NetMetrics() {
+        this(false);
+    }
+
+    /**
+     * Creates a listener that records the calls, their latencies, their samples and optionally their allocations.
+     * <p>
+     * The allocations are those of the calling thread, as reported by the JVM.
+     * Reading them costs a fraction of a microsecond per call, so it is off by default.
+     * If the JVM cannot report them, they are not recorded.
+     *
+     * @param allocations Whether the bytes allocated by each call are recorded.
+     */
+    public NetMetrics(boolean allocations) {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new Counters();
+        }
+        threads = allocations ? allocationBean() : null;
+        allocationStart = threads == null ? null : ThreadLocal.withInitial(() -> new long[1]);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                    return threads;
+                }
+            }
+        } catch (LinkageError | SecurityException e) {
+            // the allocations are not recorded
+        }
+        return null;
+    }
+
+    /**
+     * Marks the start of a call.
+     *
+     * @return The start time to pass to {@link #stop}, or 0 if there is no listener.
+     */
+    static long start(NetMetrics metrics) {
+        if (metrics == null) {
+            return 0L;
+        }
+        if (metrics.threads != null) {
+            metrics.allocationStart.get()[0] = metrics.threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a call that has processed the provided number of samples.
+     */
+    static void stop(NetMetrics metrics, Operation operation, long start, long samples) {
+        if (metrics == null || start == 0L) {
+            // no listener, or one that was registered during the call
+            return;
+        }
+        long nanoseconds = System.nanoTime() - start;
+        Counters c = metrics.counters[operation.ordinal()];
+        c.calls.increment();
+        c.samples.add(samples);
+        c.nanoseconds.add(nanoseconds);
+        c.latencies.record(nanoseconds);
+        if (metrics.threads != null) {
+            long allocated = metrics.threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            c.bytes.add(allocated - metrics.allocationStart.get()[0]);
+        }
+    }
+
+    /**
+     * Whether the bytes allocated by each call are recorded.
+     *
+     * @return {@code true} if they were requested and the JVM can report them.
+     */
+    public boolean tracksAllocations() {
+        return threads != null;
+    }
+
+    /**
+     * The number of recorded calls.
+     *
+     * @param operation The kind of calls.
+     * @return The number of calls.
+     */
+    public long calls(Operation operation) {
+        return counters[operation.ordinal()].calls.sum();
+    }
+
+    /**
+     * The number of samples the recorded calls have processed. A batch of observations counts as many samples.
+     *
+     * @param operation The kind of calls.
+     * @return The number of samples.
+     */
+    public long samples(Operation operation) {
+        return counters[operation.ordinal()].samples.sum();
+    }
+
+    /**
+     * The total duration of the recorded calls.
+     *
+     * @param operation The kind of calls.
+     * @return The duration in nanoseconds.
+     */
+    public long nanoseconds(Operation operation) {
+        return counters[operation.ordinal()].nanoseconds.sum();
+    }
+
+    /**
+     * The average duration of the recorded calls.
+     *
+     * @param operation The kind of calls.
+     * @return The duration in nanoseconds, or 0.0 if no call has been recorded.
+     */
+    public double meanNanoseconds(Operation operation) {
+        long calls = calls(operation);
+        return calls == 0 ? 0.0 : (double) nanoseconds(operation) / calls;
+    }
+
+    /**
+     * The duration that the provided fraction of the recorded calls does not exceed.
+     * <p>
+     * It is accurate to within 1/16 of its value.
+     *
+     * @param operation The kind of calls.
+     * @param fraction  A number between 0.0 and 1.0, such as 0.5 for the median or 0.99 for the 99th percentile.
+     * @return The duration in nanoseconds, or 0 if no call has been recorded.
+     */
+    public long percentileNanoseconds(Operation operation, double fraction) {
+        return counters[operation.ordinal()].latencies.percentile(fraction);
+    }
+
+    /**
+     * The samples that are processed per second of the recorded calls.
+     * <p>
+     * For {@link Operation#FIT}, it is the number of observations a network is trained on per second.
+     *
+     * @param operation The kind of calls.
+     * @return The rate of the calls, or 0.0 if no call has been recorded.
+     */
+    public double samplesPerSecond(Operation operation) {
+        long nanoseconds = nanoseconds(operation);
+        return nanoseconds == 0 ? 0.0 : samples(operation) * 1e9 / nanoseconds;
+    }
+
+    /**
+     * The average number of bytes the recorded calls have allocated.
+     *
+     * @param operation The kind of calls.
+     * @return The bytes per call, or {@code NaN} if the allocations are not recorded or no call has been recorded.
+     */
+    public double bytesPerCall(Operation operation) {
+        long calls = calls(operation);
+        return threads == null || calls == 0 ? Double.NaN : (double) counters[operation.ordinal()].bytes.sum() / calls;
+    }
+
+    /**
+     * Forgets all recorded calls.
+     */
+    public void reset() {
+        for (Counters c : counters) {
+            c.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Operation operation : Operation.values()) {
+            long calls = calls(operation);
+            if (calls == 0) {
+                continue;
+            }
+            sb.append(operation)
+                    .append(": ").append(calls).append(" calls")
+                    .append(", mean ").append(meanNanoseconds(operation) / 1e3).append(" us")
+                    .append(", p50 ").append(percentileNanoseconds(operation, 0.5) / 1e3).append(" us")
+                    .append(", p99 ").append(percentileNanoseconds(operation, 0.99) / 1e3).append(" us")
+                    .append(", ").append(samplesPerSecond(operation)).append(" samples/s");
+            if (threads != null) {
+                sb.append(", ").append(bytesPerCall(operation)).append(" bytes/call");
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+}
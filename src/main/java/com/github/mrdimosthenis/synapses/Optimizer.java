@@ -0,0 +1,258 @@
+package com.github.mrdimosthenis.synapses;
+
+/**
+ * The rule by which a trainer turns the gradient of the error into adjustments of the weights.
+ * <p>
+ * An optimizer only describes the rule. Each trainer keeps its own state for it,
+ * in arrays with the same layout as the weights, so an optimizer can be shared by many trainers.
+ * The learning rate is still provided to every fit, so that it can change during the training.
+ * <pre>
+ * {@code
+ * Trainer trainer = net.trainer(Optimizer.adam());
+ * trainer.fit(0.001, new double[]{0.4, 0.05, 0.2}, new double[]{0.03, 0.8});
+ * }
+ * </pre>
+ */
+public abstract class Optimizer {
+
+    Optimizer() {
+    }
+
+    /**
+     * Plain stochastic gradient descent.
+     * <p>
+     * Each weight is adjusted by the learning rate times its gradient.
+     * It is the rule of {@link Net#fit}, whose adjustments it reproduces exactly.
+     */
+    public static final Optimizer SGD = new Optimizer() {
+
+        @Override
+        State state(int[] layerSizes) {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "SGD";
+        }
+
+    };
+
+    /**
+     * Gradient descent with momentum.
+     * <p>
+     * Each weight has a velocity that accumulates its gradients, decayed by the momentum,
+     * and the weight is adjusted by the learning rate times its velocity.
+     *
+     * <pre>
+     * {@code
+     * v = momentum * v + g
+     * w = w - learningRate * v
+     * }
+     * </pre>
+     *
+     * @param momentum The fraction of the velocity that is kept at each step, usually 0.9.
+     * @return The optimizer.
+     */
+    public static Optimizer momentum(double momentum) {
+        return new Momentum(momentum, false);
+    }
+
+    /**
+     * Gradient descent with Nesterov momentum.
+     * <p>
+     * Like {@link #momentum}, but each weight is adjusted as if the velocity had already been applied once more,
+     * which dampens the oscillations of plain momentum.
+     *
+     * <pre>
+     * {@code
+     * v = momentum * v + g
+     * w = w - learningRate * (g + momentum * v)
+     * }
+     * </pre>
+     *
+     * @param momentum The fraction of the velocity that is kept at each step, usually 0.9.
+     * @return The optimizer.
+     */
+    public static Optimizer nesterov(double momentum) {
+        return new Momentum(momentum, true);
+    }
+
+    /**
+     * Adam with the usual decay rates: 0.9 for the first moment, 0.999 for the second moment and 1e-8 for epsilon.
+     * <p>
+     * It works best with smaller learning rates than plain gradient descent, such as 0.001.
+     *
+     * @return The optimizer.
+     */
+    public static Optimizer adam() {
+        return adam(0.9, 0.999, 1e-8);
+    }
+
+    /**
+     * Adam, adaptive moment estimation.
+     * <p>
+     * Each weight keeps decaying averages of its gradients and of their squares,
+     * and it is adjusted by the first divided by the square root of the second,
+     * so that every weight moves at a pace of its own.
+     *
+     * <pre>
+     * {@code
+     * m = beta1 * m + (1 - beta1) * g
+     * v = beta2 * v + (1 - beta2) * g * g
+     * w = w - learningRate * (m / (1 - beta1^t)) / (sqrt(v / (1 - beta2^t)) + epsilon)
+     * }
+     * </pre>
+     *
+     * @param beta1   The decay rate of the average of the gradients.
+     * @param beta2   The decay rate of the average of the squared gradients.
+     * @param epsilon A small number that keeps the division finite.
+     * @return The optimizer.
+     */
+    public static Optimizer adam(double beta1, double beta2, double epsilon) {
+        return new Adam(beta1, beta2, epsilon);
+    }
+
+    /**
+     * Creates the state of the optimizer for a network.
+     *
+     * @return The state, or {@code null} if the optimizer is plain gradient descent, which needs none.
+     */
+    abstract State state(int[] layerSizes);
+
+    /**
+     * The state of an optimizer for the weights of a single network.
+     */
+    abstract static class State {
+
+        /**
+         * Adjusts the weights in place to a gradient.
+         *
+         * @param weights      The weights of each layer, in the layout of {@link CompiledNet}.
+         * @param gradient     The gradient of the error for each weight, in the same layout.
+         * @param learningRate A number that controls how much the weights are adjusted.
+         */
+        abstract void step(double[][] weights, double[][] gradient, double learningRate);
+
+    }
+
+    /**
+     * Arrays with the layout of the weights of a network, initialized to zero.
+     */
+    static double[][] zeros(int[] layerSizes) {
+        double[][] arrays = new double[layerSizes.length - 1][];
+        for (int l = 0; l < arrays.length; l++) {
+            arrays[l] = new double[layerSizes[l + 1] * (layerSizes[l] + 1)];
+        }
+        return arrays;
+    }
+
+    private static final class Momentum extends Optimizer {
+
+        final double momentum;
+
+        final boolean nesterov;
+
+        Momentum(double momentum, boolean nesterov) {
+            if (!(momentum >= 0.0 && momentum < 1.0)) {
+                throw new IllegalArgumentException("The momentum should be in [0, 1): " + momentum);
+            }
+            this.momentum = momentum;
+            this.nesterov = nesterov;
+        }
+
+        @Override
+        State state(int[] layerSizes) {
+            double[][] velocities = zeros(layerSizes);
+            return new State() {
+                @Override
+                void step(double[][] weights, double[][] gradient, double learningRate) {
+                    for (int l = 0; l < weights.length; l++) {
+                        double[] w = weights[l];
+                        double[] g = gradient[l];
+                        double[] v = velocities[l];
+                        for (int i = 0; i < w.length; i++) {
+                            double velocity = momentum * v[i] + g[i];
+                            v[i] = velocity;
+                            w[i] -= learningRate * (nesterov ? g[i] + momentum * velocity : velocity);
+                        }
+                    }
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return (nesterov ? "Nesterov(" : "Momentum(") + momentum + ")";
+        }
+
+    }
+
+    private static final class Adam extends Optimizer {
+
+        final double beta1;
+
+        final double beta2;
+
+        final double epsilon;
+
+        Adam(double beta1, double beta2, double epsilon) {
+            if (!(beta1 >= 0.0 && beta1 < 1.0) || !(beta2 >= 0.0 && beta2 < 1.0)) {
+                throw new IllegalArgumentException("The decay rates should be in [0, 1): " + beta1 + ", " + beta2);
+            }
+            if (!(epsilon > 0.0)) {
+                throw new IllegalArgumentException("The epsilon should be positive: " + epsilon);
+            }
+            this.beta1 = beta1;
+            this.beta2 = beta2;
+            this.epsilon = epsilon;
+        }
+
+        @Override
+        State state(int[] layerSizes) {
+            double[][] firstMoments = zeros(layerSizes);
+            double[][] secondMoments = zeros(layerSizes);
+            return new State() {
+
+                /**
+                 * The powers of the decay rates for the number of steps taken so far.
+                 */
+                double beta1Power = 1.0;
+
+                double beta2Power = 1.0;
+
+                @Override
+                void step(double[][] weights, double[][] gradient, double learningRate) {
+                    beta1Power *= beta1;
+                    beta2Power *= beta2;
+                    // the bias corrections are folded into the step size and epsilon
+                    double correction = Math.sqrt(1.0 - beta2Power);
+                    double stepSize = learningRate * correction / (1.0 - beta1Power);
+                    double correctedEpsilon = epsilon * correction;
+                    for (int l = 0; l < weights.length; l++) {
+                        double[] w = weights[l];
+                        double[] g = gradient[l];
+                        double[] m = firstMoments[l];
+                        double[] v = secondMoments[l];
+                        for (int i = 0; i < w.length; i++) {
+                            double gi = g[i];
+                            double mi = beta1 * m[i] + (1.0 - beta1) * gi;
+                            double vi = beta2 * v[i] + (1.0 - beta2) * gi * gi;
+                            m[i] = mi;
+                            v[i] = vi;
+                            w[i] -= stepSize * mi / (Math.sqrt(vi) + correctedEpsilon);
+                        }
+                    }
+                }
+
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "Adam(" + beta1 + ", " + beta2 + ", " + epsilon + ")";
+        }
+
+    }
+
+}
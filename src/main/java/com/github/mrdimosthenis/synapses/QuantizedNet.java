@@ -0,0 +1,263 @@
+package com.github.mrdimosthenis.synapses;
+
+/**
+ * The quantized form of a trained neural network, for fast predictions with little memory.
+ * <p>
+ * The weights of each layer are stored as 8-bit integers with a scale and a zero-point,
+ * so they occupy an eighth of the memory of the double weights.
+ * The values that enter each layer are quantized the same way, according to the range they had for the calibration inputs.
+ * The weighted sums are accumulated in 32-bit integers and they are turned back to doubles only for the activation functions.
+ * <p>
+ * The predictions are approximations of those of the neural network it was quantized from.
+ * The largest difference for the calibration inputs is reported by {@link #calibrationError()}.
+ * <p>
+ * Quantize a neural network:
+ * <pre>
+ * {@code
+ * QuantizedNet quantizedNet = net.quantize(calibrationInputs);
+ * }
+ * </pre>
+ * <p>
+ * Get the prediction for an input:
+ * <pre>
+ * {@code
+ * quantizedNet.predict(new double[]{0.4, 0.05, 0.2});
+ * }
+ * </pre>
+ */
+public class QuantizedNet {
+
+    private static final int MIN_QUANTUM = -128;
+
+    private static final int MAX_QUANTUM = 127;
+
+    /**
+     * The size of each layer, including the input layer.
+     */
+    final int[] layerSizes;
+
+    /**
+     * The activation function of the neurons of each layer.
+     */
+    final Fun[] activations;
+
+    /**
+     * The quantized weights of each layer, without the biases.
+     * Every neuron occupies a row of {@code inputSize} weights.
+     */
+    final byte[][] weights;
+
+    /**
+     * The constant part of the integer sum of each neuron:
+     * its quantized bias and the corrections for the zero-points that do not depend on the input.
+     */
+    final int[][] offsets;
+
+    /**
+     * The zero-point of the weights of each layer.
+     */
+    final int[] weightZeros;
+
+    /**
+     * The scale and the zero-point of the values that enter each layer.
+     */
+    final double[] inputScales;
+
+    final int[] inputZeros;
+
+    /**
+     * The factor that turns the integer sums of each layer back to doubles.
+     */
+    final double[] sumScales;
+
+    private double calibrationError;
+
+    private QuantizedNet(int[] layerSizes, Fun[] activations) {
+        int layers = activations.length;
+        this.layerSizes = layerSizes;
+        this.activations = activations;
+        weights = new byte[layers][];
+        offsets = new int[layers][];
+        weightZeros = new int[layers];
+        inputScales = new double[layers];
+        inputZeros = new int[layers];
+        sumScales = new double[layers];
+    }
+
+    /**
+     * Quantizes a compiled neural network.
+     *
+     * @param net               The compiled neural network.
+     * @param calibrationInputs Inputs that are representative of those the neural network will predict.
+     *                          The values that enter each layer are quantized according to their range for these inputs.
+     * @return The quantized neural network.
+     * @throws IllegalArgumentException If there are no calibration inputs.
+     */
+    static QuantizedNet of(CompiledNet net, double[][] calibrationInputs) {
+        if (calibrationInputs.length == 0) {
+            throw new IllegalArgumentException("A neural network cannot be quantized without calibration inputs");
+        }
+        int layers = net.weights.length;
+        double[] minimums = new double[layers];
+        double[] maximums = new double[layers];
+        Workspace workspace = net.workspace();
+        double[][] predictions = new double[calibrationInputs.length][];
+        for (int r = 0; r < calibrationInputs.length; r++) {
+            double[] values = calibrationInputs[r];
+            for (int l = 0; l < layers; l++) {
+                for (double value : values) {
+                    minimums[l] = Math.min(minimums[l], value);
+                    maximums[l] = Math.max(maximums[l], value);
+                }
+                double[] output = l < layers - 1 ? workspace.buffers[l] : new double[net.layerSizes[l + 1]];
+                CompiledNet.forward(net.weights[l], net.activations[l],
+                        values, net.layerSizes[l], output, net.layerSizes[l + 1]);
+                values = output;
+            }
+            predictions[r] = values;
+        }
+        QuantizedNet quantizedNet = new QuantizedNet(net.layerSizes, net.activations);
+        for (int l = 0; l < layers; l++) {
+            quantizedNet.quantizeLayer(l, net.weights[l], minimums[l], maximums[l]);
+        }
+        double error = 0.0;
+        for (int r = 0; r < calibrationInputs.length; r++) {
+            double[] prediction = quantizedNet.predict(calibrationInputs[r]);
+            for (int n = 0; n < prediction.length; n++) {
+                error = Math.max(error, Math.abs(prediction[n] - predictions[r][n]));
+            }
+        }
+        quantizedNet.calibrationError = error;
+        return quantizedNet;
+    }
+
+    private void quantizeLayer(int layer, double[] layerWeights, double inputMinimum, double inputMaximum) {
+        int inputSize = layerSizes[layer];
+        int outputSize = layerSizes[layer + 1];
+        int stride = inputSize + 1;
+        double weightMinimum = 0.0;
+        double weightMaximum = 0.0;
+        for (int n = 0, row = 0; n < outputSize; n++, row += stride) {
+            for (int i = 1; i < stride; i++) {
+                weightMinimum = Math.min(weightMinimum, layerWeights[row + i]);
+                weightMaximum = Math.max(weightMaximum, layerWeights[row + i]);
+            }
+        }
+        double weightScale = scale(weightMinimum, weightMaximum);
+        int weightZero = zeroPoint(weightMinimum, weightScale);
+        double inputScale = scale(inputMinimum, inputMaximum);
+        int inputZero = zeroPoint(inputMinimum, inputScale);
+        double sumScale = weightScale * inputScale;
+        byte[] quantizedWeights = new byte[outputSize * inputSize];
+        int[] layerOffsets = new int[outputSize];
+        for (int n = 0, row = 0; n < outputSize; n++, row += stride) {
+            int weightSum = 0;
+            for (int i = 0; i < inputSize; i++) {
+                int quantum = quantize(layerWeights[row + 1 + i], weightScale, weightZero);
+                quantizedWeights[n * inputSize + i] = (byte) quantum;
+                weightSum += quantum;
+            }
+            long bias = Math.round(layerWeights[row] / sumScale);
+            layerOffsets[n] = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, bias))
+                    - inputZero * weightSum
+                    + inputSize * weightZero * inputZero;
+        }
+        weights[layer] = quantizedWeights;
+        offsets[layer] = layerOffsets;
+        weightZeros[layer] = weightZero;
+        inputScales[layer] = inputScale;
+        inputZeros[layer] = inputZero;
+        sumScales[layer] = sumScale;
+    }
+
+    /**
+     * The scale that maps a range that contains zero to the 256 values of a byte.
+     */
+    private static double scale(double minimum, double maximum) {
+        double range = maximum - minimum;
+        return range > 0.0 ? range / (MAX_QUANTUM - MIN_QUANTUM) : 1.0;
+    }
+
+    private static int zeroPoint(double minimum, double scale) {
+        return (int) Math.max(MIN_QUANTUM, Math.min(MAX_QUANTUM, MIN_QUANTUM - Math.round(minimum / scale)));
+    }
+
+    private static int quantize(double value, double scale, int zeroPoint) {
+        long quantum = Math.round(value / scale) + zeroPoint;
+        return (int) Math.max(MIN_QUANTUM, Math.min(MAX_QUANTUM, quantum));
+    }
+
+    /**
+     * Makes a prediction for the provided input.
+     *
+     * @param inputValues The values of the features. Their size should be equal to the size of the input layer.
+     * @return The approximate prediction. It's size should be equal to the size of the output layer.
+     */
+    public double[] predict(double[] inputValues) {
+        int last = weights.length - 1;
+        byte[] quanta = new byte[layerSizes[0]];
+        for (int i = 0; i < quanta.length; i++) {
+            quanta[i] = (byte) quantize(inputValues[i], inputScales[0], inputZeros[0]);
+        }
+        for (int l = 0; l < last; l++) {
+            byte[] nextQuanta = new byte[layerSizes[l + 1]];
+            double nextScale = inputScales[l + 1];
+            int nextZero = inputZeros[l + 1];
+            int zeroCorrection = weightZeros[l] * sum(quanta);
+            for (int n = 0; n < nextQuanta.length; n++) {
+                nextQuanta[n] = (byte) quantize(activate(l, n, quanta, zeroCorrection), nextScale, nextZero);
+            }
+            quanta = nextQuanta;
+        }
+        double[] outputValues = new double[layerSizes[last + 1]];
+        int zeroCorrection = weightZeros[last] * sum(quanta);
+        for (int n = 0; n < outputValues.length; n++) {
+            outputValues[n] = activate(last, n, quanta, zeroCorrection);
+        }
+        return outputValues;
+    }
+
+    private static int sum(byte[] quanta) {
+        int sum = 0;
+        for (byte quantum : quanta) {
+            sum += quantum;
+        }
+        return sum;
+    }
+
+    /**
+     * Accumulates the integer sum of a neuron and dequantizes it for the activation function.
+     *
+     * @param zeroCorrection The product of the zero-point of the weights and the sum of the quantized inputs.
+     */
+    private double activate(int layer, int neuron, byte[] quanta, int zeroCorrection) {
+        byte[] layerWeights = weights[layer];
+        int inputSize = quanta.length;
+        int row = neuron * inputSize;
+        int sum = offsets[layer][neuron] - zeroCorrection;
+        for (int i = 0; i < inputSize; i++) {
+            sum += layerWeights[row + i] * quanta[i];
+        }
+        return activations[layer].f.applyAsDouble(sumScales[layer] * sum);
+    }
+
+    /**
+     * The largest absolute difference between the predictions of the quantized neural network
+     * and those of the neural network it was quantized from, for the calibration inputs.
+     *
+     * @return The maximum error of the quantization for the calibration inputs.
+     */
+    public double calibrationError() {
+        return calibrationError;
+    }
+
+    /**
+     * The size of each layer.
+     *
+     * @return The size of each layer, starting from the input layer and ending with the output layer.
+     */
+    public int[] layerSizes() {
+        return layerSizes.clone();
+    }
+
+}
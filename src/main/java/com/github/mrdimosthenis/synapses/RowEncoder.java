@@ -0,0 +1,232 @@
+package com.github.mrdimosthenis.synapses;
+
+/**
+ * An encoder of data points that are given as rows of values, bound to the attributes of a codec.
+ * <p>
+ * The values of a row are found by their position instead of their name,
+ * so a data point does not have to be put in a map,
+ * and the encoded values are written in an array that the caller provides.
+ * Once warm, an encoding allocates no memory, unless a number has more digits than a double can hold exactly
+ * or is written in an unusual form.
+ * The encoded values are identical to those of {@link Codec#encode}.
+ * An encoder never changes, so it can be shared by many threads.
+ * <p>
+ * Create an encoder for rows whose values are in the order of the attributes:
+ * <pre>
+ * {@code
+ * RowEncoder encoder = codec.rowEncoder();
+ * }
+ * </pre>
+ * <p>
+ * Create an encoder for rows whose values are in the order of the columns of a file:
+ * <pre>
+ * {@code
+ * RowEncoder encoder = codec.rowEncoder(new String[]{"species", "petal_width", "petal_length"});
+ * }
+ * </pre>
+ * <p>
+ * Encode a row into a buffer:
+ * <pre>
+ * {@code
+ * double[] buffer = new double[encoder.size()];
+ * encoder.encode(new String[]{"setosa", "0.2", "1.5"}, buffer, 0);
+ * }
+ * </pre>
+ */
+public final class RowEncoder {
+
+    /**
+     * The largest integer below which every integer is exactly a double.
+     */
+    private static final long EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * The powers of ten that are exactly doubles.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Codec codec;
+
+    private final Encoding encoding;
+
+    /**
+     * The position of the value of each attribute in a row.
+     */
+    final int[] columns;
+
+    /**
+     * The position of the first encoded value of each attribute in an encoded row.
+     */
+    final int[] positions;
+
+    /**
+     * The smallest number of values a row can have.
+     */
+    private final int width;
+
+    private final int size;
+
+    RowEncoder(Codec codec, Encoding encoding, int[] columns) {
+        this.codec = codec;
+        this.encoding = encoding;
+        this.columns = columns;
+        int maxColumn = -1;
+        for (int column : columns) {
+            maxColumn = Math.max(maxColumn, column);
+        }
+        width = maxColumn + 1;
+        positions = encoding.positions;
+        size = encoding.size();
+    }
+
+    /**
+     * The size of an encoded row.
+     *
+     * @return The number of encoded values, which is also the size of the input layer of a neural network for them.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Encodes a row into a new array.
+     *
+     * @param row The values of the data point, in the positions the encoder was created for.
+     * @return The encoded data point as an array of numbers between 0.0 and 1.0.
+     * @throws IllegalArgumentException If the row has fewer values than the encoder expects.
+     * @throws NumberFormatException    If the value of a continuous attribute is not a number.
+     */
+    public double[] encode(CharSequence[] row) {
+        double[] encodedValues = new double[size];
+        encode(row, encodedValues, 0);
+        return encodedValues;
+    }
+
+    /**
+     * Encodes a row into an array that the caller provides.
+     * <p>
+     * The encoded values occupy the {@link #size()} positions of the array that start from the offset,
+     * so several rows can be encoded one after the other in the same array.
+     *
+     * @param row           The values of the data point, in the positions the encoder was created for.
+     * @param encodedValues The array that receives the encoded values.
+     * @param offset        The position of the first encoded value in the array.
+     * @throws IllegalArgumentException If the row has fewer values than the encoder expects
+     *                                  or the encoded values do not fit in the array.
+     * @throws NumberFormatException    If the value of a continuous attribute is not a number.
+     */
+    public void encode(CharSequence[] row, double[] encodedValues, int offset) {
+        if (row.length < width) {
+            throw new IllegalArgumentException("The row has " + row.length + " values, but " + width + " are expected");
+        }
+        if (offset < 0 || offset > encodedValues.length - size) {
+            throw new IllegalArgumentException(
+                    "The " + size + " encoded values do not fit in an array of " + encodedValues.length
+                            + " from position " + offset);
+        }
+        long start = NetMetrics.start(codec.metrics);
+        for (int a = 0; a < columns.length; a++) {
+            encode(a, row[columns[a]], encodedValues, offset + positions[a]);
+        }
+        NetMetrics.stop(codec.metrics, NetMetrics.Operation.ENCODE, start, 1);
+    }
+
+    /**
+     * Encodes the value of a single attribute.
+     *
+     * @param attribute     The index of the attribute.
+     * @param value         The value of the attribute.
+     * @param encodedValues The array that receives the encoded values.
+     * @param position      The position of the first encoded value of the attribute in the array.
+     */
+    void encode(int attribute, CharSequence value, double[] encodedValues, int position) {
+        if (encoding.discrete[attribute]) {
+            int valueCount = encoding.values[attribute].length;
+            int index = encoding.index(attribute, value);
+            for (int v = 0; v < valueCount; v++) {
+                encodedValues[position + v] = v == index ? 1.0 : 0.0;
+            }
+        } else {
+            encodedValues[position] = encoding.normalized(attribute, parse(value));
+        }
+    }
+
+    /**
+     * Parses a number without allocating memory, when it can be parsed exactly.
+     * <p>
+     * A plain decimal number, with at most 15 or so significant digits and a small exponent,
+     * is the quotient or the product of two doubles that are exact,
+     * so a single rounded division or multiplication gives the same double as {@link Double#parseDouble}.
+     * Any other number is parsed by {@link Double#parseDouble}.
+     */
+    static double parse(CharSequence value) {
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            negative = value.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            mantissa = mantissa * 10 + (c - '0');
+            digits++;
+            if (mantissa >= EXACT_MANTISSA) {
+                return Double.parseDouble(value.toString());
+            }
+        }
+        if (i < length && value.charAt(i) == '.') {
+            for (i++; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                exponent--;
+                digits++;
+                if (mantissa >= EXACT_MANTISSA) {
+                    return Double.parseDouble(value.toString());
+                }
+            }
+        }
+        if (digits > 0 && i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                negativeExponent = value.charAt(i) == '-';
+                i++;
+            }
+            int exponentDigits = 0;
+            int explicitExponent = 0;
+            for (; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9' || explicitExponent > 1000) {
+                    break;
+                }
+                explicitExponent = explicitExponent * 10 + (c - '0');
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return Double.parseDouble(value.toString());
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (digits == 0 || i < length || exponent < -22 || exponent > 22) {
+            return Double.parseDouble(value.toString());
+        }
+        double number = exponent < 0
+                ? mantissa / POWERS_OF_TEN[-exponent]
+                : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -number : number;
+    }
+
+}
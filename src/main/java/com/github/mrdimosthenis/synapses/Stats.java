@@ -1,5 +1,6 @@
 package com.github.mrdimosthenis.synapses;
 
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 import synapses.jvm.StatsJ;
@@ -45,7 +46,12 @@ public class Stats {
      * @return The value of the RMSE metric.
      */
     public static double rmse(Stream<double[][]> outputPairs) {
-        return StatsJ.rmse(outputPairs);
+        Events.Stats event = new Events.Stats();
+        event.begin();
+        LongAdder count = event.isEnabled() ? new LongAdder() : null;
+        double rmse = StatsJ.rmse(count == null ? outputPairs : outputPairs.peek(pair -> count.increment()));
+        recorded(event, "rmse", count, rmse);
+        return rmse;
     }
 
     /**
@@ -59,7 +65,25 @@ public class Stats {
      * @return The score of the classification accuracy.
      */
     public static double score(Stream<double[][]> outputPairs) {
-        return StatsJ.score(outputPairs);
+        Events.Stats event = new Events.Stats();
+        event.begin();
+        LongAdder count = event.isEnabled() ? new LongAdder() : null;
+        double score = StatsJ.score(count == null ? outputPairs : outputPairs.peek(pair -> count.increment()));
+        recorded(event, "score", count, score);
+        return score;
+    }
+
+    /**
+     * Records a calculation as a flight recorder event, if a recording wants it.
+     * The output pairs are counted only while the event is enabled, as they may be streamed in parallel.
+     */
+    private static void recorded(Events.Stats event, String metric, LongAdder outputPairs, double value) {
+        if (event.shouldCommit()) {
+            event.metric = metric;
+            event.outputPairs = outputPairs == null ? 0 : outputPairs.sum();
+            event.value = value;
+            event.commit();
+        }
     }
 
 }
@@ -0,0 +1,38 @@
+package com.github.mrdimosthenis.synapses;
+
+/**
+ * The number of observations a training has processed and the time it took.
+ */
+public class Throughput {
+
+    /**
+     * The number of observations the neural network was fitted to.
+     */
+    public final long observations;
+
+    /**
+     * The duration of the training in nanoseconds.
+     */
+    public final long nanoseconds;
+
+    public Throughput(long observations, long nanoseconds) {
+        this.observations = observations;
+        this.nanoseconds = nanoseconds;
+    }
+
+    /**
+     * The rate of the training.
+     *
+     * @return The number of observations per second.
+     */
+    public double observationsPerSecond() {
+        return nanoseconds == 0 ? 0.0 : observations * 1e9 / nanoseconds;
+    }
+
+    @Override
+    public String toString() {
+        return observations + " observations in " + nanoseconds / 1e9 + " s ("
+                + observationsPerSecond() + " observations/s)";
+    }
+
+}
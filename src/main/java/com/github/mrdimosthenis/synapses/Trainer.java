@@ -0,0 +1,308 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * A mutable neural network for training.
+ * <p>
+ * A trainer owns a copy of the weights of a neural network and adjusts them in place,
+ * apart from the neural network it was created from.
+ * At any time, {@link #net()} returns a neural network with an independent snapshot of the current weights.
+ * <p>
+ * Create a trainer:
+ * <pre>
+ * {@code
+ * Trainer trainer = net.trainer();
+ * }
+ * </pre>
+ * <p>
+ * Fit it to observations:
+ * <pre>
+ * {@code
+ * trainer.fit(0.1, new double[]{0.4, 0.05, 0.2}, new double[]{0.03, 0.8});
+ * }
+ * </pre>
+ * <p>
+ * Train with an adaptive optimizer instead of plain gradient descent:
+ * <pre>
+ * {@code
+ * Trainer trainer = net.trainer(Optimizer.adam());
+ * }
+ * </pre>
+ * <p>
+ * Get the trained neural network:
+ * <pre>
+ * {@code
+ * Net trainedNet = trainer.net();
+ * }
+ * </pre>
+ */
+public class Trainer {
+
+    /**
+     * The number of observations a worker of a Hogwild training takes from the stream at once.
+     */
+    static final int HOGWILD_CHUNK = 64;
+
+    /**
+     * The weights that are adjusted in place. They are never shared with a neural network.
+     */
+    final CompiledNet model;
+
+    private final Gradient gradient;
+
+    private final BatchGradient batchGradient;
+
+    /**
+     * The state of the optimizer, next to the weights. It is absent for plain gradient descent.
+     */
+    private final Optimizer.State optimizerState;
+
+    Trainer(CompiledNet net) {
+        this(net, Optimizer.SGD);
+    }
+
+    Trainer(CompiledNet net, Optimizer optimizer) {
+        model = net.copy();
+        gradient = new Gradient(model.layerSizes);
+        batchGradient = new BatchGradient(model.layerSizes);
+        optimizerState = optimizer.state(model.layerSizes);
+    }
+
+    /**
+     * Makes a prediction for the provided input with the current weights.
+     *
+     * @param inputValues The values of the features. Their size should be equal to the size of the input layer.
+     * @return The prediction. It's size should be equal to the size of the output layer.
+     */
+    public double[] predict(double[] inputValues) {
+        return model.predict(inputValues);
+    }
+
+    /**
+     * Makes a prediction for a sparse input with the current weights.
+     *
+     * @param inputIndices The indices of the non-zero features, in increasing order.
+     * @param inputValues  The values of the non-zero features. Their size should be equal to that of the indices.
+     * @return The prediction. It's size should be equal to the size of the output layer.
+     * @throws IllegalArgumentException If the indices are not increasing, are out of the input layer
+     *                                  or do not match the values.
+     */
+    public double[] predict(int[] inputIndices, double[] inputValues) {
+        return model.predict(inputIndices, inputValues);
+    }
+
+    /**
+     * Adjust the weights in place to the provided observation.
+     * <p>
+     * With plain gradient descent, the adjustments are identical to those of {@link Net#fit}.
+     *
+     * @param learningRate   A number that controls how much the weights are adjusted to the observation.
+     * @param inputValues    The feature values of the observation.
+     * @param expectedOutput The expected output of the observation.
+     *                       It's size should be equal to the size of the output layer.
+     */
+    public void fit(double learningRate, double[] inputValues, double[] expectedOutput) {
+        if (optimizerState == null) {
+            gradient.descend(model, learningRate, inputValues, expectedOutput);
+            return;
+        }
+        gradient.clear();
+        gradient.add(model, inputValues, expectedOutput, 1.0);
+        optimizerState.step(model.weights, gradient.weights, learningRate);
+    }
+
+    /**
+     * Adjust the weights in place to a sparse observation,
+     * whose feature values are given by the indices and the values of the non-zero ones.
+     * <p>
+     * With plain gradient descent, the first layer only reads and adjusts the weights of the non-zero features,
+     * and the adjustments are identical to those of {@link Net#fit(double, int[], double[], double[])}.
+     * An adaptive optimizer still steps every weight, as it keeps moving the weights whose gradient is zero.
+     *
+     * @param learningRate   A number that controls how much the weights are adjusted to the observation.
+     * @param inputIndices   The indices of the non-zero feature values, in increasing order.
+     * @param inputValues    The non-zero feature values. Their size should be equal to that of the indices.
+     * @param expectedOutput The expected output of the observation.
+     *                       It's size should be equal to the size of the output layer.
+     * @throws IllegalArgumentException If the indices are not increasing, are out of the input layer
+     *                                  or do not match the values.
+     */
+    public void fit(double learningRate, int[] inputIndices, double[] inputValues, double[] expectedOutput) {
+        model.checkSparse(inputIndices, inputValues);
+        if (optimizerState == null) {
+            gradient.descend(model, learningRate, inputIndices, inputValues, expectedOutput);
+            return;
+        }
+        gradient.clear();
+        gradient.add(model, inputIndices, inputValues, expectedOutput, 1.0);
+        optimizerState.step(model.weights, gradient.weights, learningRate);
+    }
+
+    /**
+     * Adjust the weights in place to a batch of observations.
+     * <p>
+     * The optimizer takes a single step, with the average gradient of the observations.
+     * With plain gradient descent, the adjustments are identical to those of {@link Net#fitBatch}.
+     *
+     * @param learningRate    A number that controls how much the weights are adjusted to the observations.
+     * @param inputValues     The feature values of each observation.
+     * @param expectedOutputs The expected output of each observation.
+     */
+    public void fitBatch(double learningRate, double[][] inputValues, double[][] expectedOutputs) {
+        descend(learningRate, inputValues, expectedOutputs, null);
+    }
+
+    /**
+     * Adjust the weights in place to a batch of observations.
+     * <p>
+     * The observations are split in groups whose adjustments are calculated in parallel.
+     * The adjustments are identical to those of {@link #fitBatch}, whatever the number of processors.
+     *
+     * @param learningRate    A number that controls how much the weights are adjusted to the observations.
+     * @param inputValues     The feature values of each observation.
+     * @param expectedOutputs The expected output of each observation.
+     */
+    public void fitBatchPar(double learningRate, double[][] inputValues, double[][] expectedOutputs) {
+        fitBatchPar(learningRate, inputValues, expectedOutputs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Adjust the weights in place to a batch of observations, with the workers of a pool.
+     * <p>
+     * The adjustments are identical to those of {@link #fitBatch}, whatever the number of workers.
+     *
+     * @param learningRate    A number that controls how much the weights are adjusted to the observations.
+     * @param inputValues     The feature values of each observation.
+     * @param expectedOutputs The expected output of each observation.
+     * @param pool            The pool whose workers calculate the adjustments.
+     */
+    public void fitBatchPar(double learningRate,
+                            double[][] inputValues,
+                            double[][] expectedOutputs,
+                            ForkJoinPool pool) {
+        descend(learningRate, inputValues, expectedOutputs, pool);
+    }
+
+    /**
+     * Adjust the weights in place to a batch of observations.
+     *
+     * @param pool The pool whose workers calculate the adjustments, or {@code null} for the calling thread.
+     * @return The sum of the squared errors of the outputs, as they were before the adjustment.
+     */
+    double descend(double learningRate, double[][] inputValues, double[][] expectedOutputs, ForkJoinPool pool) {
+        if (inputValues.length == 0) {
+            return 0.0;
+        }
+        Events.Fit event = new Events.Fit();
+        event.begin();
+        // with an optimizer, the gradient is the plain average that the optimizer scales
+        double scale = optimizerState == null ? learningRate : 1.0;
+        Gradient gradient = pool == null
+                ? batchGradient.of(model, scale, inputValues, expectedOutputs)
+                : batchGradient.parOf(model, scale, inputValues, expectedOutputs, pool);
+        if (optimizerState == null) {
+            model.subtract(gradient);
+        } else {
+            optimizerState.step(model.weights, gradient.weights, learningRate);
+        }
+        double squaredError = gradient.squaredError;
+        batchGradient.release(gradient);
+        if (event.shouldCommit()) {
+            event.layerSizes = Arrays.toString(model.layerSizes);
+            event.batchSize = inputValues.length;
+            event.mode = pool == null ? Events.SEQUENTIAL : Events.PARALLEL;
+            event.learningRate = learningRate;
+            event.commit();
+        }
+        return squaredError;
+    }
+
+    /**
+     * Adjust the weights in place to a stream of observations, with several threads that do not lock the weights.
+     * <p>
+     * Each thread takes observations from the stream and fits the shared weights to them one by one,
+     * in the style of Hogwild.
+     * The adjustments of different threads may overwrite each other,
+     * which is harmless for training but makes the result depend on the timing of the threads.
+     * Only the weights of non-zero inputs are touched, so sparse observations rarely collide.
+     * It is only supported with plain gradient descent,
+     * since the state of an adaptive optimizer cannot be shared by the threads without locking.
+     *
+     * @param learningRate A number that controls how much the weights are adjusted to the observations.
+     * @param observations A stream of array-pairs that contain the feature values and the expected output.
+     * @param threads      The number of threads that fit the weights.
+     * @return The number of observations and the time it took to fit to them.
+     * @throws UnsupportedOperationException If the trainer has an optimizer other than {@link Optimizer#SGD}.
+     */
+    public Throughput fitHogwild(double learningRate, Stream<double[][]> observations, int threads) {
+        if (optimizerState != null) {
+            throw new UnsupportedOperationException("Hogwild training is only supported with plain gradient descent");
+        }
+        Iterator<double[][]> iterator = observations.iterator();
+        List<Callable<Long>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(() -> {
+                Gradient buffers = new Gradient(model.layerSizes);
+                double[][][] chunk = new double[HOGWILD_CHUNK][][];
+                long fitted = 0;
+                while (true) {
+                    int size = 0;
+                    synchronized (iterator) {
+                        while (size < HOGWILD_CHUNK && iterator.hasNext()) {
+                            chunk[size++] = iterator.next();
+                        }
+                    }
+                    if (size == 0) {
+                        return fitted;
+                    }
+                    for (int i = 0; i < size; i++) {
+                        buffers.descendSparsely(model, learningRate, chunk[i][0], chunk[i][1]);
+                    }
+                    fitted += size;
+                }
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            long fitted = 0;
+            for (Future<Long> future : executor.invokeAll(workers)) {
+                fitted += future.get();
+            }
+            return new Throughput(fitted, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The training was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * The neural network with the current weights.
+     * <p>
+     * The neural network is a snapshot, it is not affected by later fits of the trainer.
+     *
+     * @return A neural network with a copy of the current weights.
+     */
+    public Net net() {
+        return new Net(model.copy());
+    }
+
+}
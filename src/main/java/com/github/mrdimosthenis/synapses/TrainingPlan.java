@@ -0,0 +1,368 @@
+package com.github.mrdimosthenis.synapses;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A plan for training a neural network over several epochs of a dataset.
+ * <p>
+ * The dataset is streamed once per epoch and shuffled through a buffer of bounded size,
+ * so it never needs to fit in memory.
+ * A fraction of the observations is kept apart for validation.
+ * The training stops early when the validation error has not improved for a number of epochs,
+ * and the neural network of the best epoch is returned.
+ * <pre>
+ * {@code
+ * Supplier<Stream<double[][]>> dataset = () -> Arrays.stream(
+ *         new double[][][]{
+ *                 {{0.4, 0.05, 0.2}, {0.03, 0.8}},
+ *                 {{0.1, 0.9, 0.3}, {0.7, 0.1}}
+ *         }
+ * );
+ *
+ * Net trainedNet = new TrainingPlan(dataset, 100, 32, 0.1, 0.2)
+ *         .patience(5)
+ *         .train(net);
+ * }
+ * </pre>
+ */
+public class TrainingPlan {
+
+    /**
+     * The metrics of a training epoch.
+     */
+    public static class Epoch {
+
+        /**
+         * The index of the epoch, starting from 0.
+         */
+        public final int index;
+
+        /**
+         * The root mean square error of the training observations,
+         * calculated by the same forward pass that adjusted the weights.
+         */
+        public final double trainingRmse;
+
+        /**
+         * The root mean square error of the validation observations at the end of the epoch.
+         * It is {@code NaN} when there are no validation observations.
+         */
+        public final double validationRmse;
+
+        /**
+         * The classification accuracy of the validation observations at the end of the epoch.
+         * It is {@code NaN} when there are no validation observations.
+         */
+        public final double validationScore;
+
+        public Epoch(int index, double trainingRmse, double validationRmse, double validationScore) {
+            this.index = index;
+            this.trainingRmse = trainingRmse;
+            this.validationRmse = validationRmse;
+            this.validationScore = validationScore;
+        }
+
+    }
+
+    private final Supplier<Stream<double[][]>> dataset;
+
+    private final int epochs;
+
+    private final int batchSize;
+
+    private final double learningRate;
+
+    private final double validationSplit;
+
+    private int patience = 3;
+
+    private int shuffleBuffer = 10_000;
+
+    private long seed = new Random().nextLong();
+
+    private boolean inParallel = false;
+
+    private Optimizer optimizer = Optimizer.SGD;
+
+    private Consumer<Epoch> epochListener = epoch -> {
+    };
+
+    /**
+     * Creates a training plan.
+     *
+     * @param dataset         A function that returns a new stream of the dataset for every epoch.
+     *                        Each element is an array-pair that contains the feature values and the expected output.
+     *                        The streams should have the same order, so that the same observations are kept apart for validation.
+     * @param epochs          The maximum number of passes over the dataset.
+     * @param batchSize       The number of observations of each batch fit.
+     * @param learningRate    A number that controls how much the weights are adjusted to the observations.
+     * @param validationSplit The fraction of the observations that are kept apart for validation, between 0.0 and 1.0.
+     * @throws IllegalArgumentException If the number of epochs is negative, the batch size is not positive
+     *                                  or the validation split is not between 0.0 and 1.0.
+     */
+    public TrainingPlan(Supplier<Stream<double[][]>> dataset,
+                        int epochs,
+                        int batchSize,
+                        double learningRate,
+                        double validationSplit) {
+        if (epochs < 0) {
+            throw new IllegalArgumentException("The number of epochs should not be negative: " + epochs);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size should be positive: " + batchSize);
+        }
+        if (!(validationSplit >= 0.0 && validationSplit <= 1.0)) {
+            throw new IllegalArgumentException("The validation split should be in [0, 1]: " + validationSplit);
+        }
+        this.dataset = dataset;
+        this.epochs = epochs;
+        this.batchSize = batchSize;
+        this.learningRate = learningRate;
+        this.validationSplit = validationSplit;
+    }
+
+    /**
+     * Sets the number of epochs without improvement after which the training stops. The default is 3.
+     *
+     * @param epochs The number of epochs.
+     * @return The training plan.
+     * @throws IllegalArgumentException If the number of epochs is not positive.
+     */
+    public TrainingPlan patience(int epochs) {
+        if (epochs <= 0) {
+            throw new IllegalArgumentException("The patience should be positive: " + epochs);
+        }
+        patience = epochs;
+        return this;
+    }
+
+    /**
+     * Sets the number of observations the shuffling buffer holds. The default is 10,000.
+     *
+     * @param observations The size of the buffer.
+     * @return The training plan.
+     * @throws IllegalArgumentException If the size of the buffer is not positive.
+     */
+    public TrainingPlan shuffleBuffer(int observations) {
+        if (observations <= 0) {
+            throw new IllegalArgumentException("The shuffle buffer should be positive: " + observations);
+        }
+        shuffleBuffer = observations;
+        return this;
+    }
+
+    /**
+     * Sets the seed of the shuffling and of the validation split, so that the training can be repeated.
+     *
+     * @param seed A number used to initialize the internal pseudorandom number generators.
+     * @return The training plan.
+     */
+    public TrainingPlan seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets whether the adjustments of each batch are calculated in parallel. The default is {@code false}.
+     * <p>
+     * The result is the same either way.
+     *
+     * @param inParallel Whether the batches are calculated in parallel.
+     * @return The training plan.
+     */
+    public TrainingPlan inParallel(boolean inParallel) {
+        this.inParallel = inParallel;
+        return this;
+    }
+
+    /**
+     * Sets the rule by which the weights are adjusted to each batch. The default is {@link Optimizer#SGD}.
+     * <p>
+     * The state of the optimizer is carried across the epochs of a training.
+     *
+     * @param optimizer The optimizer, for example {@link Optimizer#adam()}.
+     * @return The training plan.
+     */
+    public TrainingPlan optimizer(Optimizer optimizer) {
+        this.optimizer = optimizer;
+        return this;
+    }
+
+    /**
+     * Sets a function that receives the metrics of each epoch.
+     *
+     * @param listener A function that accepts the metrics of an epoch.
+     * @return The training plan.
+     */
+    public TrainingPlan onEpoch(Consumer<Epoch> listener) {
+        epochListener = listener;
+        return this;
+    }
+
+    /**
+     * Trains a neural network according to the plan.
+     * <p>
+     * The neural network itself is not affected.
+     *
+     * @param net The neural network to start from.
+     * @return The neural network of the epoch with the lowest validation error,
+     * or with the lowest training error when there are no validation observations.
+     */
+    public Net train(Net net) {
+        Trainer trainer = net.trainer(optimizer);
+        ForkJoinPool pool = inParallel ? ForkJoinPool.commonPool() : null;
+        Net bestNet = net;
+        double bestError = Double.POSITIVE_INFINITY;
+        int epochsWithoutImprovement = 0;
+        for (int index = 0; index < epochs && epochsWithoutImprovement < patience; index++) {
+            Events.Epoch event = new Events.Epoch();
+            event.begin();
+            double trainingRmse = trainEpoch(trainer, pool, new SplittableRandom(seed + index));
+            double[] validation = validate(trainer);
+            Epoch epoch = new Epoch(index, trainingRmse, validation[0], validation[1]);
+            if (event.shouldCommit()) {
+                event.layerSizes = Arrays.toString(trainer.model.layerSizes);
+                event.epoch = index;
+                event.batchSize = batchSize;
+                event.mode = inParallel ? Events.PARALLEL : Events.SEQUENTIAL;
+                event.trainingRmse = trainingRmse;
+                event.validationRmse = validation[0];
+                event.validationScore = validation[1];
+                event.commit();
+            }
+            epochListener.accept(epoch);
+            double error = Double.isNaN(epoch.validationRmse) ? epoch.trainingRmse : epoch.validationRmse;
+            if (error < bestError) {
+                bestError = error;
+                bestNet = trainer.net();
+                epochsWithoutImprovement = 0;
+            } else {
+                epochsWithoutImprovement++;
+            }
+        }
+        return bestNet;
+    }
+
+    /**
+     * Fits the trainer to the training observations of an epoch, in batches.
+     * <p>
+     * Each observation enters a buffer of bounded size and a random observation of the buffer leaves it,
+     * so the order of the observations is shuffled without holding the whole dataset.
+     *
+     * @return The root mean square error of the training observations.
+     */
+    private double trainEpoch(Trainer trainer, ForkJoinPool pool, SplittableRandom random) {
+        double[][][] buffer = new double[shuffleBuffer][][];
+        double[][] inputs = new double[batchSize][];
+        double[][] outputs = new double[batchSize][];
+        int buffered = 0;
+        int batched = 0;
+        long observations = 0;
+        double squaredError = 0.0;
+        Iterator<double[][]> iterator = dataset.get().iterator();
+        for (long i = 0; iterator.hasNext(); i++) {
+            double[][] observation = iterator.next();
+            if (isValidation(i)) {
+                continue;
+            }
+            observations++;
+            if (buffered < buffer.length) {
+                buffer[buffered++] = observation;
+                continue;
+            }
+            int slot = random.nextInt(buffer.length);
+            double[][] leaving = buffer[slot];
+            buffer[slot] = observation;
+            inputs[batched] = leaving[0];
+            outputs[batched] = leaving[1];
+            if (++batched == batchSize) {
+                squaredError += trainer.descend(learningRate, inputs, outputs, pool);
+                batched = 0;
+            }
+        }
+        while (buffered > 0) {
+            int slot = random.nextInt(buffered);
+            double[][] leaving = buffer[slot];
+            buffer[slot] = buffer[--buffered];
+            inputs[batched] = leaving[0];
+            outputs[batched] = leaving[1];
+            if (++batched == batchSize) {
+                squaredError += trainer.descend(learningRate, inputs, outputs, pool);
+                batched = 0;
+            }
+        }
+        if (batched > 0) {
+            squaredError += trainer.descend(
+                    learningRate, Arrays.copyOf(inputs, batched), Arrays.copyOf(outputs, batched), pool
+            );
+        }
+        return observations == 0 ? Double.NaN : Math.sqrt(squaredError / observations);
+    }
+
+    /**
+     * Measures the root mean square error and the classification accuracy of the validation observations.
+     */
+    private double[] validate(Trainer trainer) {
+        CompiledNet model = trainer.model;
+        Workspace workspace = model.workspace();
+        double[] prediction = new double[model.layerSizes[model.layerSizes.length - 1]];
+        long observations = 0;
+        long correct = 0;
+        double squaredError = 0.0;
+        Iterator<double[][]> iterator = dataset.get().iterator();
+        for (long i = 0; iterator.hasNext(); i++) {
+            double[][] observation = iterator.next();
+            if (!isValidation(i)) {
+                continue;
+            }
+            model.predict(observation[0], prediction, workspace);
+            double[] expected = observation[1];
+            for (int n = 0; n < prediction.length; n++) {
+                double error = expected[n] - prediction[n];
+                squaredError += error * error;
+            }
+            if (indexOfMax(expected) == indexOfMax(prediction)) {
+                correct++;
+            }
+            observations++;
+        }
+        if (observations == 0) {
+            return new double[]{Double.NaN, Double.NaN};
+        }
+        return new double[]{Math.sqrt(squaredError / observations), (double) correct / observations};
+    }
+
+    /**
+     * Decides whether the observation at a position of the dataset is kept apart for validation.
+     * <p>
+     * The decision depends only on the seed and the position, so it is the same in every epoch.
+     */
+    private boolean isValidation(long position) {
+        if (validationSplit <= 0.0) {
+            return false;
+        }
+        long z = seed + (position + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53 < validationSplit;
+    }
+
+    private static int indexOfMax(double[] values) {
+        int index = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[index]) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.github.mrdimosthenis.synapses;
+
+/**
+ * The reusable buffers that hold the values of the hidden layers during a prediction.
+ * <p>
+ * A workspace lets a neural network make predictions without allocating memory.
+ * It can be reused for any number of predictions, but it should not be shared between threads.
+ * <pre>
+ * {@code
+ * Workspace workspace = net.workspace();
+ * double[] prediction = new double[2];
+ * net.predict(new double[]{0.4, 0.05, 0.2}, prediction, workspace);
+ * }
+ * </pre>
+ */
+public class Workspace {
+
+    /**
+     * The output values of each hidden layer.
+     */
+    final double[][] buffers;
+
+    /**
+     * Creates a workspace for neural networks with the provided layer sizes.
+     *
+     * @param layerSizes The size of each layer, starting from the input layer and ending with the output layer.
+     */
+    public Workspace(int[] layerSizes) {
+        buffers = new double[Math.max(layerSizes.length - 2, 0)][];
+        for (int l = 0; l < buffers.length; l++) {
+            buffers[l] = new double[layerSizes[l + 1]];
+        }
+    }
+
+    /**
+     * Checks that the workspace has a buffer for every hidden layer.
+     *
+     * @throws IllegalArgumentException If the workspace was created for a different neural network.
+     */
+    void check(int[] layerSizes) {
+        if (buffers.length != Math.max(layerSizes.length - 2, 0)) {
+            throw new IllegalArgumentException("The workspace does not match the layers of the neural network");
+        }
+        for (int l = 0; l < buffers.length; l++) {
+            if (buffers[l].length != layerSizes[l + 1]) {
+                throw new IllegalArgumentException("The workspace does not match the layers of the neural network");
+            }
+        }
+    }
+
+}
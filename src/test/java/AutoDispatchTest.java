@@ -0,0 +1,76 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Net;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class AutoDispatchTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public AutoDispatchTest() throws IOException {
+    }
+
+    String neuralNetworkJson = readFile("test-resources/network.json");
+
+    double[] inputValues = {1.0, 0.5625, 0.511111, 0.47619};
+
+    double[] expectedOutput = {0.4, 0.05, 0.2};
+
+    Random random = new Random(1000L);
+
+    double[] randomValues(int size) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble();
+        }
+        return values;
+    }
+
+    @Test
+    public void autoPredictionIsPrediction() {
+        Net net = new Net(neuralNetworkJson);
+        assertArrayEquals(net.compile().predict(inputValues), net.autoPredict(inputValues), 0.0);
+        assertEquals(net.compile().layerSizes().length - 1, net.parallelLayers().length);
+    }
+
+    @Test
+    public void autoFitIsFit() {
+        Net fittedNet = new Net(neuralNetworkJson);
+        Net autoFittedNet = new Net(neuralNetworkJson);
+        fittedNet.fit(0.01, inputValues, expectedOutput);
+        autoFittedNet.autoFit(0.01, inputValues, expectedOutput);
+        assertEquals(fittedNet.json(), autoFittedNet.json());
+    }
+
+    @Test
+    public void wideLayersAreCalculatedEitherWay() {
+        Net net = new Net(new int[]{300, 1000, 2}, 1000L);
+        Net autoNet = new Net(net.json());
+        double[] input = randomValues(300);
+        double[] output = {0.2, 0.8};
+        assertArrayEquals(net.compile().predict(input), autoNet.autoPredict(input), 0.0);
+        for (int i = 0; i < 3; i++) {
+            net.fitBatch(0.1, new double[][]{input}, new double[][]{output});
+            autoNet.autoFit(0.1, input, output);
+        }
+        assertEquals(net.json(), autoNet.json());
+        boolean[] parallelLayers = autoNet.parallelLayers();
+        assertEquals(2, parallelLayers.length);
+        assertArrayEquals(parallelLayers, autoNet.parallelLayers());
+    }
+
+}
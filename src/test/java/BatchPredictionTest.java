@@ -0,0 +1,112 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Fun;
+import com.github.mrdimosthenis.synapses.Net;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @hidden
+ */
+public class BatchPredictionTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public BatchPredictionTest() throws IOException {
+    }
+
+    Net neuralNetwork = new Net(readFile("test-resources/network.json"));
+
+    Random random = new Random(1000L);
+
+    double[][] randomInputs(int rows, int size) {
+        double[][] inputs = new double[rows][size];
+        for (int r = 0; r < rows; r++) {
+            for (int i = 0; i < size; i++) {
+                inputs[r][i] = random.nextDouble();
+            }
+        }
+        return inputs;
+    }
+
+    Net wideNet = new Net(
+            new int[]{784, 100, 10},
+            layerIndex -> layerIndex == 0 ? Fun.SIGMOID : Fun.LEAKY_RE_LU,
+            _layerIndex -> 1.0 - 2.0 * random.nextDouble()
+    );
+
+    void assertSameAsPredict(Net net, double[][] inputs, double[][] predictions) {
+        assertEquals(inputs.length, predictions.length);
+        for (int r = 0; r < inputs.length; r++) {
+            assertArrayEquals(net.predict(inputs[r]), predictions[r], 0.0);
+        }
+    }
+
+    @Test
+    public void batchPrediction() {
+        double[][] inputs = randomInputs(77, 4);
+        assertSameAsPredict(neuralNetwork, inputs, neuralNetwork.predictBatch(inputs));
+    }
+
+    @Test
+    public void wideBatchPrediction() {
+        double[][] inputs = randomInputs(45, 784);
+        assertSameAsPredict(wideNet, inputs, wideNet.predictBatch(inputs));
+    }
+
+    @Test
+    public void parallelBatchPrediction() {
+        double[][] inputs = randomInputs(300, 784);
+        assertSameAsPredict(wideNet, inputs, wideNet.parPredictBatch(inputs));
+    }
+
+    @Test
+    public void packedBatchPrediction() {
+        double[][] inputs = randomInputs(5, 4);
+        double[] packedInputs = new double[5 * 4];
+        for (int r = 0; r < 5; r++) {
+            System.arraycopy(inputs[r], 0, packedInputs, r * 4, 4);
+        }
+        double[] predictions = neuralNetwork.predictBatch(packedInputs, 5);
+        double[] parPredictions = neuralNetwork.compile().parPredictBatch(packedInputs, 5, new ForkJoinPool(2));
+        for (int r = 0; r < 5; r++) {
+            double[] expected = neuralNetwork.predict(inputs[r]);
+            for (int n = 0; n < 3; n++) {
+                assertEquals(expected[n], predictions[r * 3 + n], 0.0);
+                assertEquals(expected[n], parPredictions[r * 3 + n], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void emptyBatchPrediction() {
+        assertEquals(0, neuralNetwork.predictBatch(new double[0][]).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void packedBatchWithMissingValues() {
+        neuralNetwork.predictBatch(new double[5 * 4 - 1], 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void packedBatchWithExtraValues() {
+        neuralNetwork.parPredictBatch(new double[5 * 4 + 4], 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void packedBatchWithNegativeRows() {
+        neuralNetwork.compile().parPredictBatch(new double[0], -1, new ForkJoinPool(2));
+    }
+
+}
@@ -0,0 +1,97 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Fun;
+import com.github.mrdimosthenis.synapses.Net;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * @hidden
+ */
+public class BinaryFormatTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public BinaryFormatTest() throws IOException {
+    }
+
+    String neuralNetworkJson = readFile("test-resources/network.json");
+
+    static byte[] binary(Net net) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        net.writeTo(out);
+        return out.toByteArray();
+    }
+
+    static Net fromBinary(byte[] bytes) throws IOException {
+        return Net.readFrom(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void binaryRoundTripsJson() throws IOException {
+        Net net = new Net(neuralNetworkJson);
+        assertEquals(net.json(), fromBinary(binary(net)).json());
+    }
+
+    @Test
+    public void binaryRoundTripsActivations() throws IOException {
+        Fun[] activations = {Fun.TANH, Fun.LEAKY_RE_LU, Fun.IDENTITY, Fun.SIGMOID};
+        Net net = new Net(
+                new int[]{300, 200, 100, 50, 2},
+                layerIndex -> activations[layerIndex],
+                layerIndex -> Math.random() - 0.5
+        );
+        Net readNet = fromBinary(binary(net));
+        assertEquals(net.json(), readNet.json());
+        double[] inputValues = new double[300];
+        Arrays.fill(inputValues, 0.25);
+        assertArrayEquals(net.predict(inputValues), readNet.predict(inputValues), 0.0);
+    }
+
+    @Test
+    public void binaryIsSmallerThanJson() throws IOException {
+        Net net = new Net(new int[]{100, 100, 10}, 1000L);
+        assertTrue(2 * binary(net).length < net.json().length());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void jsonIsNotBinary() throws IOException {
+        fromBinary(neuralNetworkJson.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedBinary() throws IOException {
+        byte[] bytes = binary(new Net(neuralNetworkJson));
+        fromBinary(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyLayers() throws IOException {
+        byte[] bytes = binary(new Net(new int[]{2, 1}, 1000L));
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(8, Integer.MAX_VALUE / 2);
+        fromBinary(bytes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyWeights() throws IOException {
+        byte[] bytes = binary(new Net(new int[]{2, 1}, 1000L));
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(12, 65_536).putInt(16, 65_536);
+        fromBinary(bytes);
+    }
+
+}
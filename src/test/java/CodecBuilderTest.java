@@ -0,0 +1,171 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Attribute;
+import com.github.mrdimosthenis.synapses.Codec;
+import com.github.mrdimosthenis.synapses.CodecBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @hidden
+ */
+public class CodecBuilderTest {
+
+    Random random = new Random(1000L);
+
+    Attribute[] attributes = {
+            new Attribute("petal_length", false),
+            new Attribute("species", true),
+            new Attribute("sepal_width", false),
+            new Attribute("color", true)
+    };
+
+    String[] species = {"setosa", "versicolor", "virginica", "arctica", "borealis"};
+
+    String[] colors = {"red", "green", "blue", "white", "black", "purple", "yellow"};
+
+    Map<String, String> datapoint() {
+        Map<String, String> datapoint = new HashMap<>();
+        datapoint.put("petal_length", Double.toString(random.nextGaussian() * 3.0));
+        datapoint.put("species", species[random.nextInt(species.length)]);
+        datapoint.put("sepal_width", Integer.toString(random.nextInt(1000) - 500));
+        datapoint.put("color", colors[random.nextInt(colors.length)]);
+        return datapoint;
+    }
+
+    List<Map<String, String>> dataset = dataset(5_000);
+
+    List<Map<String, String>> dataset(int size) {
+        List<Map<String, String>> datapoints = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            datapoints.add(datapoint());
+        }
+        return datapoints;
+    }
+
+    String sequentialJson = new Codec(attributes, dataset.stream()).json();
+
+    /**
+     * Builds a codec for each of a few consecutive parts of the dataset, each in a thread of its own.
+     */
+    List<CodecBuilder> shards(int count) {
+        int size = dataset.size() / count;
+        List<CompletableFuture<CodecBuilder>> futures = new ArrayList<>();
+        for (int s = 0; s < count; s++) {
+            List<Map<String, String>> shard = dataset.subList(s * size, s == count - 1 ? dataset.size() : (s + 1) * size);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                CodecBuilder builder = new CodecBuilder(attributes);
+                shard.forEach(builder::add);
+                return builder;
+            }));
+        }
+        List<CodecBuilder> builders = new ArrayList<>();
+        futures.forEach(future -> builders.add(future.join()));
+        return builders;
+    }
+
+    @Test
+    public void parallelStream() {
+        assertEquals(sequentialJson, new Codec(attributes, dataset.parallelStream()).json());
+    }
+
+    @Test
+    public void collector() {
+        assertEquals(sequentialJson, dataset.stream().collect(Codec.collector(attributes)).json());
+        assertEquals(sequentialJson, dataset.parallelStream().collect(Codec.collector(attributes)).json());
+    }
+
+    @Test
+    public void shardsMergedInOrder() {
+        List<CodecBuilder> builders = shards(4);
+        CodecBuilder merged = builders.get(0);
+        for (CodecBuilder builder : builders.subList(1, builders.size())) {
+            merged.merge(builder);
+        }
+        assertEquals(sequentialJson, merged.build().json());
+    }
+
+    @Test
+    public void codecsOfShardsMergedInOrder() {
+        Codec merged = shards(3).stream()
+                .map(builder -> new Codec(builder.build().json()))
+                .reduce(Codec::merge)
+                .get();
+        assertEquals(sequentialJson, merged.json());
+    }
+
+    @Test
+    public void shardsMergedInReverse() {
+        List<CodecBuilder> builders = shards(2);
+        Codec reversed = builders.get(1).merge(builders.get(0)).build();
+        List<Map<String, String>> reorderedDataset = new ArrayList<>(dataset.subList(dataset.size() / 2, dataset.size()));
+        reorderedDataset.addAll(dataset.subList(0, dataset.size() / 2));
+        assertEquals(new Codec(attributes, reorderedDataset.stream()).json(), reversed.json());
+        Map<String, String> datapoint = datapoint();
+        assertArrayEquals(
+                new Codec(attributes, reorderedDataset.stream()).encode(datapoint),
+                reversed.encode(datapoint),
+                0.0
+        );
+    }
+
+    @Test
+    public void mergedCodecsAreUnchanged() {
+        Codec first = new Codec(attributes, dataset.subList(0, 10).stream());
+        Codec second = new Codec(attributes, dataset.subList(10, 20).stream());
+        String firstJson = first.json();
+        String secondJson = second.json();
+        first.merge(second);
+        assertEquals(firstJson, first.json());
+        assertEquals(secondJson, second.json());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentAttributes() {
+        Attribute[] otherAttributes = Arrays.copyOf(attributes, 3);
+        new CodecBuilder(attributes).merge(new CodecBuilder(otherAttributes));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingValue() {
+        Map<String, String> datapoint = datapoint();
+        datapoint.remove("color");
+        new CodecBuilder(attributes).add(datapoint);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyBuilder() {
+        new CodecBuilder(attributes).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyStream() {
+        new Codec(attributes, dataset.subList(0, 0).stream());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyParallelStream() {
+        new Codec(attributes, dataset.subList(0, 0).parallelStream());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyCollector() {
+        dataset.subList(0, 0).parallelStream().collect(Codec.collector(attributes));
+    }
+
+    @Test
+    public void emptyShardMerged() {
+        CodecBuilder builder = new CodecBuilder(attributes);
+        dataset.forEach(builder::add);
+        assertEquals(sequentialJson, builder.merge(new CodecBuilder(attributes)).build().json());
+        assertEquals(sequentialJson, new CodecBuilder(attributes).merge(builder).build().json());
+    }
+
+}
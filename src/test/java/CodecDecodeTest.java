@@ -0,0 +1,140 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Attribute;
+import com.github.mrdimosthenis.synapses.Codec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class CodecDecodeTest {
+
+    Random random = new Random(1000L);
+
+    static final int LABELS = 5_000;
+
+    Attribute[] attributes = {
+            new Attribute("score", false),
+            new Attribute("label", true),
+            new Attribute("color", true)
+    };
+
+    String[] colors = {"red", "green", "blue"};
+
+    static Map<String, String> datapoint(String score, String label, String color) {
+        Map<String, String> datapoint = new HashMap<>();
+        datapoint.put("score", score);
+        datapoint.put("label", label);
+        datapoint.put("color", color);
+        return datapoint;
+    }
+
+    List<Map<String, String>> dataset = dataset();
+
+    List<Map<String, String>> dataset() {
+        List<Map<String, String>> datapoints = new ArrayList<>();
+        for (int i = 0; i < LABELS; i++) {
+            datapoints.add(datapoint(Integer.toString(i % 100), "label" + i, colors[i % colors.length]));
+        }
+        return datapoints;
+    }
+
+    Codec codec = new Codec(attributes, dataset.stream());
+
+    int size = 1 + LABELS + colors.length;
+
+    double[] randomValues() {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble();
+        }
+        return values;
+    }
+
+    @Test
+    public void wideDiscreteAttributes() {
+        for (int i = 0; i < LABELS; i += 7) {
+            Map<String, String> datapoint = dataset.get(i);
+            double[] encodedValues = codec.encode(datapoint);
+            assertEquals(size, encodedValues.length);
+            // the values are in the reverse order of their first appearance
+            int position = 1 + LABELS - 1 - i;
+            double sum = 0.0;
+            for (int v = 1; v <= LABELS; v++) {
+                sum += encodedValues[v];
+            }
+            assertEquals(1.0, sum, 0.0);
+            assertEquals(1.0, encodedValues[position], 0.0);
+            assertEquals(datapoint.get("label"), codec.decode(encodedValues).get("label"));
+            assertEquals(datapoint.get("color"), codec.decode(encodedValues).get("color"));
+        }
+    }
+
+    @Test
+    public void unknownValue() {
+        double[] encodedValues = codec.encode(datapoint("50", "unknown", "red"));
+        for (int v = 1; v <= LABELS; v++) {
+            assertEquals(0.0, encodedValues[v], 0.0);
+        }
+    }
+
+    @Test
+    public void decodeIntoArray() {
+        double[] encodedValues = new double[2 * size + 1];
+        double[] first = randomValues();
+        double[] second = randomValues();
+        System.arraycopy(first, 0, encodedValues, 1, size);
+        System.arraycopy(second, 0, encodedValues, 1 + size, size);
+        String[] decodedValues = new String[attributes.length];
+        codec.decode(encodedValues, 1, decodedValues);
+        Map<String, String> expected = codec.decode(first);
+        for (int a = 0; a < attributes.length; a++) {
+            assertEquals(expected.get(attributes[a].name), decodedValues[a]);
+        }
+        codec.decode(encodedValues, 1 + size, decodedValues);
+        expected = codec.decode(second);
+        for (int a = 0; a < attributes.length; a++) {
+            assertEquals(expected.get(attributes[a].name), decodedValues[a]);
+        }
+    }
+
+    @Test
+    public void decodeBatch() {
+        double[][] encodedValues = new double[20][];
+        for (int r = 0; r < encodedValues.length; r++) {
+            encodedValues[r] = randomValues();
+        }
+        List<Map<String, String>> datapoints = codec.decodeBatch(encodedValues);
+        assertEquals(encodedValues.length, datapoints.size());
+        for (int r = 0; r < encodedValues.length; r++) {
+            assertEquals(codec.decode(encodedValues[r]), datapoints.get(r));
+        }
+    }
+
+    @Test
+    public void firstOfEqualValues() {
+        double[] encodedValues = new double[size];
+        encodedValues[1 + LABELS] = 0.5;
+        encodedValues[1 + LABELS + 2] = 0.5;
+        Map<String, String> datapoint = codec.decode(encodedValues);
+        assertEquals("label" + (LABELS - 1), datapoint.get("label"));
+        assertEquals("blue", datapoint.get("color"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encodedValuesOutOfArray() {
+        codec.decode(new double[size], 1, new String[attributes.length]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodedValuesDoNotFit() {
+        codec.decode(new double[size], 0, new String[attributes.length - 1]);
+    }
+
+}
@@ -0,0 +1,222 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.CompiledNet;
+import com.github.mrdimosthenis.synapses.Fun;
+import com.github.mrdimosthenis.synapses.Net;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class CompiledNetTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public CompiledNetTest() throws IOException {
+    }
+
+    Net neuralNetwork = new Net(readFile("test-resources/network.json"));
+
+    double[] inputValues = {1.0, 0.5625, 0.511111, 0.47619};
+
+    double[] expectedOutput = {0.4, 0.05, 0.2};
+
+    static double[] randomInput(Random random, int size) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble();
+        }
+        return values;
+    }
+
+    @Test
+    public void compiledPrediction() {
+        assertArrayEquals(
+                neuralNetwork.predict(inputValues),
+                neuralNetwork.compile().predict(inputValues),
+                0.0
+        );
+    }
+
+    @Test
+    public void compiledPredictionOfRandomInputs() {
+        CompiledNet compiledNet = neuralNetwork.compile();
+        Random random = new Random(1000L);
+        for (int i = 0; i < 100; i++) {
+            double[] input = randomInput(random, 4);
+            assertArrayEquals(
+                    neuralNetwork.predict(input),
+                    compiledNet.predict(input),
+                    0.0
+            );
+        }
+    }
+
+    @Test
+    public void compiledPredictionOfWideNetwork() {
+        Random random = new Random(1000L);
+        Net wideNet = new Net(
+                new int[]{784, 128, 10},
+                layerIndex -> layerIndex == 0 ? Fun.LEAKY_RE_LU : Fun.TANH,
+                _layerIndex -> 1.0 - 2.0 * random.nextDouble()
+        );
+        double[] input = randomInput(random, 784);
+        assertArrayEquals(
+                wideNet.predict(input),
+                wideNet.compile().predict(input),
+                0.0
+        );
+    }
+
+    @Test
+    public void compiledLayerSizes() {
+        assertArrayEquals(
+                new int[]{4, 6, 8, 5, 3},
+                neuralNetwork.compile().layerSizes()
+        );
+    }
+
+    @Test
+    public void compiledNetIsCached() {
+        assertSame(neuralNetwork.compile(), neuralNetwork.compile());
+    }
+
+    @Test
+    public void fitRecompilesNetwork() {
+        CompiledNet compiledNet = neuralNetwork.compile();
+        neuralNetwork.fit(0.01, inputValues, expectedOutput);
+        assertNotSame(compiledNet, neuralNetwork.compile());
+        assertArrayEquals(
+                neuralNetwork.predict(inputValues),
+                neuralNetwork.compile().predict(inputValues),
+                0.0
+        );
+    }
+
+    @Test
+    public void fitsDoNotAffectHandedOutCompiledForm() {
+        CompiledNet compiledNet = neuralNetwork.compile();
+        double[] prediction = compiledNet.predict(inputValues);
+        neuralNetwork.fit(0.01, inputValues, expectedOutput);
+        neuralNetwork.autoFit(0.01, inputValues, expectedOutput);
+        neuralNetwork.fitBatch(0.01, new double[][]{inputValues}, new double[][]{expectedOutput});
+        assertArrayEquals(prediction, compiledNet.predict(inputValues), 0.0);
+        assertNotEquals(prediction[0], neuralNetwork.predict(inputValues)[0], 0.0);
+    }
+
+    void assertSameNetwork(Net expected, Net actual) {
+        assertEquals(expected.json(), actual.json());
+        assertArrayEquals(expected.predict(inputValues), actual.predict(inputValues), 0.0);
+        assertArrayEquals(
+                expected.errors(inputValues, expectedOutput, false),
+                actual.errors(inputValues, expectedOutput, false),
+                0.0
+        );
+    }
+
+    @Test
+    public void jsonFollowsEveryKindOfFit() {
+        double[][] batchInputs = {inputValues, {0.1, 0.9, 0.3, 0.7}};
+        double[][] batchOutputs = {expectedOutput, {0.7, 0.1, 0.5}};
+        neuralNetwork.fit(0.01, inputValues, expectedOutput);
+        assertSameNetwork(neuralNetwork, new Net(neuralNetwork.json()));
+        neuralNetwork.fitBatch(0.01, batchInputs, batchOutputs);
+        assertSameNetwork(neuralNetwork, new Net(neuralNetwork.json()));
+        neuralNetwork.fitPar(0.01, inputValues, expectedOutput);
+        assertSameNetwork(neuralNetwork, new Net(neuralNetwork.json()));
+        neuralNetwork.fit(0.01, new int[]{1, 3}, new double[]{0.5, 0.25}, expectedOutput);
+        assertSameNetwork(neuralNetwork, new Net(neuralNetwork.json()));
+        neuralNetwork.autoFit(0.01, inputValues, expectedOutput);
+        assertSameNetwork(neuralNetwork, new Net(neuralNetwork.json()));
+    }
+
+    @Test
+    public void parallelCalculationsAreIdentical() throws IOException {
+        Net parallelNet = new Net(readFile("test-resources/network.json"));
+        for (int i = 0; i < 5; i++) {
+            neuralNetwork.fit(0.01, inputValues, expectedOutput);
+            parallelNet.fitPar(0.01, inputValues, expectedOutput);
+            assertArrayEquals(neuralNetwork.predict(inputValues), parallelNet.parPredict(inputValues), 0.0);
+            assertArrayEquals(
+                    neuralNetwork.errors(inputValues, expectedOutput, false),
+                    parallelNet.errors(inputValues, expectedOutput, true),
+                    0.0
+            );
+        }
+        assertEquals(neuralNetwork.json(), parallelNet.json());
+    }
+
+    @Test
+    public void inPlaceFitsAreIdentical() throws IOException {
+        Net inPlaceNet = new Net(readFile("test-resources/network.json")).inPlace(true);
+        CompiledNet compiledNet = inPlaceNet.compile();
+        double[] prediction = compiledNet.predict(inputValues);
+        double[][] batchInputs = {inputValues, {0.1, 0.9, 0.3, 0.7}};
+        double[][] batchOutputs = {expectedOutput, {0.7, 0.1, 0.5}};
+        neuralNetwork.fit(0.01, inputValues, expectedOutput);
+        inPlaceNet.fit(0.01, inputValues, expectedOutput);
+        neuralNetwork.fit(0.01, new int[]{1, 3}, new double[]{0.5, 0.25}, expectedOutput);
+        inPlaceNet.fit(0.01, new int[]{1, 3}, new double[]{0.5, 0.25}, expectedOutput);
+        neuralNetwork.fitBatch(0.01, batchInputs, batchOutputs);
+        inPlaceNet.fitBatch(0.01, batchInputs, batchOutputs);
+        assertSameNetwork(neuralNetwork, inPlaceNet);
+        assertArrayEquals(prediction, compiledNet.predict(inputValues), 0.0);
+    }
+
+    @Test
+    public void predictionsDuringFitsSeeWholeFits() throws Exception {
+        Net referenceNet = new Net(neuralNetwork.json());
+        List<double[]> fittedPredictions = new ArrayList<>();
+        fittedPredictions.add(referenceNet.predict(inputValues));
+        for (int i = 0; i < 200; i++) {
+            referenceNet.fit(0.01, inputValues, expectedOutput);
+            fittedPredictions.add(referenceNet.predict(inputValues));
+        }
+        Thread fits = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                neuralNetwork.fit(0.01, inputValues, expectedOutput);
+            }
+        });
+        fits.start();
+        while (fits.isAlive()) {
+            double[] prediction = neuralNetwork.predict(inputValues);
+            assertTrue(fittedPredictions.stream().anyMatch(p -> Arrays.equals(p, prediction)));
+        }
+        fits.join();
+        assertArrayEquals(fittedPredictions.get(200), neuralNetwork.predict(inputValues), 0.0);
+    }
+
+    @Test
+    public void mixedActivationsInLayer() {
+        String json = "[[{\"activationF\" : \"sigmoid\", \"weights\" : [0.1, 0.2]}," +
+                "{\"activationF\" : \"tanh\", \"weights\" : [0.3, 0.4]}]]";
+        Net net = new Net(json);
+        double[] expected = {1.0 / (1.0 + Math.exp(-0.2)), Math.tanh(0.5)};
+        assertArrayEquals(expected, net.predict(new double[]{0.5}), 1e-12);
+        assertArrayEquals(expected, net.parPredict(new double[]{0.5}), 1e-12);
+        net.fit(0.1, new double[]{0.5}, new double[]{1.0, 0.0});
+        assertNotEquals(expected[0], net.predict(new double[]{0.5})[0], 0.0);
+        assertEquals(net.json(), new Net(net.json()).json());
+        try {
+            net.compile();
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("layer 0"));
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Trainer;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @hidden
+ */
+public class DataParallelTest {
+
+    int[] layers = {4, 6, 5, 3};
+
+    Random random = new Random(1000L);
+
+    double[][] randomValues(int rows, int size) {
+        double[][] values = new double[rows][size];
+        for (int r = 0; r < rows; r++) {
+            for (int i = 0; i < size; i++) {
+                values[r][i] = random.nextDouble();
+            }
+        }
+        return values;
+    }
+
+    double[][] inputs = randomValues(203, 4);
+
+    double[][] outputs = randomValues(203, 3);
+
+    String fittedJson(int threads) {
+        Net net = new Net(layers, 1000L);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int epoch = 0; epoch < 3; epoch++) {
+                net.fitBatchPar(0.1, inputs, outputs, pool);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return net.json();
+    }
+
+    @Test
+    public void sameResultForAnyNumberOfThreads() {
+        String json = fittedJson(1);
+        for (int threads : new int[]{2, 3, 4, 8}) {
+            assertEquals(json, fittedJson(threads));
+        }
+    }
+
+    @Test
+    public void parallelBatchIsSequentialBatch() {
+        Net net = new Net(layers, 1000L);
+        for (int epoch = 0; epoch < 3; epoch++) {
+            net.fitBatch(0.1, inputs, outputs);
+        }
+        assertEquals(net.json(), fittedJson(5));
+    }
+
+    @Test
+    public void trainerParallelBatchIsSequentialBatch() {
+        Trainer trainer = new Net(layers, 1000L).trainer();
+        Trainer parTrainer = new Net(layers, 1000L).trainer();
+        trainer.fitBatch(0.1, inputs, outputs);
+        parTrainer.fitBatchPar(0.1, inputs, outputs);
+        assertEquals(trainer.net().json(), parTrainer.net().json());
+    }
+
+}
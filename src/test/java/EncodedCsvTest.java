@@ -0,0 +1,201 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Attribute;
+import com.github.mrdimosthenis.synapses.Codec;
+import com.github.mrdimosthenis.synapses.EncodedCsv;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @hidden
+ */
+public class EncodedCsvTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public EncodedCsvTest() throws IOException {
+    }
+
+    String preprocessorJson = readFile("test-resources/preprocessor.json");
+
+    Random random = new Random(1000L);
+
+    static Map<String, String> datapoint(String petalLength, String species) {
+        Map<String, String> datapoint = new HashMap<>();
+        datapoint.put("petal_length", petalLength);
+        datapoint.put("species", species);
+        return datapoint;
+    }
+
+    @SuppressWarnings("unchecked")
+    Codec codec = new Codec(
+            new Attribute[]{new Attribute("petal_length", false), new Attribute("species", true)},
+            Arrays.stream(new Map[]{
+                    datapoint("1.5", "setosa"),
+                    datapoint("3.8", "versi,\"color\""),
+                    datapoint("6.0", "virg\u00EDnica")
+            })
+    );
+
+    static Path csvFile(String content) throws IOException {
+        Path path = Files.createTempFile("encoded-csv-test", ".csv");
+        path.toFile().deleteOnExit();
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    void assertEncodedAs(List<Map<String, String>> datapoints, EncodedCsv encodedCsv) {
+        assertEquals(datapoints.size(), encodedCsv.rows());
+        for (int r = 0; r < datapoints.size(); r++) {
+            assertArrayEquals(codec.encode(datapoints.get(r)), encodedCsv.row(r), 0.0);
+        }
+    }
+
+    @Test
+    public void rowsAreEncodedAsDatapoints() throws IOException {
+        Path path = csvFile("\uFEFFid,species,\"petal_length\",petal_width\r\n"
+                + "1,setosa,1.5,0.2\r\n"
+                + "2,\"versi,\"\"color\"\"\",4.2,1.3\r\n"
+                + "\r\n"
+                + "3,virg\u00EDnica,5.1,2.4\n"
+                + "\n"
+                + "4,unknown,2.75,1.0");
+        List<Map<String, String>> datapoints = List.of(
+                datapoint("1.5", "setosa"),
+                datapoint("4.2", "versi,\"color\""),
+                datapoint("5.1", "virg\u00EDnica"),
+                datapoint("2.75", "unknown")
+        );
+        EncodedCsv encodedCsv = EncodedCsv.read(path, codec);
+        assertEquals(4, encodedCsv.rowSize());
+        assertEncodedAs(datapoints, encodedCsv);
+        assertEncodedAs(datapoints, EncodedCsv.parRead(path, codec));
+    }
+
+    @Test
+    public void columnsOfRows() throws IOException {
+        EncodedCsv encodedCsv = EncodedCsv.read(csvFile("petal_length,species\n1.5,setosa\n6.0,virg\u00EDnica\n"), codec);
+        double[] first = encodedCsv.row(0);
+        double[] second = encodedCsv.row(1);
+        assertArrayEquals(new double[]{first[0], second[0]}, encodedCsv.columns(0, 1), 0.0);
+        assertArrayEquals(
+                new double[]{first[1], first[2], first[3], second[1], second[2], second[3]},
+                encodedCsv.columns(1, 4),
+                0.0
+        );
+        assertArrayEquals(encodedCsv.values(), encodedCsv.columns(0, 4), 0.0);
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        EncodedCsv encodedCsv = EncodedCsv.read(csvFile("species,petal_length\n"), codec);
+        assertEquals(0, encodedCsv.rows());
+        assertEquals(0, encodedCsv.values().length);
+    }
+
+    @Test
+    public void mnistRowsAreEncodedInParallel() throws IOException {
+        Codec mnistCodec = new Codec(preprocessorJson);
+        StringBuilder content = new StringBuilder("label");
+        for (int p = 0; p < 784; p++) {
+            content.append(",pixel").append(p);
+        }
+        content.append('\n');
+        List<Map<String, String>> datapoints = new ArrayList<>();
+        // enough rows for a few chunks of a parallel reading
+        for (int r = 0; r < 5_000; r++) {
+            Map<String, String> datapoint = new HashMap<>();
+            String label = Integer.toString(random.nextInt(10));
+            datapoint.put("label", label);
+            content.append(label);
+            for (int p = 0; p < 784; p++) {
+                String pixel = Integer.toString(random.nextInt(4) == 0 ? random.nextInt(256) : 0);
+                datapoint.put("pixel" + p, pixel);
+                content.append(',').append(pixel);
+            }
+            content.append('\n');
+            datapoints.add(datapoint);
+        }
+        Path path = csvFile(content.toString());
+        EncodedCsv encodedCsv = EncodedCsv.read(path, mnistCodec);
+        assertEquals(datapoints.size(), encodedCsv.rows());
+        for (int r = 0; r < datapoints.size(); r += 97) {
+            assertArrayEquals(mnistCodec.encode(datapoints.get(r)), encodedCsv.row(r), 0.0);
+        }
+        ForkJoinPool pool = new ForkJoinPool(3);
+        assertArrayEquals(encodedCsv.values(), EncodedCsv.parRead(path, mnistCodec, pool).values(), 0.0);
+        pool.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingColumn() throws IOException {
+        EncodedCsv.read(csvFile("species,petal_width\nsetosa,0.2\n"), codec);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shortRow() throws IOException {
+        EncodedCsv.read(csvFile("species,petal_width,petal_length\nsetosa,0.2,1.5\nsetosa,0.2\n"), codec);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quotedValueSpansLines() throws IOException {
+        EncodedCsv.read(csvFile("species,petal_length\n\"set\nosa\",1.5\n"), codec);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rowShorterThanHeader() throws IOException {
+        EncodedCsv.read(csvFile("species,petal_length,petal_width\nsetosa,1.5\n"), codec);
+    }
+
+    @Test
+    public void quotedValuesAtLineEnds() throws IOException {
+        Path path = csvFile("petal_length,species\r\n1.5,\"setosa\"\r\n6.0,\"virg\u00EDnica\"\n3.8,\"versi,\"\"color\"\"\"");
+        List<Map<String, String>> datapoints = List.of(
+                datapoint("1.5", "setosa"),
+                datapoint("6.0", "virg\u00EDnica"),
+                datapoint("3.8", "versi,\"color\"")
+        );
+        assertEncodedAs(datapoints, EncodedCsv.read(path, codec));
+        assertEncodedAs(datapoints, EncodedCsv.parRead(path, codec));
+    }
+
+    @Test
+    public void valueAfterQuotedValue() throws IOException {
+        Path path = csvFile("id,species,petal_length\n1,\"setosa\",1.5\n2,\"setosa\"x,1.5\n3,setosa,1.5\n");
+        try {
+            EncodedCsv.read(path, codec);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("row 1"));
+        }
+        try {
+            EncodedCsv.parRead(path, codec);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("row 1"));
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void notANumber() throws IOException {
+        EncodedCsv.read(csvFile("species,petal_length\nsetosa,1.5.2\n"), codec);
+    }
+
+}
@@ -0,0 +1,89 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.CompiledNet;
+import com.github.mrdimosthenis.synapses.Fun;
+import com.github.mrdimosthenis.synapses.Net;
+
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class FastActivationTest {
+
+    Random random = new Random(1000L);
+
+    Net net = new Net(
+            new int[]{20, 30, 30, 5},
+            layerIndex -> layerIndex == 1 ? Fun.TANH : Fun.SIGMOID,
+            _layerIndex -> 1.0 - 2.0 * random.nextDouble()
+    );
+
+    double[] randomInput(int size) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble();
+        }
+        return values;
+    }
+
+    /**
+     * A compiled network whose only neuron applies the fast counterpart of an activation function to its input.
+     */
+    static CompiledNet fastNeuron(String activation) {
+        return new Net("[[{\"activationF\" : \"" + activation + "\", \"weights\" : [0.0, 1.0]}]]")
+                .compile()
+                .withFastActivations();
+    }
+
+    static double apply(CompiledNet neuron, double x) {
+        return neuron.predict(new double[]{x})[0];
+    }
+
+    @Test
+    public void fastTanhError() {
+        CompiledNet fastTanh = fastNeuron("tanh");
+        for (double x = -20.0; x <= 20.0; x += 0.0013) {
+            assertEquals(Math.tanh(x), apply(fastTanh, x), 6e-6);
+        }
+        assertEquals(1.0, apply(fastTanh, Double.POSITIVE_INFINITY), 0.0);
+        assertEquals(-1.0, apply(fastTanh, Double.NEGATIVE_INFINITY), 0.0);
+        assertTrue(Double.isNaN(apply(fastTanh, Double.NaN)));
+    }
+
+    @Test
+    public void fastSigmoidError() {
+        CompiledNet fastSigmoid = fastNeuron("sigmoid");
+        for (double x = -40.0; x <= 40.0; x += 0.0017) {
+            assertEquals(1.0 / (1.0 + Math.exp(-x)), apply(fastSigmoid, x), 3e-6);
+        }
+        assertEquals(0.5, apply(fastSigmoid, 0.0), 0.0);
+    }
+
+    @Test
+    public void fastPredictions() {
+        CompiledNet compiledNet = net.compile();
+        CompiledNet fastNet = compiledNet.withFastActivations();
+        for (int i = 0; i < 100; i++) {
+            double[] input = randomInput(20);
+            assertArrayEquals(compiledNet.predict(input), fastNet.predict(input), 1e-4);
+        }
+    }
+
+    @Test
+    public void fastFunctionsAreTrainedAsExact() {
+        Random weights = new Random(7L);
+        Net fastNet = new Net(
+                new int[]{3, 4, 2},
+                _layerIndex -> Fun.FAST_TANH,
+                _layerIndex -> 1.0 - 2.0 * weights.nextDouble()
+        );
+        Net exactNet = new Net(fastNet.json());
+        double[] input = {0.2, 0.6, 0.1};
+        fastNet.fit(0.1, input, new double[]{0.9, 0.1});
+        exactNet.fit(0.1, input, new double[]{0.9, 0.1});
+        assertArrayEquals(exactNet.predict(input), fastNet.predict(input), 0.0);
+    }
+
+}
@@ -0,0 +1,119 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Net;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class FitBatchTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public FitBatchTest() throws IOException {
+    }
+
+    String neuralNetworkJson = readFile("test-resources/network.json");
+
+    double[] inputValues = {1.0, 0.5625, 0.511111, 0.47619};
+
+    double[] expectedOutput = {0.4, 0.05, 0.2};
+
+    double learningRate = 0.01;
+
+    Random random = new Random(1000L);
+
+    double[][] randomValues(int rows, int size) {
+        double[][] values = new double[rows][size];
+        for (int r = 0; r < rows; r++) {
+            for (int i = 0; i < size; i++) {
+                values[r][i] = random.nextDouble();
+            }
+        }
+        return values;
+    }
+
+    @Test
+    public void singleObservationBatchIsFit() {
+        Net fittedNet = new Net(neuralNetworkJson);
+        Net batchFittedNet = new Net(neuralNetworkJson);
+        double[][] inputs = randomValues(20, 4);
+        double[][] outputs = randomValues(20, 3);
+        for (int i = 0; i < inputs.length; i++) {
+            fittedNet.fit(learningRate, inputs[i], outputs[i]);
+            batchFittedNet.fitBatch(learningRate, new double[][]{inputs[i]}, new double[][]{outputs[i]});
+        }
+        assertEquals(fittedNet.json(), batchFittedNet.json());
+    }
+
+    @Test
+    public void singleObservationParallelBatchIsFit() {
+        Net fittedNet = new Net(neuralNetworkJson);
+        Net batchFittedNet = new Net(neuralNetworkJson);
+        fittedNet.fit(learningRate, inputValues, expectedOutput);
+        batchFittedNet.fitBatchPar(learningRate, new double[][]{inputValues}, new double[][]{expectedOutput});
+        assertEquals(fittedNet.json(), batchFittedNet.json());
+    }
+
+    @Test
+    public void batchFitPrediction() {
+        Net batchFittedNet = new Net(neuralNetworkJson);
+        batchFittedNet.fitBatch(learningRate, new double[][]{inputValues}, new double[][]{expectedOutput});
+        assertArrayEquals(
+                new double[]{-0.006109464554743645, -0.1770428172237149, 0.6087944183600162},
+                batchFittedNet.predict(inputValues),
+                0.0001
+        );
+    }
+
+    @Test
+    public void batchFitAveragesAdjustments() {
+        Net batchFittedNet = new Net(neuralNetworkJson);
+        Net parBatchFittedNet = new Net(neuralNetworkJson);
+        double[][] inputs = randomValues(50, 4);
+        double[][] outputs = randomValues(50, 3);
+        batchFittedNet.fitBatch(learningRate, inputs, outputs);
+        parBatchFittedNet.fitBatchPar(learningRate, inputs, outputs);
+        double[] prediction = batchFittedNet.predict(inputValues);
+        assertArrayEquals(prediction, parBatchFittedNet.predict(inputValues), 1e-12);
+        assertArrayEquals(prediction, batchFittedNet.compile().predict(inputValues), 0.0);
+    }
+
+    @Test
+    public void batchFitReducesError() {
+        Net net = new Net(new int[]{4, 6, 3}, 1000L);
+        double[][] inputs = randomValues(64, 4);
+        double[][] outputs = new double[64][];
+        for (int i = 0; i < inputs.length; i++) {
+            outputs[i] = new double[]{inputs[i][0], inputs[i][1] * inputs[i][2], 0.5};
+        }
+        double before = squaredError(net, inputs, outputs);
+        for (int epoch = 0; epoch < 200; epoch++) {
+            net.fitBatch(0.5, inputs, outputs);
+        }
+        assertTrue(squaredError(net, inputs, outputs) < before);
+    }
+
+    static double squaredError(Net net, double[][] inputs, double[][] outputs) {
+        double error = 0.0;
+        for (int i = 0; i < inputs.length; i++) {
+            double[] prediction = net.predict(inputs[i]);
+            for (int n = 0; n < prediction.length; n++) {
+                error += (prediction[n] - outputs[i][n]) * (prediction[n] - outputs[i][n]);
+            }
+        }
+        return error;
+    }
+
+}
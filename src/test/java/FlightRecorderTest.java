@@ -0,0 +1,127 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Codec;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Stats;
+import com.github.mrdimosthenis.synapses.TrainingPlan;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * @hidden
+ */
+public class FlightRecorderTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public FlightRecorderTest() throws IOException {
+    }
+
+    String neuralNetworkJson = readFile("test-resources/network.json");
+
+    String preprocessorJson = readFile("test-resources/preprocessor.json");
+
+    double[] inputValues = {1.0, 0.5625, 0.511111, 0.47619};
+
+    double[] expectedOutput = {0.4, 0.05, 0.2};
+
+    static final String[] EVENTS = {"Predict", "Fit", "Epoch", "CodecCreation", "Stats"};
+
+    static List<RecordedEvent> recorded(Runnable calls, Duration threshold) throws IOException {
+        Path file = Files.createTempFile("synapses", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : EVENTS) {
+                recording.enable("com.github.mrdimosthenis.synapses." + event).withThreshold(threshold);
+            }
+            recording.start();
+            calls.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.github.mrdimosthenis.synapses." + name))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void eventsAreRecorded() throws IOException {
+        List<RecordedEvent> events = recorded(() -> {
+            try {
+                Net net = new Net(new StringReader(neuralNetworkJson));
+                net.predict(inputValues);
+                net.fitBatch(0.01, new double[][]{inputValues, inputValues}, new double[][]{expectedOutput, expectedOutput});
+                new Codec(new StringReader(preprocessorJson));
+                Stats.rmse(Arrays.stream(new double[][][]{{expectedOutput, expectedOutput}}));
+                new TrainingPlan(() -> Arrays.stream(new double[][][]{{inputValues, expectedOutput}}), 2, 1, 0.01, 0.0)
+                        .train(net);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, Duration.ZERO);
+
+        List<RecordedEvent> predictions = named(events, "Predict");
+        assertEquals(1, predictions.size());
+        assertEquals("[4, 6, 8, 5, 3]", predictions.get(0).getString("layerSizes"));
+        assertEquals(1, predictions.get(0).getLong("samples"));
+        assertEquals("sequential", predictions.get(0).getString("mode"));
+
+        List<RecordedEvent> fits = named(events, "Fit");
+        assertEquals(3, fits.size());
+        assertEquals(2, fits.get(0).getLong("batchSize"));
+        assertEquals(0.01, fits.get(0).getDouble("learningRate"), 0.0);
+
+        List<RecordedEvent> epochs = named(events, "Epoch");
+        assertEquals(2, epochs.size());
+        assertEquals(1, epochs.get(1).getInt("epoch"));
+
+        List<RecordedEvent> codecs = named(events, "CodecCreation");
+        assertEquals(1, codecs.size());
+        assertEquals(785, codecs.get(0).getInt("attributes"));
+
+        List<RecordedEvent> stats = named(events, "Stats");
+        assertEquals(1, stats.size());
+        assertEquals("rmse", stats.get(0).getString("metric"));
+        assertEquals(1, stats.get(0).getLong("outputPairs"));
+    }
+
+    @Test
+    public void shortCallsAreNotRecordedByDefault() throws IOException {
+        List<RecordedEvent> events = recorded(() -> {
+            try {
+                Net net = new Net(new StringReader(neuralNetworkJson));
+                for (int i = 0; i < 1000; i++) {
+                    net.predict(inputValues);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, Duration.ofSeconds(1));
+        assertTrue(named(events, "Predict").isEmpty());
+    }
+
+}
@@ -0,0 +1,92 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.FloatNet;
+import com.github.mrdimosthenis.synapses.Net;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * @hidden
+ */
+public class FloatNetTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public FloatNetTest() throws IOException {
+    }
+
+    String neuralNetworkJson = readFile("test-resources/network.json");
+
+    Net neuralNetwork = new Net(neuralNetworkJson);
+
+    double[] inputValues = {1.0, 0.5625, 0.511111, 0.47619};
+
+    float[] floatInputValues = {1.0f, 0.5625f, 0.511111f, 0.47619f};
+
+    float[] expectedOutput = {0.4f, 0.05f, 0.2f};
+
+    static double[] widened(float[] values) {
+        double[] widenedValues = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            widenedValues[i] = values[i];
+        }
+        return widenedValues;
+    }
+
+    @Test
+    public void floatPredictionIsClose() {
+        FloatNet floatNet = neuralNetwork.toFloat();
+        assertArrayEquals(
+                neuralNetwork.predict(inputValues),
+                widened(floatNet.predict(floatInputValues)),
+                1e-5
+        );
+    }
+
+    @Test
+    public void floatFitIsClose() {
+        FloatNet floatNet = neuralNetwork.toFloat();
+        neuralNetwork.fit(0.01, inputValues, widened(expectedOutput));
+        floatNet.fit(0.01f, floatInputValues, expectedOutput);
+        assertArrayEquals(
+                neuralNetwork.predict(inputValues),
+                widened(floatNet.predict(floatInputValues)),
+                1e-5
+        );
+    }
+
+    @Test
+    public void floatJsonIsParsedByNet() {
+        FloatNet floatNet = new FloatNet(neuralNetworkJson);
+        Net parsedNet = new Net(floatNet.json());
+        assertArrayEquals(
+                widened(floatNet.predict(floatInputValues)),
+                parsedNet.predict(inputValues),
+                1e-5
+        );
+        assertEquals(floatNet.json(), new FloatNet(floatNet.json()).json());
+    }
+
+    @Test
+    public void floatNetIsWidened() {
+        FloatNet floatNet = neuralNetwork.toFloat();
+        floatNet.fit(0.01f, floatInputValues, expectedOutput);
+        Net widenedNet = floatNet.net();
+        assertArrayEquals(
+                widened(floatNet.predict(floatInputValues)),
+                widenedNet.predict(widened(floatInputValues)),
+                1e-5
+        );
+        assertArrayEquals(neuralNetwork.compile().layerSizes(), floatNet.layerSizes());
+    }
+
+}
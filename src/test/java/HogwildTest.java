@@ -0,0 +1,71 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Throughput;
+import com.github.mrdimosthenis.synapses.Trainer;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class HogwildTest {
+
+    Random random = new Random(1000L);
+
+    double[][][] observations = new double[2000][][];
+
+    {
+        for (int i = 0; i < observations.length; i++) {
+            double[] input = {random.nextDouble(), random.nextDouble(), random.nextDouble()};
+            double[] output = {input[0] * input[1], 1.0 - input[2]};
+            observations[i] = new double[][]{input, output};
+        }
+    }
+
+    Net net = new Net(new int[]{3, 8, 2}, 1000L);
+
+    double squaredError(Net net) {
+        double error = 0.0;
+        for (double[][] observation : observations) {
+            double[] prediction = net.predict(observation[0]);
+            for (int n = 0; n < prediction.length; n++) {
+                error += (prediction[n] - observation[1][n]) * (prediction[n] - observation[1][n]);
+            }
+        }
+        return error;
+    }
+
+    @Test
+    public void singleThreadHogwildIsFit() {
+        Trainer trainer = net.trainer();
+        for (double[][] observation : observations) {
+            trainer.fit(0.1, observation[0], observation[1]);
+        }
+        net.fitHogwild(0.1, Arrays.stream(observations), 1);
+        assertArrayEquals(
+                trainer.predict(observations[0][0]),
+                net.predict(observations[0][0]),
+                0.0
+        );
+    }
+
+    @Test
+    public void multiThreadHogwildReducesError() {
+        double before = squaredError(net);
+        for (int epoch = 0; epoch < 10; epoch++) {
+            net.fitHogwild(0.5, Arrays.stream(observations).parallel(), 4);
+        }
+        assertTrue(squaredError(net) < before);
+    }
+
+    @Test
+    public void hogwildThroughput() {
+        Throughput throughput = net.fitHogwild(0.1, Arrays.stream(observations), 3);
+        assertEquals(observations.length, throughput.observations);
+        assertTrue(throughput.observationsPerSecond() > 0.0);
+    }
+
+}
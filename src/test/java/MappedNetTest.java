@@ -0,0 +1,90 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.MappedNet;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Workspace;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class MappedNetTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public MappedNetTest() throws IOException {
+    }
+
+    String neuralNetworkJson = readFile("test-resources/network.json");
+
+    Random random = new Random(1000L);
+
+    static Path written(Net net) throws IOException {
+        Path path = Files.createTempFile("network", ".bin");
+        path.toFile().deleteOnExit();
+        try (OutputStream out = Files.newOutputStream(path)) {
+            net.writeTo(out);
+        }
+        return path;
+    }
+
+    double[] randomValues(int size) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble();
+        }
+        return values;
+    }
+
+    @Test
+    public void mappedPrediction() throws IOException {
+        Net net = new Net(neuralNetworkJson);
+        MappedNet mappedNet = MappedNet.open(written(net));
+        double[] inputValues = {1.0, 0.5625, 0.511111, 0.47619};
+        assertArrayEquals(net.predict(inputValues), mappedNet.predict(inputValues), 1e-12);
+        assertArrayEquals(net.compile().layerSizes(), mappedNet.layerSizes());
+    }
+
+    @Test
+    public void mappedPredictionWithWorkspace() throws IOException {
+        Net net = new Net(new int[]{50, 40, 30, 5}, 1000L);
+        MappedNet mappedNet = MappedNet.open(written(net));
+        Workspace workspace = mappedNet.workspace();
+        double[] outputValues = new double[5];
+        for (int r = 0; r < 10; r++) {
+            double[] inputValues = randomValues(50);
+            mappedNet.predict(inputValues, outputValues, workspace);
+            assertArrayEquals(mappedNet.predict(inputValues), outputValues, 0.0);
+            assertArrayEquals(net.compile().predict(inputValues), outputValues, 1e-12);
+        }
+    }
+
+    @Test
+    public void mappedNetIsCopied() throws IOException {
+        Net net = new Net(neuralNetworkJson);
+        assertEquals(net.json(), MappedNet.open(written(net)).net().json());
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedFile() throws IOException {
+        Path path = written(new Net(neuralNetworkJson));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, java.util.Arrays.copyOf(bytes, bytes.length - 8));
+        MappedNet.open(path);
+    }
+
+}
@@ -0,0 +1,121 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Fun;
+import com.github.mrdimosthenis.synapses.Net;
+import synapses.jvm.NetJ;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class NetJParityTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public NetJParityTest() throws IOException {
+    }
+
+    String neuralNetworkJson = readFile("test-resources/network.json");
+
+    // The vector kernels add the products in a different order, so their results differ in the last bits.
+    boolean vectorKernels = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && !"false".equals(System.getProperty("synapses.vector"));
+
+    double delta = vectorKernels ? 1e-9 : 0.0;
+
+    Random random = new Random(1000L);
+
+    double[] randomValues(int size) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble();
+        }
+        return values;
+    }
+
+    void assertSameNetwork(NetJ expected, Net actual, int inputSize) {
+        if (!vectorKernels) {
+            assertEquals(expected.json(), actual.json());
+        }
+        for (int i = 0; i < 5; i++) {
+            double[] inputValues = randomValues(inputSize);
+            double[] prediction = expected.predict(inputValues);
+            assertArrayEquals(prediction, actual.predict(inputValues), delta);
+            assertArrayEquals(expected.parPredict(inputValues), actual.parPredict(inputValues), delta);
+            double[] expectedOutput = randomValues(prediction.length);
+            assertArrayEquals(
+                    expected.errors(inputValues, expectedOutput, false),
+                    actual.errors(inputValues, expectedOutput, false),
+                    delta
+            );
+            assertArrayEquals(
+                    expected.errors(inputValues, expectedOutput, true),
+                    actual.errors(inputValues, expectedOutput, true),
+                    delta
+            );
+        }
+    }
+
+    void assertSameFits(NetJ expected, Net actual, int inputSize, int outputSize) {
+        assertSameNetwork(expected, actual, inputSize);
+        for (int i = 0; i < 20; i++) {
+            double[] inputValues = randomValues(inputSize);
+            double[] expectedOutput = randomValues(outputSize);
+            if (i % 2 == 0) {
+                expected = expected.fit(0.1, inputValues, expectedOutput);
+                actual.fit(0.1, inputValues, expectedOutput);
+            } else {
+                expected = expected.fitPar(0.1, inputValues, expectedOutput);
+                actual.fitPar(0.1, inputValues, expectedOutput);
+            }
+        }
+        assertSameNetwork(expected, actual, inputSize);
+    }
+
+    @Test
+    public void seedNetworksAreIdentical() {
+        int[][] layerSizes = {{4, 6, 5, 3}, {2, 3}, {10, 32, 16, 2}};
+        for (int[] sizes : layerSizes) {
+            for (long seed : new long[]{0L, 1000L}) {
+                assertSameFits(
+                        NetJ.apply(sizes, seed),
+                        new Net(sizes, seed),
+                        sizes[0],
+                        sizes[sizes.length - 1]
+                );
+            }
+        }
+    }
+
+    @Test
+    public void parsedNetworkIsIdentical() {
+        assertSameFits(NetJ.apply(neuralNetworkJson), new Net(neuralNetworkJson), 4, 3);
+    }
+
+    @Test
+    public void randomNetworksAreIdentical() {
+        int[] sizes = {5, 7, 4};
+        NetJ randomNet = NetJ.apply(sizes);
+        assertSameFits(randomNet, new Net(randomNet.json()), 5, 4);
+    }
+
+    @Test
+    public void networksOfEveryActivationAreIdentical() {
+        int[] sizes = {3, 8, 8, 8, 2};
+        Fun[] activations = {Fun.TANH, Fun.LEAKY_RE_LU, Fun.IDENTITY, Fun.SIGMOID};
+        Net net = new Net(sizes, i -> activations[i], i -> 1.0 - 2.0 * random.nextDouble());
+        assertSameFits(NetJ.apply(net.json()), net, 3, 2);
+    }
+
+}
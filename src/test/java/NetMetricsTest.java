@@ -0,0 +1,134 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Codec;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.NetMetrics;
+import com.github.mrdimosthenis.synapses.NetMetrics.Operation;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * @hidden
+ */
+public class NetMetricsTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public NetMetricsTest() throws IOException {
+    }
+
+    String neuralNetworkJson = readFile("test-resources/network.json");
+
+    String preprocessorJson = readFile("test-resources/preprocessor.json");
+
+    double[] inputValues = {1.0, 0.5625, 0.511111, 0.47619};
+
+    double[] expectedOutput = {0.4, 0.05, 0.2};
+
+    Net net() throws IOException {
+        return new Net(new StringReader(neuralNetworkJson));
+    }
+
+    @Test
+    public void callsAndSamplesAreCounted() throws IOException {
+        NetMetrics metrics = new NetMetrics();
+        Net net = net().metrics(metrics);
+        net.predict(inputValues);
+        net.predictBatch(new double[][]{inputValues, inputValues, inputValues});
+        net.fit(0.01, inputValues, expectedOutput);
+        net.fitBatch(0.01, new double[][]{inputValues, inputValues}, new double[][]{expectedOutput, expectedOutput});
+        assertEquals(2, metrics.calls(Operation.PREDICT));
+        assertEquals(4, metrics.samples(Operation.PREDICT));
+        assertEquals(2, metrics.calls(Operation.FIT));
+        assertEquals(3, metrics.samples(Operation.FIT));
+        assertEquals(0, metrics.calls(Operation.ENCODE));
+        assertTrue(metrics.nanoseconds(Operation.FIT) > 0);
+        assertTrue(metrics.samplesPerSecond(Operation.FIT) > 0.0);
+        assertTrue(metrics.toString().startsWith("PREDICT: 2 calls"));
+    }
+
+    @Test
+    public void predictionsAreUnaffected() throws IOException {
+        Net net = net();
+        Net meteredNet = net().metrics(new NetMetrics(true));
+        assertArrayEquals(net.predict(inputValues), meteredNet.predict(inputValues), 0.0);
+        net.fit(0.01, inputValues, expectedOutput);
+        meteredNet.fit(0.01, inputValues, expectedOutput);
+        assertEquals(net.json(), meteredNet.json());
+    }
+
+    @Test
+    public void listenerIsRemoved() throws IOException {
+        NetMetrics metrics = new NetMetrics();
+        Net net = net().metrics(metrics);
+        net.predict(inputValues);
+        net.metrics(null);
+        net.predict(inputValues);
+        assertEquals(1, metrics.calls(Operation.PREDICT));
+        metrics.reset();
+        assertEquals(0, metrics.calls(Operation.PREDICT));
+        assertEquals(0, metrics.percentileNanoseconds(Operation.PREDICT, 0.5));
+    }
+
+    @Test
+    public void codecCallsAreCounted() throws IOException {
+        NetMetrics metrics = new NetMetrics();
+        Codec codec = new Codec(new StringReader(preprocessorJson)).metrics(metrics);
+        Map<String, String> datapoint = new HashMap<>();
+        datapoint.put("label", "6");
+        for (int p = 0; p < 784; p++) {
+            datapoint.put("pixel" + p, "0");
+        }
+        double[] encodedValues = codec.encode(datapoint);
+        codec.decode(encodedValues);
+        codec.decode(encodedValues);
+        assertEquals(1, metrics.calls(Operation.ENCODE));
+        assertEquals(2, metrics.calls(Operation.DECODE));
+    }
+
+    @Test
+    public void allocationsAreMeasured() throws IOException {
+        NetMetrics metrics = new NetMetrics(true);
+        if (!metrics.tracksAllocations()) {
+            return;
+        }
+        Net net = net().metrics(metrics);
+        for (int i = 0; i < 100; i++) {
+            net.predictBatch(new double[][]{inputValues, inputValues});
+        }
+        assertTrue(metrics.bytesPerCall(Operation.PREDICT) > 0.0);
+        assertTrue(Double.isNaN(new NetMetrics().bytesPerCall(Operation.PREDICT)));
+    }
+
+    @Test
+    public void concurrentCallsAreCounted() throws IOException {
+        NetMetrics metrics = new NetMetrics();
+        Net net = net().metrics(metrics);
+        net.compile();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        pool.submit(() ->
+                IntStream.range(0, 10_000).parallel().forEach(i -> net.predict(inputValues))
+        ).join();
+        pool.shutdown();
+        assertEquals(10_000, metrics.calls(Operation.PREDICT));
+        long median = metrics.percentileNanoseconds(Operation.PREDICT, 0.5);
+        long slowest = metrics.percentileNanoseconds(Operation.PREDICT, 1.0);
+        assertTrue(median > 0);
+        assertTrue(median <= slowest);
+    }
+
+}
@@ -0,0 +1,184 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Optimizer;
+import com.github.mrdimosthenis.synapses.Stats;
+import com.github.mrdimosthenis.synapses.Trainer;
+import com.github.mrdimosthenis.synapses.TrainingPlan;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @hidden
+ */
+public class OptimizerTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public OptimizerTest() throws IOException {
+    }
+
+    String neuralNetworkJson = readFile("test-resources/network.json");
+
+    double[] inputValues = {1.0, 0.5625, 0.511111, 0.47619};
+
+    double[] expectedOutput = {0.4, 0.05, 0.2};
+
+    Random random = new Random(1000L);
+
+    double[][][] observations = observations(64);
+
+    /**
+     * Observations of a smooth function of two inputs, with three outputs.
+     */
+    double[][][] observations(int size) {
+        double[][][] pairs = new double[size][][];
+        for (int i = 0; i < size; i++) {
+            double x = random.nextDouble();
+            double y = random.nextDouble();
+            pairs[i] = new double[][]{
+                    {x, y},
+                    {x * y, 0.5 + 0.4 * Math.sin(3.0 * x), 1.0 - y * y}
+            };
+        }
+        return pairs;
+    }
+
+    double rmse(Trainer trainer) {
+        return Stats.rmse(Arrays.stream(observations)
+                .map(pair -> new double[][]{pair[1], trainer.predict(pair[0])}));
+    }
+
+    double rmseAfterTraining(Optimizer optimizer, double learningRate, int epochs) {
+        Net net = new Net(new int[]{2, 12, 3}, 1000L);
+        Trainer trainer = net.trainer(optimizer);
+        double[][] inputs = Arrays.stream(observations).map(pair -> pair[0]).toArray(double[][]::new);
+        double[][] outputs = Arrays.stream(observations).map(pair -> pair[1]).toArray(double[][]::new);
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            for (int from = 0; from < inputs.length; from += 8) {
+                trainer.fitBatch(
+                        learningRate,
+                        Arrays.copyOfRange(inputs, from, from + 8),
+                        Arrays.copyOfRange(outputs, from, from + 8)
+                );
+            }
+        }
+        return rmse(trainer);
+    }
+
+    @Test
+    public void sgdIsIdenticalToFit() {
+        Net net = new Net(neuralNetworkJson);
+        Trainer trainer = new Net(neuralNetworkJson).trainer(Optimizer.SGD);
+        for (int i = 0; i < 3; i++) {
+            net.fit(0.1, inputValues, expectedOutput);
+            trainer.fit(0.1, inputValues, expectedOutput);
+        }
+        assertArrayEquals(net.predict(inputValues), trainer.predict(inputValues), 0.0);
+    }
+
+    @Test
+    public void momentumWithoutMomentumIsSgd() {
+        Trainer sgd = new Net(neuralNetworkJson).trainer();
+        Trainer momentum = new Net(neuralNetworkJson).trainer(Optimizer.momentum(0.0));
+        for (int i = 0; i < 3; i++) {
+            sgd.fit(0.1, inputValues, expectedOutput);
+            momentum.fit(0.1, inputValues, expectedOutput);
+        }
+        assertArrayEquals(sgd.predict(inputValues), momentum.predict(inputValues), 1e-12);
+    }
+
+    @Test
+    public void stateIsCarriedFromFitToFit() {
+        Trainer sgd = new Net(neuralNetworkJson).trainer();
+        Trainer momentum = new Net(neuralNetworkJson).trainer(Optimizer.momentum(0.9));
+        sgd.fit(0.1, inputValues, expectedOutput);
+        momentum.fit(0.1, inputValues, expectedOutput);
+        assertArrayEquals(sgd.predict(inputValues), momentum.predict(inputValues), 1e-12);
+        sgd.fit(0.1, inputValues, expectedOutput);
+        momentum.fit(0.1, inputValues, expectedOutput);
+        assertFalse(Arrays.equals(sgd.predict(inputValues), momentum.predict(inputValues)));
+    }
+
+    @Test
+    public void batchOfOneIsSingleFit() {
+        for (Optimizer optimizer : new Optimizer[]{Optimizer.momentum(0.9), Optimizer.nesterov(0.9), Optimizer.adam()}) {
+            Trainer single = new Net(neuralNetworkJson).trainer(optimizer);
+            Trainer batched = new Net(neuralNetworkJson).trainer(optimizer);
+            for (int i = 0; i < 3; i++) {
+                single.fit(0.01, inputValues, expectedOutput);
+                batched.fitBatch(0.01, new double[][]{inputValues}, new double[][]{expectedOutput});
+            }
+            assertArrayEquals(single.predict(inputValues), batched.predict(inputValues), 0.0);
+        }
+    }
+
+    @Test
+    public void parallelBatchesAreIdentical() {
+        double[][] inputs = Arrays.stream(observations).map(pair -> pair[0]).toArray(double[][]::new);
+        double[][] outputs = Arrays.stream(observations).map(pair -> pair[1]).toArray(double[][]::new);
+        Net net = new Net(new int[]{2, 12, 3}, 1000L);
+        Trainer sequential = net.trainer(Optimizer.adam());
+        Trainer parallel = net.trainer(Optimizer.adam());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int i = 0; i < 5; i++) {
+            sequential.fitBatch(0.01, inputs, outputs);
+            parallel.fitBatchPar(0.01, inputs, outputs, pool);
+        }
+        pool.shutdown();
+        assertEquals(sequential.net().json(), parallel.net().json());
+    }
+
+    @Test
+    public void optimizersReduceTheError() {
+        double initial = rmse(new Net(new int[]{2, 12, 3}, 1000L).trainer());
+        assertTrue(rmseAfterTraining(Optimizer.SGD, 0.5, 50) < initial);
+        assertTrue(rmseAfterTraining(Optimizer.momentum(0.9), 0.05, 50) < initial);
+        assertTrue(rmseAfterTraining(Optimizer.nesterov(0.9), 0.05, 50) < initial);
+        assertTrue(rmseAfterTraining(Optimizer.adam(), 0.01, 50) < initial);
+    }
+
+    @Test
+    public void adaptiveOptimizersConvergeFaster() {
+        double sgd = rmseAfterTraining(Optimizer.SGD, 0.5, 50);
+        assertTrue(rmseAfterTraining(Optimizer.momentum(0.9), 0.5, 50) < sgd);
+        assertTrue(rmseAfterTraining(Optimizer.adam(), 0.01, 50) < sgd);
+    }
+
+    @Test
+    public void trainingPlanWithOptimizer() {
+        Net net = new Net(new int[]{2, 12, 3}, 1000L);
+        double initial = rmse(net.trainer());
+        Net trainedNet = new TrainingPlan(() -> Arrays.stream(observations), 30, 8, 0.01, 0.0)
+                .optimizer(Optimizer.adam())
+                .patience(30)
+                .seed(1L)
+                .train(net);
+        assertTrue(rmse(trainedNet.trainer()) < initial);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void hogwildNeedsSgd() {
+        new Net(neuralNetworkJson)
+                .trainer(Optimizer.adam())
+                .fitHogwild(0.01, Arrays.stream(new double[][][]{{inputValues, expectedOutput}}), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidMomentum() {
+        Optimizer.nesterov(1.0);
+    }
+
+}
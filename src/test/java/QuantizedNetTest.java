@@ -0,0 +1,73 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Fun;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.QuantizedNet;
+
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class QuantizedNetTest {
+
+    Random random = new Random(1000L);
+
+    double[][] randomValues(int rows, int size) {
+        double[][] values = new double[rows][size];
+        for (int r = 0; r < rows; r++) {
+            for (int i = 0; i < size; i++) {
+                values[r][i] = random.nextDouble();
+            }
+        }
+        return values;
+    }
+
+    Net neuralNetwork = new Net(new int[]{20, 30, 10, 4}, 1000L);
+
+    double[][] calibrationInputs = randomValues(200, 20);
+
+    @Test
+    public void quantizedPredictionIsClose() {
+        QuantizedNet quantizedNet = neuralNetwork.quantize(calibrationInputs);
+        assertTrue(quantizedNet.calibrationError() < 0.05);
+        for (double[] input : randomValues(50, 20)) {
+            assertArrayEquals(neuralNetwork.predict(input), quantizedNet.predict(input), 0.05);
+        }
+    }
+
+    @Test
+    public void calibrationErrorIsMaximum() {
+        QuantizedNet quantizedNet = neuralNetwork.quantize(calibrationInputs);
+        double error = 0.0;
+        for (double[] input : calibrationInputs) {
+            double[] prediction = neuralNetwork.predict(input);
+            double[] quantizedPrediction = quantizedNet.predict(input);
+            for (int n = 0; n < prediction.length; n++) {
+                error = Math.max(error, Math.abs(prediction[n] - quantizedPrediction[n]));
+            }
+        }
+        assertEquals(error, quantizedNet.calibrationError(), 0.0);
+        assertArrayEquals(new int[]{20, 30, 10, 4}, quantizedNet.layerSizes());
+    }
+
+    @Test
+    public void quantizedIdentityNetwork() {
+        Net net = new Net(
+                new int[]{3, 5, 2},
+                layerIndex -> Fun.IDENTITY,
+                layerIndex -> 2.0 * random.nextDouble() - 1.0
+        );
+        double[][] inputs = randomValues(100, 3);
+        QuantizedNet quantizedNet = net.quantize(inputs);
+        assertTrue(quantizedNet.calibrationError() < 0.1);
+        assertTrue(quantizedNet.calibrationError() > 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noCalibrationInputs() {
+        neuralNetwork.quantize(new double[0][]);
+    }
+
+}
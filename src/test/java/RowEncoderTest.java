@@ -0,0 +1,264 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Attribute;
+import com.github.mrdimosthenis.synapses.Codec;
+import com.github.mrdimosthenis.synapses.RowEncoder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class RowEncoderTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public RowEncoderTest() throws IOException {
+    }
+
+    String preprocessorJson = readFile("test-resources/preprocessor.json");
+
+    Random random = new Random(1000L);
+
+    static Map<String, String> datapoint(String petalLength, String species) {
+        Map<String, String> datapoint = new HashMap<>();
+        datapoint.put("petal_length", petalLength);
+        datapoint.put("species", species);
+        return datapoint;
+    }
+
+    Attribute[] attributes = {
+            new Attribute("petal_length", false),
+            new Attribute("species", true)
+    };
+
+    @SuppressWarnings("unchecked")
+    Codec codec = new Codec(attributes, Arrays.stream(new Map[]{
+            datapoint("1.5", "setosa"),
+            datapoint("3.8", "versicolor"),
+            datapoint("6.0", "virginica")
+    }));
+
+    /**
+     * A codec whose only attribute is scaled between 0.0 and 1.0, so that it encodes a number as itself.
+     */
+    @SuppressWarnings("unchecked")
+    Codec unitCodec = new Codec(new Attribute[]{new Attribute("x", false)}, Arrays.stream(new Map[]{
+            Map.of("x", "0"),
+            Map.of("x", "1")
+    }));
+
+    Map<String, String> mnistDatapoint() {
+        Map<String, String> datapoint = new HashMap<>();
+        datapoint.put("label", Integer.toString(random.nextInt(10)));
+        for (int p = 0; p < 784; p++) {
+            datapoint.put("pixel" + p, Integer.toString(random.nextInt(4) == 0 ? random.nextInt(256) : 0));
+        }
+        return datapoint;
+    }
+
+    static String[] row(Map<String, String> datapoint, String[] columns) {
+        return Arrays.stream(columns).map(datapoint::get).toArray(String[]::new);
+    }
+
+    static String[] mnistColumns() {
+        String[] columns = new String[785];
+        columns[0] = "label";
+        for (int p = 0; p < 784; p++) {
+            columns[p + 1] = "pixel" + p;
+        }
+        return columns;
+    }
+
+    static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    public void rowsAreEncodedAsDatapoints() {
+        RowEncoder encoder = codec.rowEncoder();
+        assertEquals(4, encoder.size());
+        for (String[] row : new String[][]{{"1.5", "setosa"}, {"4.2", "virginica"}, {"2.75", "versicolor"}}) {
+            assertArrayEquals(codec.encode(datapoint(row[0], row[1])), encoder.encode(row), 0.0);
+        }
+    }
+
+    @Test
+    public void rowsInTheOrderOfColumns() {
+        RowEncoder encoder = codec.rowEncoder(new String[]{"id", "species", "petal_width", "petal_length"});
+        assertArrayEquals(
+                codec.encode(datapoint("4.2", "versicolor")),
+                encoder.encode(new String[]{"17", "versicolor", "1.3", "4.2"}),
+                0.0
+        );
+    }
+
+    @Test
+    public void irisRowsAreEncodedAsDatapoints() {
+        String[] columns = {"species", "sepal_length", "sepal_width", "petal_length", "petal_width"};
+        String[][] rows = {
+                {"setosa", "4.9", "3.1", "1.5", "0.1"},
+                {"versicolor", "5.5", "2.4", "3.8", "1.1"},
+                {"virginica", "5.0", "1.5", "6.0", "2.2"}
+        };
+        Map<String, String>[] datapoints = irisDatapoints(columns, rows);
+        @SuppressWarnings("unchecked")
+        Codec irisCodec = new Codec(
+                new Attribute[]{
+                        new Attribute("petal_length", false),
+                        new Attribute("petal_width", false),
+                        new Attribute("sepal_length", false),
+                        new Attribute("sepal_width", false),
+                        new Attribute("species", true)
+                },
+                Arrays.stream(datapoints)
+        );
+        RowEncoder encoder = irisCodec.rowEncoder(columns);
+        double[] buffer = new double[encoder.size()];
+        for (int r = 0; r < rows.length; r++) {
+            encoder.encode(rows[r], buffer, 0);
+            assertArrayEquals(irisCodec.encode(datapoints[r]), buffer, 0.0);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, String>[] irisDatapoints(String[] columns, String[][] rows) {
+        Map<String, String>[] datapoints = new Map[rows.length];
+        for (int r = 0; r < rows.length; r++) {
+            datapoints[r] = new HashMap<>();
+            for (int c = 0; c < columns.length; c++) {
+                datapoints[r].put(columns[c], rows[r][c]);
+            }
+        }
+        return datapoints;
+    }
+
+    @Test
+    public void rowsAreEncodedAtAnOffset() {
+        RowEncoder encoder = codec.rowEncoder();
+        double[] encodedValues = new double[2 * encoder.size() + 1];
+        encoder.encode(new String[]{"1.5", "setosa"}, encodedValues, 1);
+        encoder.encode(new StringBuilder[]{new StringBuilder("6.0"), new StringBuilder("virginica")},
+                encodedValues, 1 + encoder.size());
+        assertEquals(0.0, encodedValues[0], 0.0);
+        assertArrayEquals(
+                codec.encode(datapoint("1.5", "setosa")),
+                Arrays.copyOfRange(encodedValues, 1, 1 + encoder.size()),
+                0.0
+        );
+        assertArrayEquals(
+                codec.encode(datapoint("6.0", "virginica")),
+                Arrays.copyOfRange(encodedValues, 1 + encoder.size(), encodedValues.length),
+                0.0
+        );
+    }
+
+    @Test
+    public void unknownValuesAreEncodedAsDatapoints() {
+        assertArrayEquals(
+                codec.encode(datapoint("3.0", "unknown")),
+                codec.rowEncoder().encode(new String[]{"3.0", "unknown"}),
+                0.0
+        );
+    }
+
+    @Test
+    public void numbersAreParsedExactly() {
+        RowEncoder encoder = unitCodec.rowEncoder();
+        String[] numbers = {
+                "0", "1", "-0.0", "+2.5", ".5", "5.", "0.1", "0.30000000000000004", "1e5", "1.5E-3", "2e+22",
+                "9007199254740993", "123456789012345678901234567890", "1e-400", "1e400", "4.9e-324",
+                " 7.25 ", "1d", "0x1p3", "NaN", "-Infinity"
+        };
+        for (String number : numbers) {
+            assertEquals(number, Double.parseDouble(number), encoder.encode(new String[]{number})[0], 0.0);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 10);
+            for (String number : new String[]{
+                    Double.toString(value),
+                    String.format(Locale.ROOT, "%.4f", value),
+                    String.format(Locale.ROOT, "%.12e", value)
+            }) {
+                assertEquals(number, Double.parseDouble(number), encoder.encode(new String[]{number})[0], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void mnistRowsAreEncodedAsDatapoints() {
+        Codec mnistCodec = new Codec(preprocessorJson);
+        String[] columns = mnistColumns();
+        RowEncoder encoder = mnistCodec.rowEncoder(columns);
+        for (int i = 0; i < 20; i++) {
+            Map<String, String> datapoint = mnistDatapoint();
+            assertArrayEquals(mnistCodec.encode(datapoint), encoder.encode(row(datapoint, columns)), 0.0);
+        }
+    }
+
+    @Test
+    public void encodingDoesNotAllocate() {
+        Codec mnistCodec = new Codec(preprocessorJson);
+        String[] columns = mnistColumns();
+        RowEncoder encoder = mnistCodec.rowEncoder(columns);
+        String[][] rows = new String[16][];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = row(mnistDatapoint(), columns);
+        }
+        double[] encodedValues = new double[rows.length * encoder.size()];
+        // warm up, so the loop is jitted
+        for (int i = 0; i < 2_000; i++) {
+            encoder.encode(rows[i % rows.length], encodedValues, (i % rows.length) * encoder.size());
+        }
+        // the JIT may allocate while it recompiles, so the cleanest of a few measurements counts
+        long difference = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < 5 && difference != 0; attempt++) {
+            long before = allocatedBytes();
+            long overhead = allocatedBytes() - before;
+            before = allocatedBytes();
+            for (int i = 0; i < 1_000; i++) {
+                encoder.encode(rows[i % rows.length], encodedValues, (i % rows.length) * encoder.size());
+            }
+            difference = Math.abs(allocatedBytes() - before - overhead);
+        }
+        assertEquals(0, difference);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingColumn() {
+        codec.rowEncoder(new String[]{"species", "petal_width"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shortRow() {
+        codec.rowEncoder().encode(new String[]{"1.5"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encodedValuesDoNotFit() {
+        codec.rowEncoder().encode(new String[]{"1.5", "setosa"}, new double[5], 2);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void notANumber() {
+        codec.rowEncoder().encode(new String[]{"1.5.2", "setosa"});
+    }
+
+}
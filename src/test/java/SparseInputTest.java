@@ -0,0 +1,124 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.CompiledNet;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Optimizer;
+import com.github.mrdimosthenis.synapses.Trainer;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * @hidden
+ */
+public class SparseInputTest {
+
+    Random random = new Random(1000L);
+
+    int[] layerSizes = {50, 20, 10, 3};
+
+    double[] expectedOutput = {0.4, 0.05, 0.2};
+
+    /**
+     * A dense input whose values are zero nine times out of ten.
+     */
+    double[] denseInput() {
+        double[] values = new double[layerSizes[0]];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(10) == 0 ? random.nextDouble() : 0.0;
+        }
+        return values;
+    }
+
+    static int[] indices(double[] dense) {
+        return IntStream.range(0, dense.length).filter(i -> dense[i] != 0.0).toArray();
+    }
+
+    static double[] values(double[] dense) {
+        return IntStream.range(0, dense.length).filter(i -> dense[i] != 0.0).mapToDouble(i -> dense[i]).toArray();
+    }
+
+    @Test
+    public void sparsePredictions() {
+        Net net = new Net(layerSizes, 1000L);
+        CompiledNet compiledNet = net.compile();
+        Trainer trainer = net.trainer();
+        for (int i = 0; i < 20; i++) {
+            double[] dense = denseInput();
+            double[] expected = compiledNet.predict(dense);
+            assertArrayEquals(expected, compiledNet.predict(indices(dense), values(dense)), 1e-12);
+            assertArrayEquals(expected, net.predict(indices(dense), values(dense)), 1e-12);
+            assertArrayEquals(expected, trainer.predict(indices(dense), values(dense)), 1e-12);
+        }
+    }
+
+    @Test
+    public void emptyInput() {
+        CompiledNet compiledNet = new Net(layerSizes, 1000L).compile();
+        assertArrayEquals(
+                compiledNet.predict(new double[layerSizes[0]]),
+                compiledNet.predict(new int[0], new double[0]),
+                1e-12
+        );
+    }
+
+    @Test
+    public void sparseFits() {
+        Net denseNet = new Net(layerSizes, 1000L);
+        Net sparseNet = new Net(layerSizes, 1000L);
+        for (int i = 0; i < 20; i++) {
+            double[] dense = denseInput();
+            denseNet.fit(0.1, dense, expectedOutput);
+            sparseNet.fit(0.1, indices(dense), values(dense), expectedOutput);
+        }
+        double[] input = denseInput();
+        assertArrayEquals(denseNet.predict(input), sparseNet.predict(input), 1e-12);
+    }
+
+    @Test
+    public void sparseFitsDoNotAffectCompiledForm() {
+        Net net = new Net(layerSizes, 1000L);
+        CompiledNet compiledNet = net.compile();
+        double[] input = denseInput();
+        double[] prediction = compiledNet.predict(input);
+        for (int i = 0; i < 5; i++) {
+            double[] dense = denseInput();
+            net.fit(0.1, indices(dense), values(dense), expectedOutput);
+        }
+        assertArrayEquals(prediction, compiledNet.predict(input), 0.0);
+        assertNotEquals(prediction[0], net.predict(input)[0], 0.0);
+    }
+
+    @Test
+    public void sparseTrainerFits() {
+        for (Optimizer optimizer : new Optimizer[]{Optimizer.SGD, Optimizer.momentum(0.9), Optimizer.adam()}) {
+            Net net = new Net(layerSizes, 1000L);
+            Trainer denseTrainer = net.trainer(optimizer);
+            Trainer sparseTrainer = net.trainer(optimizer);
+            for (int i = 0; i < 20; i++) {
+                double[] dense = denseInput();
+                denseTrainer.fit(0.01, dense, expectedOutput);
+                sparseTrainer.fit(0.01, indices(dense), values(dense), expectedOutput);
+            }
+            double[] input = denseInput();
+            assertArrayEquals(denseTrainer.predict(input), sparseTrainer.predict(input), 1e-12);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchedValues() {
+        new Net(layerSizes, 1000L).predict(new int[]{1, 2}, new double[]{0.5});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unorderedIndices() {
+        new Net(layerSizes, 1000L).predict(new int[]{2, 1}, new double[]{0.5, 0.5});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void indexOutOfInputLayer() {
+        new Net(layerSizes, 1000L).trainer().fit(0.1, new int[]{50}, new double[]{0.5}, expectedOutput);
+    }
+
+}
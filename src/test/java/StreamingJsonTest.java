@@ -0,0 +1,177 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Attribute;
+import com.github.mrdimosthenis.synapses.Codec;
+import com.github.mrdimosthenis.synapses.Net;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @hidden
+ */
+public class StreamingJsonTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    static Reader fileReader(String path) throws IOException {
+        return Files.newBufferedReader(Paths.get(path), StandardCharsets.US_ASCII);
+    }
+
+    public StreamingJsonTest() throws IOException {
+    }
+
+    String neuralNetworkJson = readFile("test-resources/network.json");
+
+    String preprocessorJson = readFile("test-resources/preprocessor.json");
+
+    static String written(Net net) throws IOException {
+        StringWriter writer = new StringWriter();
+        net.writeJson(writer);
+        return writer.toString();
+    }
+
+    static String written(Codec codec) throws IOException {
+        StringWriter writer = new StringWriter();
+        codec.writeJson(writer);
+        return writer.toString();
+    }
+
+    @Test
+    public void netIsReadIncrementally() throws IOException {
+        Net net;
+        try (Reader reader = fileReader("test-resources/network.json")) {
+            net = new Net(reader);
+        }
+        Net parsedNet = new Net(neuralNetworkJson);
+        assertEquals(parsedNet.json(), net.json());
+        double[] inputValues = {1.0, 0.5625, 0.511111, 0.47619};
+        assertArrayEquals(parsedNet.predict(inputValues), net.predict(inputValues), 0.0);
+    }
+
+    @Test
+    public void netIsWrittenIncrementally() throws IOException {
+        Net parsedNet = new Net(neuralNetworkJson);
+        assertEquals(parsedNet.json(), written(parsedNet));
+        Net batchFittedNet = new Net(neuralNetworkJson);
+        batchFittedNet.fitBatch(
+                0.01,
+                new double[][]{{1.0, 0.5625, 0.511111, 0.47619}},
+                new double[][]{{0.4, 0.05, 0.2}}
+        );
+        assertEquals(batchFittedNet.json(), written(batchFittedNet));
+    }
+
+    @Test
+    public void codecIsReadIncrementally() throws IOException {
+        Codec codec;
+        try (Reader reader = fileReader("test-resources/preprocessor.json")) {
+            codec = new Codec(reader);
+        }
+        Codec parsedCodec = new Codec(preprocessorJson);
+        assertEquals(parsedCodec.json(), codec.json());
+        assertEquals(parsedCodec.json(), written(codec));
+        assertEquals(parsedCodec.json(), written(parsedCodec));
+    }
+
+    @Test
+    public void codecReadIncrementallyEncodes() throws IOException {
+        Map<String, String> setosa = new HashMap<>();
+        setosa.put("petal_length", "1.5");
+        setosa.put("species", "setosa");
+        Map<String, String> versicolor = new HashMap<>();
+        versicolor.put("petal_length", "3.8");
+        versicolor.put("species", "versicolor");
+        Attribute[] attributes = {
+                new Attribute("petal_length", false),
+                new Attribute("species", true)
+        };
+        Codec codec = new Codec(attributes, Arrays.stream(new Map[]{setosa, versicolor}));
+        Codec streamedCodec = new Codec(new StringReader(written(codec)));
+        assertEquals(codec.json(), streamedCodec.json());
+        assertArrayEquals(codec.encode(versicolor), streamedCodec.encode(versicolor), 0.0);
+        double[] encodedValues = {0.3, 0.2, 0.7};
+        assertEquals(codec.decode(encodedValues), streamedCodec.decode(encodedValues));
+    }
+
+    static void assertMalformedNet(String json) throws IOException {
+        try {
+            new Net(new StringReader(json));
+            fail("Expected malformed JSON: " + json);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Malformed JSON"));
+        }
+    }
+
+    static void assertMalformedCodec(String json) throws IOException {
+        try {
+            new Codec(new StringReader(json));
+            fail("Expected malformed JSON: " + json);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Malformed JSON"));
+        }
+    }
+
+    @Test
+    public void commasAreRequiredBetweenElements() throws IOException {
+        assertMalformedNet("[[{\"activationF\" : \"sigmoid\", \"weights\" : [0.1 0.2]}]]");
+        assertMalformedNet("[[{\"activationF\" : \"sigmoid\" \"weights\" : [0.1, 0.2]}]]");
+        assertMalformedNet("[[{\"activationF\" : \"sigmoid\", \"weights\" : [0.1,, 0.2]}]]");
+    }
+
+    @Test
+    public void leadingAndTrailingCommasAreRejected() throws IOException {
+        assertMalformedNet("[[{\"activationF\" : \"sigmoid\", \"weights\" : [0.1, 0.2,]}]]");
+        assertMalformedNet("[[{\"activationF\" : \"sigmoid\", \"weights\" : [, 0.1, 0.2]}]]");
+        assertMalformedNet("[[{\"activationF\" : \"sigmoid\", \"weights\" : [0.1, 0.2],}]]");
+        assertMalformedNet("[[{\"activationF\" : \"sigmoid\", \"weights\" : [0.1, 0.2]}],]");
+    }
+
+    @Test
+    public void contentAfterTheDocumentIsRejected() throws IOException {
+        String json = "[[{\"activationF\" : \"sigmoid\", \"weights\" : [0.1, 0.2]}]]";
+        new Net(new StringReader(json + "\n"));
+        assertMalformedNet(json + "]");
+        assertMalformedNet(json + " [[]]");
+        assertMalformedCodec(written(new Codec(preprocessorJson)) + "x");
+    }
+
+    @Test
+    public void truncatedDocumentsAreRejected() throws IOException {
+        assertMalformedNet("[[{\"activationF\" : \"sigmoid\", \"weights\" : [0.1, 0.2");
+        assertMalformedNet("[[{\"activationF\" : \"sigmoid\", \"weights\" : [0.1, 0.2]}");
+        String codecJson = written(new Codec(preprocessorJson));
+        assertMalformedCodec(codecJson.substring(0, codecJson.length() / 2));
+    }
+
+    @Test
+    public void invalidNumbersAreRejected() throws IOException {
+        assertMalformedNet("[[{\"activationF\" : \"sigmoid\", \"weights\" : [0.1, 1-2]}]]");
+    }
+
+    @Test
+    public void literalsOfUnknownFieldsAreSkipped() throws IOException {
+        Net net = new Net(new StringReader(
+                "[[{\"activationF\" : \"sigmoid\", \"trainable\" : true, \"frozen\" : false, " +
+                        "\"comment\" : null, \"weights\" : [0.1, 0.2]}]]"
+        ));
+        Net expectedNet = new Net("[[{\"activationF\" : \"sigmoid\", \"weights\" : [0.1, 0.2]}]]");
+        assertEquals(expectedNet.json(), net.json());
+        assertMalformedNet("[[{\"activationF\" : \"sigmoid\", \"trainable\" : ture, \"weights\" : [0.1, 0.2]}]]");
+    }
+
+}
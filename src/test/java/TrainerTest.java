@@ -0,0 +1,102 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Trainer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class TrainerTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public TrainerTest() throws IOException {
+    }
+
+    String neuralNetworkJson = readFile("test-resources/network.json");
+
+    Net neuralNetwork = new Net(neuralNetworkJson);
+
+    double[] inputValues = {1.0, 0.5625, 0.511111, 0.47619};
+
+    double[] expectedOutput = {0.4, 0.05, 0.2};
+
+    double learningRate = 0.01;
+
+    Random random = new Random(1000L);
+
+    double[][] randomValues(int rows, int size) {
+        double[][] values = new double[rows][size];
+        for (int r = 0; r < rows; r++) {
+            for (int i = 0; i < size; i++) {
+                values[r][i] = random.nextDouble();
+            }
+        }
+        return values;
+    }
+
+    @Test
+    public void trainerFitIsNetFit() {
+        Trainer trainer = neuralNetwork.trainer();
+        double[][] inputs = randomValues(30, 4);
+        double[][] outputs = randomValues(30, 3);
+        for (int i = 0; i < inputs.length; i++) {
+            neuralNetwork.fit(learningRate, inputs[i], outputs[i]);
+            trainer.fit(learningRate, inputs[i], outputs[i]);
+        }
+        assertEquals(neuralNetwork.json(), trainer.net().json());
+    }
+
+    @Test
+    public void trainerFitBatchIsNetFitBatch() {
+        Trainer trainer = neuralNetwork.trainer();
+        double[][] inputs = randomValues(30, 4);
+        double[][] outputs = randomValues(30, 3);
+        neuralNetwork.fitBatch(learningRate, inputs, outputs);
+        trainer.fitBatch(learningRate, inputs, outputs);
+        assertEquals(neuralNetwork.json(), trainer.net().json());
+    }
+
+    @Test
+    public void trainerDoesNotAffectNet() {
+        String json = neuralNetwork.json();
+        Trainer trainer = neuralNetwork.trainer();
+        trainer.fit(learningRate, inputValues, expectedOutput);
+        assertEquals(json, neuralNetwork.json());
+    }
+
+    @Test
+    public void trainedNetIsSnapshot() {
+        Trainer trainer = neuralNetwork.trainer();
+        trainer.fit(learningRate, inputValues, expectedOutput);
+        Net trainedNet = trainer.net();
+        double[] prediction = trainedNet.predict(inputValues);
+        trainer.fit(learningRate, inputValues, expectedOutput);
+        assertArrayEquals(prediction, trainedNet.predict(inputValues), 0.0);
+        assertArrayEquals(
+                new double[]{-0.006109464554743645, -0.1770428172237149, 0.6087944183600162},
+                prediction,
+                0.0001
+        );
+    }
+
+    @Test
+    public void trainerPrediction() {
+        Trainer trainer = neuralNetwork.trainer();
+        trainer.fit(learningRate, inputValues, expectedOutput);
+        assertArrayEquals(trainer.net().predict(inputValues), trainer.predict(inputValues), 0.0);
+    }
+
+}
@@ -0,0 +1,124 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.TrainingPlan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * @hidden
+ */
+public class TrainingPlanTest {
+
+    Random random = new Random(1000L);
+
+    double[][][] observations = dataset(200);
+
+    Supplier<Stream<double[][]>> dataset = () -> Arrays.stream(observations);
+
+    double[][][] dataset(int size) {
+        double[][][] values = new double[size][][];
+        for (int r = 0; r < size; r++) {
+            double[] input = {random.nextDouble(), random.nextDouble(), random.nextDouble()};
+            double[] output = input[0] > input[1] ? new double[]{1.0, 0.0} : new double[]{0.0, 1.0};
+            values[r] = new double[][]{input, output};
+        }
+        return values;
+    }
+
+    @Test
+    public void trainingIsRepeatableWithSeed() {
+        TrainingPlan plan = new TrainingPlan(dataset, 5, 16, 0.5, 0.2)
+                .shuffleBuffer(50)
+                .seed(42L);
+        Net net = new Net(new int[]{3, 4, 2}, 1000L);
+        assertEquals(plan.train(net).json(), plan.train(net).json());
+    }
+
+    @Test
+    public void parallelTrainingIsSequentialTraining() {
+        Net net = new Net(new int[]{3, 4, 2}, 1000L);
+        Net trainedNet = new TrainingPlan(dataset, 5, 32, 0.5, 0.2)
+                .seed(42L)
+                .train(net);
+        Net parTrainedNet = new TrainingPlan(dataset, 5, 32, 0.5, 0.2)
+                .seed(42L)
+                .inParallel(true)
+                .train(net);
+        assertEquals(trainedNet.json(), parTrainedNet.json());
+    }
+
+    @Test
+    public void trainingStopsWithoutImprovement() {
+        List<TrainingPlan.Epoch> epochs = new ArrayList<>();
+        Net net = new Net(new int[]{3, 4, 2}, 1000L);
+        Net trainedNet = new TrainingPlan(dataset, 100, 16, 0.0, 0.2)
+                .patience(2)
+                .seed(42L)
+                .onEpoch(epochs::add)
+                .train(net);
+        assertEquals(3, epochs.size());
+        assertEquals(net.json(), trainedNet.json());
+    }
+
+    @Test
+    public void trainingReducesValidationError() {
+        List<TrainingPlan.Epoch> epochs = new ArrayList<>();
+        new TrainingPlan(dataset, 30, 8, 0.5, 0.25)
+                .patience(30)
+                .seed(42L)
+                .onEpoch(epochs::add)
+                .train(new Net(new int[]{3, 4, 2}, 1000L));
+        assertEquals(30, epochs.size());
+        assertTrue(epochs.get(29).validationRmse < epochs.get(0).validationRmse);
+        assertTrue(epochs.get(29).validationScore >= 0.0 && epochs.get(29).validationScore <= 1.0);
+    }
+
+    @Test
+    public void trainingWithoutValidation() {
+        List<TrainingPlan.Epoch> epochs = new ArrayList<>();
+        new TrainingPlan(dataset, 2, 16, 0.5, 0.0)
+                .onEpoch(epochs::add)
+                .train(new Net(new int[]{3, 4, 2}, 1000L));
+        assertEquals(2, epochs.size());
+        assertTrue(Double.isNaN(epochs.get(0).validationRmse));
+        assertFalse(Double.isNaN(epochs.get(0).trainingRmse));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeEpochs() {
+        new TrainingPlan(dataset, -1, 16, 0.5, 0.2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroBatchSize() {
+        new TrainingPlan(dataset, 5, 0, 0.5, 0.2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void validationSplitAboveOne() {
+        new TrainingPlan(dataset, 5, 16, 0.5, 1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeValidationSplit() {
+        new TrainingPlan(dataset, 5, 16, 0.5, -0.1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroPatience() {
+        new TrainingPlan(dataset, 5, 16, 0.5, 0.2).patience(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroShuffleBuffer() {
+        new TrainingPlan(dataset, 5, 16, 0.5, 0.2).shuffleBuffer(0);
+    }
+
+}
@@ -0,0 +1,91 @@
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNotNull;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Net;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Random;
+
+/**
+ * @hidden
+ */
+public class VectorKernelTest {
+
+    Random random = new Random(1000L);
+
+    Object vectorKernel = vectorKernel();
+
+    static Object vectorKernel() {
+        try {
+            Class<?> kernelClass = Class.forName("com.github.mrdimosthenis.synapses.VectorKernel");
+            Constructor<?> constructor = kernelClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    Object invoke(String name, Class<?>[] types, Object... args) throws ReflectiveOperationException {
+        Method method = vectorKernel.getClass().getDeclaredMethod(name, types);
+        method.setAccessible(true);
+        return method.invoke(vectorKernel, args);
+    }
+
+    double[] randomValues(int size) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = 2.0 * random.nextDouble() - 1.0;
+        }
+        return values;
+    }
+
+    @Test
+    public void vectorDotIsScalarDot() throws ReflectiveOperationException {
+        assumeNotNull(vectorKernel);
+        Class<?>[] types = {double[].class, int.class, double[].class, int.class, int.class, double.class};
+        for (int length : new int[]{0, 1, 3, 8, 17, 100, 1031}) {
+            double[] a = randomValues(length + 5);
+            double[] b = randomValues(length + 2);
+            double expected = 0.5;
+            double magnitude = 0.5;
+            for (int i = 0; i < length; i++) {
+                expected += a[5 + i] * b[2 + i];
+                magnitude += Math.abs(a[5 + i] * b[2 + i]);
+            }
+            double actual = (double) invoke("dot", types, a, 5, b, 2, length, 0.5);
+            assertEquals(expected, actual, 4 * length * Math.ulp(magnitude));
+        }
+    }
+
+    @Test
+    public void vectorAxpyIsScalarAxpy() throws ReflectiveOperationException {
+        assumeNotNull(vectorKernel);
+        Class<?>[] types = {double.class, double[].class, int.class, double[].class, int.class, int.class};
+        for (int length : new int[]{0, 1, 3, 8, 17, 100, 1031}) {
+            double[] x = randomValues(length + 1);
+            double[] y = randomValues(length + 3);
+            double[] expected = y.clone();
+            for (int i = 0; i < length; i++) {
+                expected[3 + i] += -0.25 * x[1 + i];
+            }
+            invoke("axpy", types, -0.25, x, 1, y, 3, length);
+            assertArrayEquals(expected, y, 0.0);
+        }
+    }
+
+    @Test
+    public void predictionAndFitOfWideLayers() {
+        Net net = new Net(new int[]{500, 200, 4}, 1000L);
+        Net jsonNet = new Net(net.json());
+        double[] inputValues = randomValues(500);
+        double[] expectedOutput = {0.1, 0.9, 0.3, 0.5};
+        assertArrayEquals(net.compile().predict(inputValues), jsonNet.predict(inputValues), 1e-12);
+        net.fit(0.01, inputValues, expectedOutput);
+        jsonNet.fitBatch(0.01, new double[][]{inputValues}, new double[][]{expectedOutput});
+        assertArrayEquals(jsonNet.predict(inputValues), net.predict(inputValues), 1e-12);
+    }
+
+}
@@ -0,0 +1,92 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import com.github.mrdimosthenis.synapses.Net;
+import com.github.mrdimosthenis.synapses.Workspace;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * @hidden
+ */
+public class WorkspaceTest {
+
+    static String readFile(String path)
+            throws IOException
+    {
+        byte[] encoded = Files.readAllBytes(Paths.get(path));
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    public WorkspaceTest() throws IOException {
+    }
+
+    Net neuralNetwork = new Net(readFile("test-resources/network.json"));
+
+    double[] inputValues = {1.0, 0.5625, 0.511111, 0.47619};
+
+    Workspace workspace = neuralNetwork.workspace();
+
+    double[] prediction = new double[3];
+
+    static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    long allocatedBytesOfPredictions(int times) {
+        long before = allocatedBytes();
+        for (int i = 0; i < times; i++) {
+            neuralNetwork.predict(inputValues, prediction, workspace);
+        }
+        return allocatedBytes() - before;
+    }
+
+    @Test
+    public void workspacePrediction() {
+        neuralNetwork.predict(inputValues, prediction, workspace);
+        assertArrayEquals(
+                neuralNetwork.predict(inputValues),
+                prediction,
+                0.0
+        );
+    }
+
+    @Test
+    public void singleLayerWorkspacePrediction() {
+        Net singleLayerNet = new Net(new int[]{3, 2});
+        double[] input = {0.4, 0.05, 0.2};
+        double[] output = new double[2];
+        singleLayerNet.predict(input, output, singleLayerNet.workspace());
+        assertArrayEquals(
+                singleLayerNet.predict(input),
+                output,
+                0.0
+        );
+    }
+
+    @Test
+    public void workspacePredictionDoesNotAllocate() {
+        // warm up, so the network is compiled and the loop is jitted
+        allocatedBytesOfPredictions(20_000);
+        // the JIT may allocate while it recompiles, so the cleanest of a few measurements counts
+        long difference = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < 5 && difference != 0; attempt++) {
+            long overhead = allocatedBytesOfPredictions(0);
+            long allocated = allocatedBytesOfPredictions(10_000);
+            difference = Math.abs(allocated - overhead);
+        }
+        assertEquals(0, difference);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchedWorkspace() {
+        neuralNetwork.predict(inputValues, prediction, new Workspace(new int[]{4, 5, 3}));
+    }
+
+}